@@ -0,0 +1,52 @@
+package com.infraleap.leaderboards;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.standin.StandInProperties;
+import com.infraleap.leaderboards.standin.SyntheticFleet;
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Seeded fixtures for the benchmarks, built from the stand-in's {@link SyntheticFleet} so the
+ * shapes match what the stand-in serves.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    public static SyntheticFleet fleet(int machines, int scoresPerMachine) {
+        return new SyntheticFleet(new StandInProperties(0, machines, scoresPerMachine, 0, 0, 0, 0,
+                null, 0, 42, 0, 0, 0, 0, 0));
+    }
+
+    public static Map<Long, HighScoreResponse> highScores(SyntheticFleet fleet) {
+        Map<Long, HighScoreResponse> scores = new HashMap<>();
+        for (Machine machine : fleet.machines()) {
+            fleet.highScores(machine.safeId()).ifPresent(s -> scores.put(machine.safeId(), s));
+        }
+        return scores;
+    }
+
+    public static Map<String, AvatarInfo> avatars(SyntheticFleet fleet) {
+        Map<String, AvatarInfo> avatars = new HashMap<>();
+        fleet.userDetail("http://localhost/avatars/").user().profile().following()
+                .forEach(f -> avatars.put(f.initials().toLowerCase(), new AvatarInfo(f.avatarUrl(), f.backgroundColorHex())));
+        return avatars;
+    }
+
+    /** Leaves image URLs as Stern sent them. */
+    public static ImageUrls imageUrls() {
+        return (sourceUrl, variant) -> sourceUrl;
+    }
+
+    public static LeaderboardProperties properties() {
+        return new LeaderboardProperties(null, null, null, null, null, null, 0, 0, false, 0, 0, 0, 0,
+                false, 0, null, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.infraleap.leaderboards.kiosk;
+
+import com.infraleap.leaderboards.BenchmarkFixtures;
+import com.infraleap.leaderboards.api.Representation;
+import com.infraleap.leaderboards.standin.SyntheticFleet;
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.ui.model.MachineView;
+import com.infraleap.leaderboards.ui.model.MachineViews;
+import com.infraleap.leaderboards.ui.model.ViewSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the kiosk page for a whole fleet and gzipping it, the work done once per snapshot
+ * no matter how many displays show the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KioskRenderBenchmark {
+
+    @Param({"20", "500"})
+    int machines;
+
+    @Param({"5", "100"})
+    int scoresPerMachine;
+
+    private ViewSnapshot views;
+    private String html;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFleet fleet = BenchmarkFixtures.fleet(machines, scoresPerMachine);
+        Map<Long, HighScoreResponse> scores = BenchmarkFixtures.highScores(fleet);
+        Map<String, AvatarInfo> avatars = BenchmarkFixtures.avatars(fleet);
+        List<MachineView> machineViews = new ArrayList<>();
+        Map<Long, MachineView> byId = new HashMap<>();
+        for (Machine machine : fleet.machines()) {
+            MachineView view = MachineViews.of(machine, scores.get(machine.safeId()), avatars, new long[0], null,
+                    BenchmarkFixtures.imageUrls());
+            machineViews.add(view);
+            byId.put(view.machineId(), view);
+        }
+        views = new ViewSnapshot(1, Instant.now(), machineViews, byId);
+        html = KioskHtml.render(views, 1, true, "");
+    }
+
+    @Benchmark
+    public String render() {
+        return KioskHtml.render(views, 1, true, "");
+    }
+
+    @Benchmark
+    public Representation gzip() {
+        return Representation.of(html.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.infraleap.leaderboards.stern.domain;
+
+import com.infraleap.leaderboards.BenchmarkFixtures;
+import com.infraleap.leaderboards.standin.SyntheticFleet;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of the three payloads fetched per refresh, from the bytes the stand-in would
+ * serve for the same fleet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBindingBenchmark {
+
+    @Param({"20", "500"})
+    int machines;
+
+    @Param({"5", "100"})
+    int scoresPerMachine;
+
+    private JsonMapper jsonMapper;
+    private byte[] machinesJson;
+    private byte[] highScoresJson;
+    private byte[] machineDetailJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jsonMapper = JsonMapper.builder().build();
+        SyntheticFleet fleet = BenchmarkFixtures.fleet(machines, scoresPerMachine);
+        long machineId = fleet.machines().getFirst().safeId();
+        machinesJson = jsonMapper.writeValueAsBytes(new MachinesResponse(new UserData(fleet.machines())));
+        highScoresJson = jsonMapper.writeValueAsBytes(fleet.highScores(machineId).orElseThrow());
+        machineDetailJson = jsonMapper.writeValueAsBytes(fleet.detail(machineId).orElseThrow());
+    }
+
+    @Benchmark
+    public MachinesResponse machinesResponse() {
+        return jsonMapper.readValue(machinesJson, MachinesResponse.class);
+    }
+
+    @Benchmark
+    public HighScoreResponse highScoreResponse() {
+        return jsonMapper.readValue(highScoresJson, HighScoreResponse.class);
+    }
+
+    @Benchmark
+    public MachineDetail machineDetail() {
+        return jsonMapper.readValue(machineDetailJson, MachineDetail.class);
+    }
+}
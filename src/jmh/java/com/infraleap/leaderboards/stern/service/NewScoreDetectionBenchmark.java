@@ -0,0 +1,80 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.BenchmarkFixtures;
+import com.infraleap.leaderboards.standin.SyntheticFleet;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.journal.JournalEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Score-change detection for one refresh: every machine's fresh board diffed against the
+ * previous one, with a tenth of the machines having a new score, and the common case of a
+ * refresh in which no board changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewScoreDetectionBenchmark {
+
+    @Param({"20", "500"})
+    int machines;
+
+    @Param({"5", "100"})
+    int scoresPerMachine;
+
+    private LeaderboardDataService service;
+    private List<Machine> fleetMachines;
+    private Map<Long, HighScoreResponse> current;
+    private Map<Long, HighScoreResponse> unchanged;
+    private Instant now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFleet fleet = BenchmarkFixtures.fleet(machines, scoresPerMachine);
+        fleetMachines = fleet.machines();
+        service = new LeaderboardDataService(null, null, null, null, null, null,
+                BenchmarkFixtures.imageUrls(), new SimpleMeterRegistry(), BenchmarkFixtures.properties());
+        service.restore(new SnapshotStore.Snapshot(Instant.now(), fleetMachines, Map.of(),
+                BenchmarkFixtures.highScores(fleet)));
+        // Equal boards in fresh response instances, as a refresh without new scores delivers them
+        unchanged = BenchmarkFixtures.highScores(fleet);
+
+        for (int i = 0; i < Math.max(1, machines / 10); i++) {
+            fleet.play();
+        }
+        current = BenchmarkFixtures.highScores(fleet);
+        now = Instant.now();
+    }
+
+    @Benchmark
+    public int detectScoreChanges(Blackhole bh) {
+        return detect(current, bh);
+    }
+
+    @Benchmark
+    public int detectNoChanges(Blackhole bh) {
+        return detect(unchanged, bh);
+    }
+
+    private int detect(Map<Long, HighScoreResponse> boards, Blackhole bh) {
+        List<JournalEntry> journal = new ArrayList<>();
+        int found = 0;
+        for (Machine machine : fleetMachines) {
+            found += service.detectScoreChanges(machine, boards.get(machine.safeId()), now, journal).size();
+        }
+        bh.consume(journal);
+        return found;
+    }
+}
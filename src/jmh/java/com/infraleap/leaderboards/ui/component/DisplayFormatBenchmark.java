@@ -0,0 +1,44 @@
+package com.infraleap.leaderboards.ui.component;
+
+import com.infraleap.leaderboards.stern.ingest.SternInstant;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the typed values the views show, and the one-off timestamp parse done at bind time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisplayFormatBenchmark {
+
+    private final long score = 4823117960L;
+    private final String lastPlayedText = "2025-03-14T21:07:42.318512Z";
+    private final String lastPlayedWithOffsetText = "2025-03-14T21:07:42.318512+00:00";
+    private final Instant lastPlayed = Instant.parse(lastPlayedText);
+
+    @Benchmark
+    public String formatScore() {
+        return DisplayFormat.formatScore(score);
+    }
+
+    @Benchmark
+    public String formatDateTime() {
+        return DisplayFormat.formatDateTime(lastPlayed, "Never");
+    }
+
+    @Benchmark
+    public Instant parseTimestamp() {
+        return SternInstant.parse(lastPlayedText);
+    }
+
+    @Benchmark
+    public Instant parseTimestampWithOffset() {
+        return SternInstant.parse(lastPlayedWithOffsetText);
+    }
+}
@@ -0,0 +1,74 @@
+package com.infraleap.leaderboards.ui.component;
+
+import com.infraleap.leaderboards.BenchmarkFixtures;
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.standin.SyntheticFleet;
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.ui.model.MachineView;
+import com.infraleap.leaderboards.ui.model.MachineViews;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building one machine's render model, which happens once per snapshot, and the server-side
+ * component construction and no-change update every UI then performs from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    @Param({"5", "100"})
+    int scoresPerMachine;
+
+    private Machine machine;
+    private HighScoreResponse scores;
+    private Map<String, AvatarInfo> avatars;
+    private long[] newScoreKeys;
+    private ImageUrls imageUrls;
+    private MachineView view;
+    private MachineView equalView;
+    private MachineCard existingCard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticFleet fleet = BenchmarkFixtures.fleet(1, scoresPerMachine);
+        machine = fleet.machines().getFirst();
+        scores = fleet.highScores(machine.safeId()).orElseThrow();
+        avatars = BenchmarkFixtures.avatars(fleet);
+        imageUrls = BenchmarkFixtures.imageUrls();
+        newScoreKeys = new long[]{scores.highScores().getFirst().key()};
+        view = MachineViews.of(machine, scores, avatars, newScoreKeys, null, imageUrls);
+        // An equal but distinct instance, so the card compares contents instead of identity
+        equalView = MachineViews.of(machine, scores, avatars, newScoreKeys, null, imageUrls);
+        existingCard = new MachineCard(view, "");
+    }
+
+    @Benchmark
+    public MachineView machineView() {
+        return MachineViews.of(machine, scores, avatars, newScoreKeys, null, imageUrls);
+    }
+
+    @Benchmark
+    public HighScoresTable highScoresTable() {
+        return new HighScoresTable(view.scores());
+    }
+
+    @Benchmark
+    public MachineCard machineCard() {
+        return new MachineCard(view, "");
+    }
+
+    @Benchmark
+    public int machineCardUnchangedUpdate() {
+        existingCard.update(equalView);
+        return existingCard.update(view);
+    }
+}
@@ -1,6 +1,7 @@
 package com.infraleap.leaderboards;
 
 import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.standin.StandInProperties;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.dependency.NpmPackage;
 import com.vaadin.flow.component.dependency.StyleSheet;
@@ -15,7 +16,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties(LeaderboardProperties.class)
+@EnableConfigurationProperties({LeaderboardProperties.class, StandInProperties.class})
 @Push
 @StyleSheet(Lumo.STYLESHEET)
 @StyleSheet("styles.css")
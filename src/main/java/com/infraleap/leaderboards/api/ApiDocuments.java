@@ -0,0 +1,53 @@
+package com.infraleap.leaderboards.api;
+
+import com.infraleap.leaderboards.ui.model.MachineView;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * JSON bodies of the {@code /api} endpoints. They carry the same resolved and formatted values
+ * as the Vaadin views; image URLs point at the image proxy and are relative to the application root.
+ */
+public final class ApiDocuments {
+
+    private ApiDocuments() {
+    }
+
+    /** {@code GET /api/snapshot}: every machine with its scores. */
+    public record Snapshot(long version, Instant publishedAt, List<MachineView> machines) {}
+
+    /** {@code GET /api/machines}: every machine without its scores. */
+    public record Machines(long version, Instant publishedAt, List<Machine> machines) {}
+
+    /**
+     * {@code GET /api/machines/{id}/scores}. Carries no version, so the ETag stays the same for
+     * as long as the board does.
+     */
+    public record Scores(long machineId, List<MachineView.ScoreRow> scores) {}
+
+    /** A {@link MachineView} without its score rows. */
+    public record Machine(
+            long machineId,
+            String name,
+            String logoUrl,
+            String backgroundUrl,
+            String fullscreenLogoUrl,
+            String fullscreenBackgroundUrl,
+            String gradientStart,
+            String gradientStop,
+            String modelType,
+            String codeVersion,
+            List<MachineView.Alert> techAlerts,
+            String lastPlayed
+    ) {
+        static Machine of(MachineView view) {
+            return new Machine(view.machineId(), view.name(), view.logoUrl(), view.backgroundUrl(),
+                    view.fullscreenLogoUrl(), view.fullscreenBackgroundUrl(), view.gradientStart(),
+                    view.gradientStop(), view.modelType(), view.codeVersion(), view.techAlerts(), view.lastPlayed());
+        }
+    }
+
+    /** Data of the {@code snapshot} stream event. */
+    public record Version(long version) {}
+}
@@ -0,0 +1,158 @@
+package com.infraleap.leaderboards.api;
+
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardEvent;
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The {@code /api/events} Server-Sent Events stream. Every client first gets a {@code snapshot}
+ * event with the current version, then one per published snapshot, followed by a
+ * {@code new-score} event for each new entry in it. Clients fetch the documents they show when
+ * the version moves on. Each client is an ordinary {@link LeaderboardBroadcaster} listener, so a
+ * slow client only delays itself and a stalled one is dropped, which closes its stream. A comment
+ * line every {@link #HEARTBEAT} keeps proxies from timing out idle streams and detects clients
+ * that went away; streams end after {@link #STREAM_TIMEOUT}, and browsers reconnect on their own.
+ * Clients follow the tenant whose stream they opened.
+ */
+@Component
+class ApiEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiEventStream.class);
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+    private static final Duration STREAM_TIMEOUT = Duration.ofHours(1);
+
+    private final TaskScheduler taskScheduler;
+    private final JsonMapper jsonMapper;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService heartbeatExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    ApiEventStream(TenantRegistry tenants, TaskScheduler taskScheduler, JsonMapper jsonMapper) {
+        this.taskScheduler = taskScheduler;
+        this.jsonMapper = jsonMapper;
+        for (Tenant tenant : tenants.all()) {
+            Gauge.builder("leaderboards.api.stream.clients", clients,
+                            all -> all.stream().filter(client -> client.tenant == tenant).count())
+                    .description("Open /api/events streams")
+                    .register(tenant.meterRegistry());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        taskScheduler.scheduleAtFixedRate(this::heartbeat, Instant.now().plus(HEARTBEAT), HEARTBEAT);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    SseEmitter open(Tenant tenant) {
+        Client client = new Client(tenant, new SseEmitter(STREAM_TIMEOUT.toMillis()));
+        client.emitter.onCompletion(client::close);
+        client.emitter.onTimeout(client::close);
+        client.emitter.onError(e -> client.close());
+        clients.add(client);
+        // Registered before the first event so no snapshot published in between is missed
+        client.registration = tenant.broadcaster().register(client::deliver, client::close);
+        if (client.closed.get()) client.registration.remove();
+        client.sendVersion();
+        return client.emitter;
+    }
+
+    private void heartbeat() {
+        for (Client client : clients) {
+            // At most one heartbeat per client in flight, so a stalled client holds one thread at most
+            if (!client.heartbeatPending.compareAndSet(false, true)) continue;
+            try {
+                heartbeatExecutor.execute(() -> {
+                    try {
+                        client.send(SseEmitter.event().comment(""));
+                    } finally {
+                        client.heartbeatPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                return; // shutting down
+            }
+        }
+    }
+
+    private final class Client {
+
+        final Tenant tenant;
+        final SseEmitter emitter;
+        final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        volatile Registration registration;
+
+        Client(Tenant tenant, SseEmitter emitter) {
+            this.tenant = tenant;
+            this.emitter = emitter;
+        }
+
+        void deliver(List<LeaderboardEvent> events) {
+            sendVersion();
+            for (LeaderboardEvent event : events) {
+                if (event instanceof LeaderboardEvent.NewScore newScore) {
+                    send(SseEmitter.event().name("new-score")
+                            .data(jsonMapper.writeValueAsString(newScore), MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+
+        void sendVersion() {
+            long version = tenant.dataService().getViews().version();
+            send(SseEmitter.event().name("snapshot").id(Long.toString(version))
+                    .data(jsonMapper.writeValueAsString(new ApiDocuments.Version(version)), MediaType.APPLICATION_JSON));
+        }
+
+        void send(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) return;
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Closing event stream: {}", e.getMessage());
+                close();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            clients.remove(this);
+            Registration current = registration;
+            if (current != null) current.remove();
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // already completed
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.infraleap.leaderboards.api;
+
+import com.infraleap.leaderboards.stern.journal.JournalEntry;
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.ui.model.MachineView;
+import com.infraleap.leaderboards.ui.model.ViewSnapshot;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Serializes the API responses at most once per published version, on first request. A
+ * machine's scores are serialized again only when its score rows changed, since unchanged rows
+ * keep their instance from one version to the next. There is one per tenant. Journal histories
+ * are not cached; they are serialized on every request.
+ */
+class ApiRepresentations {
+
+    private final LeaderboardDataService dataService;
+    private final JsonMapper jsonMapper;
+    private volatile Generation generation = new Generation(ViewSnapshot.EMPTY, new ConcurrentHashMap<>());
+
+    ApiRepresentations(LeaderboardDataService dataService, JsonMapper jsonMapper) {
+        this.dataService = dataService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    Representation snapshot() {
+        Generation current = current();
+        Representation snapshot = current.snapshot;
+        if (snapshot == null) {
+            ViewSnapshot views = current.views;
+            snapshot = serialize(new ApiDocuments.Snapshot(views.version(), views.publishedAt(), views.machines()));
+            current.snapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    Representation machines() {
+        Generation current = current();
+        Representation machines = current.machines;
+        if (machines == null) {
+            ViewSnapshot views = current.views;
+            List<ApiDocuments.Machine> summaries = new ArrayList<>(views.machines().size());
+            for (MachineView view : views.machines()) {
+                summaries.add(ApiDocuments.Machine.of(view));
+            }
+            machines = serialize(new ApiDocuments.Machines(views.version(), views.publishedAt(), summaries));
+            current.machines = machines;
+        }
+        return machines;
+    }
+
+    /**
+     * The machine's scores, or {@code null} when the current snapshot has no such machine.
+     */
+    Representation scores(long machineId) {
+        Generation current = current();
+        MachineView view = current.views.byId().get(machineId);
+        if (view == null) return null;
+        return current.scores.computeIfAbsent(machineId,
+                id -> new ScoresEntry(view.scores(), serialize(new ApiDocuments.Scores(id, view.scores()))))
+                .representation();
+    }
+
+    /**
+     * {@code {"entries":[...]}} with the journal entries in the order streamed. The entries are
+     * written as they are read, so the history is never held in memory as a list. Closes the stream.
+     */
+    Representation history(Stream<JournalEntry> entries) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (entries; JsonGenerator generator = jsonMapper.createGenerator(body)) {
+            generator.writeStartObject();
+            generator.writeName("entries");
+            generator.writeStartArray();
+            entries.forEach(generator::writePOJO);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return Representation.of(body.toByteArray());
+    }
+
+    private Generation current() {
+        ViewSnapshot views = dataService.getViews();
+        Generation current = generation;
+        if (current.views == views) return current;
+        synchronized (this) {
+            current = generation;
+            // A request that read the views just before a publish must not replace the newer generation
+            if (current.views == views || current.views.version() > views.version()) return current;
+            // Carry over the serialized scores of every board whose rows are still the same instance
+            ConcurrentHashMap<Long, ScoresEntry> carried = new ConcurrentHashMap<>();
+            current.scores.forEach((machineId, entry) -> {
+                MachineView view = views.byId().get(machineId);
+                if (view != null && view.scores() == entry.rows()) carried.put(machineId, entry);
+            });
+            Generation next = new Generation(views, carried);
+            generation = next;
+            return next;
+        }
+    }
+
+    private Representation serialize(Object document) {
+        return Representation.of(jsonMapper.writeValueAsBytes(document));
+    }
+
+    private record ScoresEntry(List<MachineView.ScoreRow> rows, Representation representation) {}
+
+    private static final class Generation {
+
+        final ViewSnapshot views;
+        final ConcurrentHashMap<Long, ScoresEntry> scores;
+        // Serialized lazily; a race only means serializing the same document twice
+        volatile Representation snapshot;
+        volatile Representation machines;
+
+        Generation(ViewSnapshot views, ConcurrentHashMap<Long, ScoresEntry> scores) {
+            this.views = views;
+            this.scores = scores;
+        }
+    }
+}
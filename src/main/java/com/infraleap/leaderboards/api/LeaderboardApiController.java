@@ -0,0 +1,128 @@
+package com.infraleap.leaderboards.api;
+
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only JSON API over the published snapshot, for displays that do not need a Vaadin UI.
+ * Responses are served from {@link ApiRepresentations}, gzipped when the client accepts it, with
+ * a strong ETag per encoding; clients revalidate on every request and get a 304 until the content changes.
+ * {@code /api/events} streams the snapshot version and new scores as Server-Sent Events. The
+ * {@code history} endpoints read a machine's or a player's entries from the score journal.
+ * The default tenant is served under {@code /api}, the others under {@code /t/<tenant>/api}.
+ */
+@RestController
+public class LeaderboardApiController {
+
+    private final TenantRegistry tenants;
+    private final Map<Tenant, ApiRepresentations> representations = new HashMap<>();
+    private final ApiEventStream eventStream;
+
+    public LeaderboardApiController(TenantRegistry tenants, ApiEventStream eventStream, JsonMapper jsonMapper) {
+        this.tenants = tenants;
+        this.eventStream = eventStream;
+        for (Tenant tenant : tenants.all()) {
+            representations.put(tenant, new ApiRepresentations(tenant.dataService(), jsonMapper));
+        }
+    }
+
+    @GetMapping({"/api/snapshot", "/t/{tenant}/api/snapshot"})
+    public ResponseEntity<byte[]> snapshot(
+            @PathVariable(required = false) String tenant,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        return respond(t, "snapshot", representations.get(t).snapshot(), ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping({"/api/machines", "/t/{tenant}/api/machines"})
+    public ResponseEntity<byte[]> machines(
+            @PathVariable(required = false) String tenant,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        return respond(t, "machines", representations.get(t).machines(), ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping({"/api/machines/{id}/scores", "/t/{tenant}/api/machines/{id}/scores"})
+    public ResponseEntity<byte[]> scores(
+            @PathVariable(required = false) String tenant,
+            @PathVariable long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        Representation scores = representations.get(t).scores(id);
+        if (scores == null) return ResponseEntity.notFound().build();
+        return respond(t, "scores", scores, ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping({"/api/machines/{id}/history", "/t/{tenant}/api/machines/{id}/history"})
+    public ResponseEntity<byte[]> machineHistory(
+            @PathVariable(required = false) String tenant,
+            @PathVariable long id,
+            @RequestParam(required = false) Instant since,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        Representation history = representations.get(t).history(
+                t.scoreJournal().byMachine(id, since != null ? since : Instant.MIN, Instant.MAX));
+        return respond(t, "history", history, ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping({"/api/players/{name}/history", "/t/{tenant}/api/players/{name}/history"})
+    public ResponseEntity<byte[]> playerHistory(
+            @PathVariable(required = false) String tenant,
+            @PathVariable String name,
+            @RequestParam(required = false) Instant since,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        Representation history = representations.get(t).history(
+                t.scoreJournal().byPlayer(name, since != null ? since : Instant.MIN, Instant.MAX));
+        return respond(t, "history", history, ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping(path = {"/api/events", "/t/{tenant}/api/events"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable(required = false) String tenant) {
+        return eventStream.open(tenant(tenant));
+    }
+
+    private Tenant tenant(String id) {
+        Tenant tenant = id != null ? tenants.find(id) : tenants.defaultTenant();
+        if (tenant == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such tenant");
+        return tenant;
+    }
+
+    private ResponseEntity<byte[]> respond(Tenant tenant, String resource, Representation representation,
+                                           String ifNoneMatch, String acceptEncoding) {
+        ResponseEntity<byte[]> response = representation.respond(MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding);
+        count(tenant, resource, response.getStatusCode() == HttpStatus.NOT_MODIFIED ? "not_modified" : "ok");
+        return response;
+    }
+
+    private static void count(Tenant tenant, String resource, String result) {
+        Counter.builder("leaderboards.api.requests")
+                .description("API requests by resource and whether the client's copy was still current")
+                .tag("resource", resource)
+                .tag("result", result)
+                .register(tenant.meterRegistry())
+                .increment();
+    }
+}
@@ -0,0 +1,392 @@
+package com.infraleap.leaderboards.cluster;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.service.SnapshotStore;
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Lets several instances on one host share a single poller. Whichever instance holds the lock on
+ * {@code leaderboards.cluster.lock-file} is the leader: it polls Stern, writes the address of its
+ * replication socket into the lock file and streams every tenant's snapshots to the followers,
+ * a full one when they connect and the changed boards after that. Followers never log in to
+ * Stern; they feed what they receive into their own data services, so new-score detection,
+ * the journal and the UIs work the same on every instance. The lock goes with the leader's
+ * process, so when it dies a follower sees its stream close, takes the lock and starts polling,
+ * usually within a second; a leader that stops sending heartbeats for {@link #LEADER_TIMEOUT}
+ * is dropped and reconnected to.
+ */
+@Component
+public class ClusterCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+    private static final Duration HEARTBEAT = Duration.ofSeconds(1);
+    private static final Duration LEADER_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(500);
+    private static final int FOLLOWER_QUEUE_CAPACITY = 256;
+
+    private final TenantRegistry tenants;
+    private final TaskScheduler taskScheduler;
+    private final LeaderboardProperties.Cluster config;
+    private final Counter fullSnapshots;
+    private final Counter deltas;
+    private final List<Follower> followers = new CopyOnWriteArrayList<>();
+    private final List<Registration> registrations = new ArrayList<>();
+    // Guarded by this: what each tenant's followers have been sent so far
+    private final Map<Tenant, Sent> sent = new HashMap<>();
+
+    private volatile boolean running = true;
+    private volatile boolean leading;
+    private volatile Thread thread;
+    private volatile FileChannel lockChannel;
+    private volatile ServerSocket server;
+    private volatile Socket leaderSocket;
+    private volatile ScheduledFuture<?> heartbeatTask;
+
+    public ClusterCoordinator(TenantRegistry tenants, TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+                              LeaderboardProperties props) {
+        this.tenants = tenants;
+        this.taskScheduler = taskScheduler;
+        this.config = props.cluster();
+        Gauge.builder("leaderboards.cluster.leader", this, coordinator -> coordinator.leading ? 1 : 0)
+                .description("1 while this instance is the cluster leader and polls Stern")
+                .register(meterRegistry);
+        Gauge.builder("leaderboards.cluster.followers", followers, List::size)
+                .description("Followers connected to this leader")
+                .register(meterRegistry);
+        this.fullSnapshots = Counter.builder("leaderboards.cluster.received")
+                .description("Snapshot frames received from the leader")
+                .tag("kind", "full")
+                .register(meterRegistry);
+        this.deltas = Counter.builder("leaderboards.cluster.received")
+                .description("Snapshot frames received from the leader")
+                .tag("kind", "delta")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!config.enabled()) return;
+        thread = Thread.ofVirtual().name("cluster").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (heartbeatTask != null) heartbeatTask.cancel(false);
+        registrations.forEach(Registration::remove);
+        closeQuietly(server);
+        closeQuietly(leaderSocket);
+        followers.forEach(Follower::close);
+        Thread current = thread;
+        if (current != null) current.interrupt();
+        // Closing the channel releases the lock for the next leader
+        closeQuietly(lockChannel);
+    }
+
+    public boolean isLeader() {
+        return leading;
+    }
+
+    private void run() {
+        Path lockFile = Path.of(config.lockFile());
+        while (running) {
+            try {
+                if (tryLead(lockFile)) return;
+                InetSocketAddress leader = leaderAddress(lockFile);
+                if (leader != null) follow(leader);
+            } catch (IOException e) {
+                if (running) log.warn("Cluster: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(RETRY_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Leader
+
+    /**
+     * Takes the lock if nobody holds it and serves followers until shutdown; returns
+     * {@code false} right away if another instance leads.
+     */
+    private boolean tryLead(Path lockFile) throws IOException {
+        Path dir = lockFile.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        FileChannel channel = FileChannel.open(lockFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (IOException | OverlappingFileLockException e) {
+            channel.close();
+            throw new IOException("cannot lock " + lockFile + ": " + e.getMessage(), e);
+        }
+        if (lock == null) {
+            channel.close();
+            return false;
+        }
+        lockChannel = channel;
+
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(config.port()));
+        server = socket;
+        String address = config.host() + ":" + socket.getLocalPort();
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap((address + "\n").getBytes(StandardCharsets.UTF_8)), 0);
+        channel.force(true);
+
+        leading = true;
+        for (Tenant tenant : tenants.all()) {
+            registrations.add(tenant.broadcaster().register(events -> published(tenant)));
+        }
+        heartbeatTask = taskScheduler.scheduleAtFixedRate(this::heartbeat, Instant.now().plus(HEARTBEAT), HEARTBEAT);
+        log.info("Cluster: elected leader, polling Stern and serving followers at {}", address);
+        tenants.startPolling();
+
+        while (running) {
+            try {
+                Follower follower = new Follower(socket.accept());
+                join(follower);
+            } catch (IOException e) {
+                if (running) log.warn("Cluster: accepting followers failed: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sends every tenant's current data in full, then adds the follower to the delta stream, all
+     * under the lock so no delta is missed or sent twice.
+     */
+    private synchronized void join(Follower follower) throws IOException {
+        for (Tenant tenant : tenants.all()) {
+            Sent current = sent.computeIfAbsent(tenant, t -> new Sent(t.dataService().snapshot(), 0));
+            follower.send(ClusterProtocol.snapshot(ClusterProtocol.FULL, tenant.id(), current.sequence, current.snapshot));
+        }
+        followers.add(follower);
+        follower.thread = Thread.ofVirtual().name("cluster-follower").start(follower::drain);
+        log.info("Cluster: follower {} connected", follower.socket.getRemoteSocketAddress());
+    }
+
+    private synchronized void published(Tenant tenant) {
+        SnapshotStore.Snapshot current = tenant.dataService().snapshot();
+        Sent previous = sent.get(tenant);
+        // Unchanged boards keep their instance from one refresh to the next
+        Map<Long, HighScoreResponse> changed = new HashMap<>();
+        current.highScores().forEach((machineId, scores) -> {
+            if (previous == null || previous.snapshot.highScores().get(machineId) != scores) {
+                changed.put(machineId, scores);
+            }
+        });
+        long sequence = previous != null ? previous.sequence + 1 : 0;
+        sent.put(tenant, new Sent(current, sequence));
+        if (followers.isEmpty()) return;
+        try {
+            byte[] frame = ClusterProtocol.snapshot(ClusterProtocol.DELTA, tenant.id(), sequence,
+                    new SnapshotStore.Snapshot(current.savedAt(), current.machines(), current.avatars(), changed));
+            followers.forEach(follower -> follower.send(frame));
+        } catch (IOException e) {
+            log.error("Cluster: cannot encode snapshot of tenant {}", tenant, e);
+        }
+    }
+
+    private void heartbeat() {
+        if (followers.isEmpty()) return;
+        Map<String, Instant> refreshedAt = new LinkedHashMap<>();
+        for (Tenant tenant : tenants.all()) {
+            Instant at = tenant.dataService().refreshedAt();
+            if (at != null) refreshedAt.put(tenant.id(), at);
+        }
+        try {
+            byte[] frame = ClusterProtocol.heartbeat(refreshedAt);
+            followers.forEach(follower -> follower.send(frame));
+        } catch (IOException e) {
+            log.error("Cluster: cannot encode heartbeat", e);
+        }
+    }
+
+    private record Sent(SnapshotStore.Snapshot snapshot, long sequence) {}
+
+    /**
+     * A connected follower. Frames are queued and written by the follower's own virtual thread,
+     * so a slow follower never holds up publishing; one that falls
+     * {@link #FOLLOWER_QUEUE_CAPACITY} frames behind is disconnected and resyncs in full.
+     */
+    private final class Follower {
+
+        final Socket socket;
+        final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(FOLLOWER_QUEUE_CAPACITY);
+        volatile Thread thread;
+        private volatile boolean closed;
+
+        Follower(Socket socket) {
+            this.socket = socket;
+        }
+
+        void send(byte[] frame) {
+            if (closed) return;
+            if (!queue.offer(frame)) {
+                log.warn("Cluster: follower {} fell behind, disconnecting", socket.getRemoteSocketAddress());
+                close();
+            }
+        }
+
+        void drain() {
+            try (OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+                while (!closed) {
+                    out.write(queue.take());
+                    if (queue.isEmpty()) out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                if (!closed) log.info("Cluster: follower {} disconnected", socket.getRemoteSocketAddress());
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            followers.remove(this);
+            closeQuietly(socket);
+            Thread current = thread;
+            if (current != null) current.interrupt();
+        }
+    }
+
+    // Follower
+
+    private static InetSocketAddress leaderAddress(Path lockFile) throws IOException {
+        if (!Files.isRegularFile(lockFile)) return null;
+        String address = Files.readString(lockFile, StandardCharsets.UTF_8).trim();
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0) return null;
+        try {
+            return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Applies the leader's frames until its stream ends, goes quiet for {@link #LEADER_TIMEOUT}
+     * or skips a sequence number.
+     */
+    private void follow(InetSocketAddress leader) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(leader, (int) LEADER_TIMEOUT.toMillis());
+            socket.setSoTimeout((int) LEADER_TIMEOUT.toMillis());
+            leaderSocket = socket;
+            log.info("Cluster: following leader at {}", leader);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            Map<String, Received> received = new HashMap<>();
+            while (running) {
+                ClusterProtocol.Frame frame = ClusterProtocol.read(in);
+                if (frame.kind() == ClusterProtocol.HEARTBEAT) {
+                    frame.refreshedAt().forEach((id, at) -> {
+                        Tenant tenant = tenants.find(id);
+                        if (tenant != null) tenant.dataService().markRefreshed(at);
+                    });
+                    continue;
+                }
+                Tenant tenant = tenants.find(frame.tenant());
+                // A tenant only the leader is configured for
+                if (tenant == null) continue;
+                received.put(tenant.id(), apply(tenant, frame, received.get(tenant.id())));
+            }
+        } catch (EOFException e) {
+            if (running) log.info("Cluster: leader at {} went away", leader);
+        } catch (IOException e) {
+            if (running) log.info("Cluster: lost leader at {}: {}", leader, e.getMessage());
+        } finally {
+            leaderSocket = null;
+        }
+    }
+
+    private Received apply(Tenant tenant, ClusterProtocol.Frame frame, Received previous) throws IOException {
+        SnapshotStore.Snapshot snapshot = frame.snapshot();
+        Map<Long, HighScoreResponse> scores;
+        if (frame.kind() == ClusterProtocol.FULL) {
+            fullSnapshots.increment();
+            scores = snapshot.highScores();
+        } else {
+            if (previous == null || frame.sequence() != previous.sequence + 1) {
+                throw new IOException("tenant " + tenant + " skipped from " + (previous != null ? previous.sequence : "nothing")
+                        + " to " + frame.sequence() + ", resyncing");
+            }
+            deltas.increment();
+            Set<Long> listed = new HashSet<>();
+            for (Machine machine : snapshot.machines()) {
+                listed.add(machine.safeId());
+            }
+            scores = new HashMap<>(previous.scores);
+            scores.putAll(snapshot.highScores());
+            scores.keySet().retainAll(listed);
+        }
+        try {
+            tenant.dataService().apply(new SnapshotStore.Snapshot(snapshot.savedAt(), snapshot.machines(),
+                    snapshot.avatars(), scores));
+        } catch (RuntimeException e) {
+            log.error("Cluster: cannot apply snapshot of tenant {}", tenant, e);
+        }
+        return new Received(frame.sequence(), scores);
+    }
+
+    private record Received(long sequence, Map<Long, HighScoreResponse> scores) {}
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // closing anyway
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.infraleap.leaderboards.cluster;
+
+import com.infraleap.leaderboards.stern.service.SnapshotStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Frames the leader sends to its followers. Every frame is {@code [length][magic][kind][body]}.
+ * Snapshot frames carry the tenant, a sequence number per tenant and a {@link SnapshotStore}
+ * payload: a {@link #FULL} frame holds every machine's scores, a {@link #DELTA} frame only those
+ * that changed since the frame before it, so a follower that sees a gap in the sequence has to
+ * reconnect for a full one. Heartbeats carry when each tenant last heard back from Stern.
+ */
+final class ClusterProtocol {
+
+    static final byte FULL = 1;
+    static final byte DELTA = 2;
+    static final byte HEARTBEAT = 3;
+
+    private static final int MAGIC = 0x53484C43; // "SHLC"
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private ClusterProtocol() {
+    }
+
+    static byte[] snapshot(byte kind, String tenant, long sequence, SnapshotStore.Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream out = begin(bytes, kind);
+        out.writeUTF(tenant);
+        out.writeLong(sequence);
+        SnapshotStore.write(out, snapshot);
+        return end(bytes, out);
+    }
+
+    /**
+     * @param refreshedAt per tenant, when its data last came back from Stern; tenants that have
+     *                    not heard back yet are left out
+     */
+    static byte[] heartbeat(Map<String, Instant> refreshedAt) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + refreshedAt.size() * 32);
+        DataOutputStream out = begin(bytes, HEARTBEAT);
+        out.writeInt(refreshedAt.size());
+        for (Map.Entry<String, Instant> entry : refreshedAt.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue().toEpochMilli());
+        }
+        return end(bytes, out);
+    }
+
+    static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 5 || length > MAX_FRAME_BYTES) throw new IOException("Bad frame length " + length);
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        DataInputStream body = new DataInputStream(new ByteArrayInputStream(frame));
+        if (body.readInt() != MAGIC) throw new IOException("Not a cluster frame");
+        byte kind = body.readByte();
+        return switch (kind) {
+            case FULL, DELTA -> new Frame(kind, body.readUTF(), body.readLong(), SnapshotStore.read(body), Map.of());
+            case HEARTBEAT -> {
+                int tenants = body.readInt();
+                Map<String, Instant> refreshedAt = new LinkedHashMap<>();
+                for (int i = 0; i < tenants; i++) {
+                    refreshedAt.put(body.readUTF(), Instant.ofEpochMilli(body.readLong()));
+                }
+                yield new Frame(kind, null, 0, null, refreshedAt);
+            }
+            default -> throw new IOException("Unknown frame kind " + kind);
+        };
+    }
+
+    private static DataOutputStream begin(ByteArrayOutputStream bytes, byte kind) throws IOException {
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0); // length, patched in end()
+        out.writeInt(MAGIC);
+        out.writeByte(kind);
+        return out;
+    }
+
+    private static byte[] end(ByteArrayOutputStream bytes, DataOutputStream out) throws IOException {
+        out.flush();
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - Integer.BYTES;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    record Frame(byte kind, String tenant, long sequence, SnapshotStore.Snapshot snapshot,
+                 Map<String, Instant> refreshedAt) {}
+}
@@ -2,6 +2,11 @@ package com.infraleap.leaderboards.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "leaderboards")
 public record LeaderboardProperties(
         String sternUsername,
@@ -14,7 +19,21 @@ public record LeaderboardProperties(
         int gridColumns,
         boolean disableAutoscroll,
         int fireworksDurationSeconds,
-        int notificationAutoCloseSeconds
+        int notificationAutoCloseSeconds,
+        int fetchConcurrency,
+        int activityPollSeconds,
+        boolean reactiveRefresh,
+        int broadcastMailboxCapacity,
+        String snapshotFile,
+        Journal journal,
+        Http http,
+        Api api,
+        Images images,
+        Map<String, Account> tenants,
+        Cluster cluster,
+        Resilience resilience,
+        Cache cache,
+        Regional regional
 ) {
     public LeaderboardProperties {
         if (defaultCountry == null || defaultCountry.isBlank()) defaultCountry = "US";
@@ -23,5 +42,184 @@ public record LeaderboardProperties(
         if (gridColumns <= 0) gridColumns = 1;
         if (fireworksDurationSeconds <= 0) fireworksDurationSeconds = 30;
         if (notificationAutoCloseSeconds <= 0) notificationAutoCloseSeconds = 180;
+        if (fetchConcurrency <= 0) fetchConcurrency = 6;
+        if (broadcastMailboxCapacity <= 0) broadcastMailboxCapacity = 32;
+        if (journal == null) journal = new Journal(null, 0, 0);
+        if (http == null) http = new Http(0, 0, 0, 0, 0, 0, null);
+        if (api == null) api = new Api(null, null, null);
+        if (images == null) images = new Images(null, 0);
+        // Kept in configuration order, which is the order tenants take their refresh slots in
+        tenants = tenants != null ? Collections.unmodifiableMap(new LinkedHashMap<>(tenants)) : Map.of();
+        if (cluster == null) cluster = new Cluster(null, 0, null);
+        if (resilience == null) resilience = new Resilience(0, 0, -1, 0, 0, 0, 0);
+        if (cache == null) cache = new Cache(0, 0, -1, -1, -1, -1, -1, -1, -1);
+        if (regional == null) regional = new Regional(-1, 0, 0, 0);
+    }
+
+    /**
+     * These settings as seen by tenant {@code id}: its own credentials, and a snapshot file and
+     * journal directory of its own next to the configured ones.
+     */
+    public LeaderboardProperties forTenant(String id, Account account) {
+        String tenantSnapshotFile = snapshotFile;
+        if (snapshotFile != null && !snapshotFile.isBlank()) {
+            String name = Path.of(snapshotFile).getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            String tenantName = dot > 0 ? name.substring(0, dot) + "-" + id + name.substring(dot) : name + "-" + id;
+            tenantSnapshotFile = Path.of(snapshotFile).resolveSibling(tenantName).toString();
+        }
+        Journal tenantJournal = journal.directory() != null && !journal.directory().isBlank()
+                ? new Journal(Path.of(journal.directory()).resolve(id).toString(),
+                        journal.segmentSizeKb(), journal.retentionDays())
+                : journal;
+        return new LeaderboardProperties(account.sternUsername(), account.sternPassword(), defaultCountry,
+                defaultState, defaultStateName, defaultContinent, dataRefreshMinutes, gridColumns,
+                disableAutoscroll, fireworksDurationSeconds, notificationAutoCloseSeconds, fetchConcurrency,
+                activityPollSeconds, reactiveRefresh, broadcastMailboxCapacity, tenantSnapshotFile,
+                tenantJournal, http, api, images, Map.of(), cluster, resilience, cache, regional);
+    }
+
+    /**
+     * The Stern account of one additional tenant, configured as {@code leaderboards.tenants.<id>.*}.
+     */
+    public record Account(String sternUsername, String sternPassword) {
+    }
+
+    public record Journal(String directory, int segmentSizeKb, int retentionDays) {
+        public Journal {
+            if (segmentSizeKb <= 0) segmentSizeKb = 1024;
+            if (retentionDays <= 0) retentionDays = 365;
+        }
+    }
+
+    public record Http(int maxConnections, int connectTimeoutSeconds, int readTimeoutSeconds,
+                       int responseTimeoutSeconds, int maxIdleSeconds, int pendingAcquireTimeoutSeconds,
+                       Boolean http2) {
+        public Http {
+            if (maxConnections <= 0) maxConnections = 16;
+            if (connectTimeoutSeconds <= 0) connectTimeoutSeconds = 10;
+            if (readTimeoutSeconds <= 0) readTimeoutSeconds = 20;
+            if (responseTimeoutSeconds <= 0) responseTimeoutSeconds = 20;
+            if (maxIdleSeconds <= 0) maxIdleSeconds = 60;
+            if (pendingAcquireTimeoutSeconds <= 0) pendingAcquireTimeoutSeconds = 30;
+            if (http2 == null) http2 = true;
+        }
+    }
+
+    /**
+     * Base URLs of the Stern services, overridable to point at a stand-in server.
+     */
+    public record Api(String insiderUrl, String cmsUrl, String v2Url) {
+        public Api {
+            if (insiderUrl == null || insiderUrl.isBlank()) insiderUrl = "https://insider.sternpinball.com";
+            if (cmsUrl == null || cmsUrl.isBlank()) cmsUrl = "https://cms.prd.sternpinball.io/api/v1/portal";
+            if (v2Url == null || v2Url.isBlank()) v2Url = "https://api.prd.sternpinball.io/api/v2/portal";
+            insiderUrl = stripTrailingSlash(insiderUrl);
+            cmsUrl = stripTrailingSlash(cmsUrl);
+            v2Url = stripTrailingSlash(v2Url);
+        }
+
+        private static String stripTrailingSlash(String url) {
+            return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        }
+    }
+
+    /**
+     * Limits on Stern API calls, each applied per endpoint: a token bucket of {@code burst}
+     * requests refilled at {@code requestsPerSecond}, up to {@code retries} retries of server
+     * errors and timeouts with jittered exponential backoff between {@code backoffMinMillis} and
+     * {@code backoffMaxMillis}, and a circuit breaker that opens for {@code openSeconds} after
+     * {@code failureThreshold} consecutive failed calls.
+     */
+    public record Resilience(double requestsPerSecond, int burst, int retries, int backoffMinMillis,
+                             int backoffMaxMillis, int failureThreshold, int openSeconds) {
+        public Resilience {
+            if (requestsPerSecond <= 0) requestsPerSecond = 20;
+            if (burst <= 0) burst = 40;
+            if (retries < 0) retries = 2;
+            if (backoffMinMillis <= 0) backoffMinMillis = 500;
+            if (backoffMaxMillis < backoffMinMillis) backoffMaxMillis = Math.max(8000, backoffMinMillis);
+            if (failureThreshold <= 0) failureThreshold = 5;
+            if (openSeconds <= 0) openSeconds = 30;
+        }
+    }
+
+    /**
+     * Stale-while-revalidate cache of Stern responses. A response younger than its TTL is served
+     * as is; one older by up to {@code maxStaleSeconds} is served while a background call
+     * refreshes it; anything older is fetched before returning. A TTL of 0 fetches every time.
+     * <p>
+     * The machine list and high scores are the activity signal and change by the minute, so
+     * they default to 0. Machine details carry three field groups of their own, tech alerts,
+     * firmware ({@code code_version}) and model type, and are cached for the shortest of their
+     * TTLs. Their online and last-played fields are only used while younger than
+     * {@code statusTtlSeconds}; after that the machine list's values, fetched every cycle, win.
+     * At most {@code maxEntries} responses are kept, least recently used evicted first.
+     */
+    public record Cache(int maxEntries, int maxStaleSeconds, int machineListTtlSeconds,
+                        int highScoresTtlSeconds, int userDetailTtlSeconds, int statusTtlSeconds,
+                        int techAlertsTtlSeconds, int firmwareTtlSeconds, int modelTtlSeconds) {
+        public Cache {
+            if (maxEntries <= 0) maxEntries = 4096;
+            if (maxStaleSeconds <= 0) maxStaleSeconds = 3600;
+            if (machineListTtlSeconds < 0) machineListTtlSeconds = 0;
+            if (highScoresTtlSeconds < 0) highScoresTtlSeconds = 0;
+            if (userDetailTtlSeconds < 0) userDetailTtlSeconds = 1800;
+            if (statusTtlSeconds < 0) statusTtlSeconds = 60;
+            if (techAlertsTtlSeconds < 0) techAlertsTtlSeconds = 3600;
+            if (firmwareTtlSeconds < 0) firmwareTtlSeconds = 21600;
+            if (modelTtlSeconds < 0) modelTtlSeconds = 86400;
+        }
+
+        public int machineDetailTtlSeconds() {
+            return Math.min(techAlertsTtlSeconds, Math.min(firmwareTtlSeconds, modelTtlSeconds));
+        }
+    }
+
+    /**
+     * The global and nearby leaderboards shown next to each machine's scores, walked every
+     * {@code refreshMinutes} (0, the default, turns them off) with up to {@code pageConcurrency} pages in flight
+     * and at most {@code maxPages} pages per listing. {@code depth} entries are kept per board and
+     * per merged title ranking.
+     */
+    public record Regional(int refreshMinutes, int pageConcurrency, int maxPages, int depth) {
+        public Regional {
+            if (refreshMinutes < 0) refreshMinutes = 0;
+            if (pageConcurrency <= 0) pageConcurrency = 4;
+            if (maxPages <= 0) maxPages = 200;
+            if (depth <= 0) depth = 50;
+        }
+
+        public boolean enabled() {
+            return refreshMinutes > 0;
+        }
+    }
+
+    /**
+     * Leader election between instances on one host: whichever holds the lock on {@code lockFile}
+     * polls Stern and streams snapshots to the others over TCP on {@code port} (0 picks a free
+     * one), advertised as {@code host}. A blank lock file turns clustering off.
+     */
+    public record Cluster(String lockFile, int port, String host) {
+        public Cluster {
+            if (port < 0) port = 0;
+            if (host == null || host.isBlank()) host = "localhost";
+        }
+
+        public boolean enabled() {
+            return lockFile != null && !lockFile.isBlank();
+        }
+    }
+
+    /**
+     * Disk cache of the image proxy; a blank directory falls back to one under the temp directory.
+     */
+    public record Images(String cacheDirectory, int cacheSizeMb) {
+        public Images {
+            if (cacheDirectory == null || cacheDirectory.isBlank()) {
+                cacheDirectory = System.getProperty("java.io.tmpdir") + "/stern-home-leaderboards-images";
+            }
+            if (cacheSizeMb <= 0) cacheSizeMb = 256;
+        }
     }
 }
@@ -0,0 +1,8 @@
+package com.infraleap.leaderboards.images;
+
+/**
+ * An image as the proxy serves it.
+ *
+ * @param etag strong entity tag derived from the body, quoted
+ */
+public record CachedImage(String contentType, String etag, byte[] body) {}
@@ -0,0 +1,201 @@
+package com.infraleap.leaderboards.images;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Disk-backed LRU store of proxied images, one file per original or variant. An in-memory index
+ * in access order holds each entry's size, content type and ETag, so revalidations are answered
+ * without touching the disk; once the total exceeds the configured size the least recently used
+ * files are deleted. The index is rebuilt at startup from the files' headers, oldest modification
+ * time first, and a hit bumps the file's modification time to keep that order across restarts.
+ * Files are written to a temporary sibling and atomically moved into place; temporary files
+ * left behind by a crash are deleted at startup.
+ */
+class ImageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageCache.class);
+    private static final int MAGIC = 0x53484C49; // "SHLI"
+    private static final String SUFFIX = ".img";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Younger temporary files may still be written by another instance sharing the directory
+    private static final Duration STALE_TEMP_AGE = Duration.ofMinutes(10);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    ImageCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            int stale = deleteStaleTempFiles();
+            if (stale > 0) log.warn("Removed {} temporary files of unfinished image cache writes", stale);
+            loadIndex();
+        } catch (IOException e) {
+            log.warn("Image cache directory {} is not usable: {}", directory, e.getMessage());
+        }
+    }
+
+    /** The cached entry's metadata, without reading the image. */
+    synchronized Entry entry(String key) {
+        return index.get(key);
+    }
+
+    Optional<CachedImage> get(String key) {
+        if (entry(key) == null) return Optional.empty();
+        Path file = file(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Entry entry = readHeader(in);
+            byte[] body = in.readNBytes(in.readInt());
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return Optional.of(new CachedImage(entry.contentType(), entry.etag(), body));
+        } catch (IOException e) {
+            log.warn("Dropping unreadable cached image {}: {}", file.getFileName(), e.getMessage());
+            remove(key);
+            return Optional.empty();
+        }
+    }
+
+    void put(String key, CachedImage image) {
+        Path file = file(key);
+        try {
+            Path tmp = Files.createTempFile(directory, key, TEMP_SUFFIX);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeUTF(image.contentType());
+                    out.writeUTF(image.etag());
+                    out.writeInt(image.body().length);
+                    out.write(image.body());
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to cache image {}: {}", key, e.getMessage());
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = index.put(key, new Entry(image.body().length, image.contentType(), image.etag()));
+            if (previous != null) totalBytes -= previous.size();
+            totalBytes += image.body().length;
+            Iterator<Map.Entry<String, Entry>> it = index.entrySet().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Entry> eldest = it.next();
+                if (eldest.getKey().equals(key)) continue;
+                totalBytes -= eldest.getValue().size();
+                evicted.add(eldest.getKey());
+                it.remove();
+            }
+        }
+        for (String evictedKey : evicted) {
+            deleteQuietly(file(evictedKey));
+        }
+        if (!evicted.isEmpty()) log.debug("Evicted {} cached images", evicted.size());
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Entry entry = index.remove(key);
+            if (entry != null) totalBytes -= entry.size();
+        }
+        deleteQuietly(file(key));
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList();
+        }
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path file : files) {
+            modified.put(file, Files.getLastModifiedTime(file));
+        }
+        List<Path> oldestFirst = new ArrayList<>(files);
+        oldestFirst.sort(Comparator.comparing(modified::get));
+
+        for (Path file : oldestFirst) {
+            String name = file.getFileName().toString();
+            String key = name.substring(0, name.length() - SUFFIX.length());
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                Entry entry = readHeader(in);
+                entry = new Entry(in.readInt(), entry.contentType(), entry.etag());
+                index.put(key, entry);
+                totalBytes += entry.size();
+            } catch (IOException e) {
+                deleteQuietly(file);
+            }
+        }
+        log.info("Opened image cache in {}: {} images, {} KB of {} KB", directory, index.size(),
+                totalBytes / 1024, maxBytes / 1024);
+    }
+
+    private int deleteStaleTempFiles() throws IOException {
+        FileTime cutoff = FileTime.from(Instant.now().minus(STALE_TEMP_AGE));
+        int deleted = 0;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                if (!file.getFileName().toString().endsWith(TEMP_SUFFIX)) continue;
+                try {
+                    if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0 && Files.deleteIfExists(file)) {
+                        deleted++;
+                    }
+                } catch (IOException e) {
+                    log.debug("Failed to delete {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static Entry readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a cached image");
+        return new Entry(0, in.readUTF(), in.readUTF());
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    record Entry(long size, String contentType, String etag) {}
+}
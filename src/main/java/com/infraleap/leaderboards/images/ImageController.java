@@ -0,0 +1,81 @@
+package com.infraleap.leaderboards.images;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * {@code GET /images/{id}/{variant}}, the stable image URLs handed out by {@link ImageProxy}.
+ * Responses carry a strong ETag and may be cached for a day; a matching {@code If-None-Match}
+ * is answered with 304 straight from the cache index.
+ */
+@RestController
+public class ImageController {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageController.class);
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{20}");
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
+
+    private final ImageProxy imageProxy;
+
+    public ImageController(ImageProxy imageProxy) {
+        this.imageProxy = imageProxy;
+    }
+
+    @GetMapping("/images/{id}/{variant}")
+    public CompletableFuture<ResponseEntity<byte[]>> image(
+            @PathVariable String id,
+            @PathVariable String variant,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ImageVariant size = ImageVariant.fromPath(variant);
+        if (size == null || !ID.matcher(id).matches()) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+        boolean acceptsWebp = accept != null && accept.contains("image/webp");
+
+        String cachedEtag = imageProxy.cachedEtag(id, size, acceptsWebp);
+        if (matches(ifNoneMatch, cachedEtag)) {
+            return CompletableFuture.completedFuture(notModified(cachedEtag));
+        }
+        return imageProxy.image(id, size, acceptsWebp)
+                .thenApply(image -> {
+                    if (image == null) return ResponseEntity.notFound().<byte[]>build();
+                    if (matches(ifNoneMatch, image.etag())) return notModified(image.etag());
+                    return ResponseEntity.ok()
+                            .eTag(image.etag())
+                            .cacheControl(CACHE_CONTROL)
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                            .contentType(MediaType.parseMediaType(image.contentType()))
+                            .body(image.body());
+                })
+                .exceptionally(e -> {
+                    log.debug("Failed to serve image {}/{}: {}", id, variant, e.getMessage());
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+                });
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        return ifNoneMatch != null && etag != null && ifNoneMatch.contains(etag);
+    }
+
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+}
@@ -0,0 +1,329 @@
+package com.infraleap.leaderboards.images;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.service.SternHttpTransport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves Stern's logos, backgrounds and avatars from a local {@link ImageCache} under stable
+ * URLs. The URL of an image is derived from its source URL without the query string, so a
+ * re-signed avatar URL keeps the same proxy URL; the proxy fetches the latest signed URL it was
+ * given and falls back to the unsigned one when the signature has expired.
+ * <p>
+ * Originals are downscaled to the requested {@link ImageVariant}'s width, re-encoded as WebP for
+ * browsers that accept it when an ImageIO WebP writer is installed, and as JPEG (PNG when the
+ * image has transparency) otherwise. Images ImageIO cannot decode, such as SVG, are served as
+ * they are, and so are images larger than {@link #MAX_IMAGE_PIXELS}, whose size is read from
+ * the header before anything is decoded. Concurrent misses for the same image share a single
+ * fetch and conversion.
+ * <p>
+ * Source URLs are remembered for the {@link #MAX_SOURCES} most recently rendered images; an
+ * image whose source was forgotten is still served from the cache.
+ */
+@Component
+public class ImageProxy implements ImageUrls {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProxy.class);
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(30);
+    private static final int MAX_IMAGE_BYTES = 16 * 1024 * 1024;
+    private static final long MAX_IMAGE_PIXELS = 25_000_000;
+    private static final int MAX_SOURCES = 10_000;
+    private static final float JPEG_QUALITY = 0.85f;
+    private static final boolean WEBP_WRITER = ImageIO.getImageWritersByMIMEType("image/webp").hasNext();
+
+    private final WebClient webClient;
+    private final ImageCache cache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Proxy id -> the most recent source URL registered for it; guarded by itself, in access order
+    private final Map<String, String> sources = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_SOURCES;
+        }
+    };
+    private final Map<String, CompletableFuture<CachedImage>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ImageProxy(SternHttpTransport transport, MeterRegistry meterRegistry, LeaderboardProperties props) {
+        this.webClient = WebClient.builder()
+                .clientConnector(transport.connector())
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IMAGE_BYTES))
+                .build();
+        this.cache = new ImageCache(Path.of(props.images().cacheDirectory()),
+                props.images().cacheSizeMb() * 1024L * 1024L);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("leaderboards.images.cache.size", cache, ImageCache::totalBytes)
+                .baseUnit("bytes")
+                .description("Bytes held by the image proxy's disk cache")
+                .register(meterRegistry);
+        log.info("Image proxy: WebP variants {}", WEBP_WRITER ? "on" : "off (no ImageIO WebP writer)");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String url(String sourceUrl, ImageVariant variant) {
+        if (sourceUrl == null || sourceUrl.isBlank()) return null;
+        String id = idOf(sourceUrl);
+        synchronized (sources) {
+            sources.put(id, sourceUrl);
+        }
+        return "images/" + id + "/" + variant.path();
+    }
+
+    /**
+     * The ETag of the image if it is already cached, without reading it; {@code null} otherwise.
+     */
+    public String cachedEtag(String id, ImageVariant variant, boolean acceptsWebp) {
+        ImageCache.Entry entry = cache.entry(key(id, variant.path(), acceptsWebp && WEBP_WRITER));
+        return entry != null ? entry.etag() : null;
+    }
+
+    /**
+     * The image with the given proxy id at the given size. Completes with {@code null} when the
+     * id is neither cached nor known from a rendered view, and exceptionally when the fetch fails.
+     */
+    public CompletableFuture<CachedImage> image(String id, ImageVariant variant, boolean acceptsWebp) {
+        boolean webp = acceptsWebp && WEBP_WRITER;
+        return coalesced(key(id, variant.path(), webp), true, () -> {
+            CachedImage original = coalesced(key(id, "original", false), false, () -> fetchOriginal(id)).join();
+            return original != null ? convert(original, variant, webp) : null;
+        });
+    }
+
+    private CompletableFuture<CachedImage> coalesced(String key, boolean counted, Supplier<CachedImage> loader) {
+        Optional<CachedImage> cached = cache.get(key);
+        if (cached.isPresent()) {
+            if (counted) count("hit");
+            return CompletableFuture.completedFuture(cached.get());
+        }
+        CompletableFuture<CachedImage> created = new CompletableFuture<>();
+        CompletableFuture<CachedImage> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            if (counted) count("coalesced");
+            return existing;
+        }
+        if (counted) count("miss");
+        executor.execute(() -> {
+            try {
+                // Another loader may have finished between the cache check and claiming the key
+                CachedImage image = cache.get(key).orElseGet(() -> {
+                    CachedImage loaded = loader.get();
+                    if (loaded != null) cache.put(key, loaded);
+                    return loaded;
+                });
+                created.complete(image);
+            } catch (Throwable e) {
+                created.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    private CachedImage fetchOriginal(String id) {
+        String source;
+        synchronized (sources) {
+            source = sources.get(id);
+        }
+        if (source == null) return null;
+        try {
+            return fetch(source, "success");
+        } catch (WebClientResponseException e) {
+            int query = source.indexOf('?');
+            if (query < 0 || !e.getStatusCode().is4xxClientError()) {
+                countFetch("error");
+                throw e;
+            }
+            // The signature expired before the next user_detail fetch re-signed it
+            log.debug("Signed image URL rejected with {}, retrying without the signature", e.getStatusCode().value());
+            try {
+                return fetch(source.substring(0, query), "unsigned");
+            } catch (RuntimeException fallbackFailure) {
+                countFetch("error");
+                throw fallbackFailure;
+            }
+        } catch (RuntimeException e) {
+            countFetch("error");
+            throw e;
+        }
+    }
+
+    private CachedImage fetch(String url, String outcome) {
+        ResponseEntity<byte[]> response = webClient.get()
+                .uri(URI.create(url))
+                .retrieve()
+                .toEntity(byte[].class)
+                .block(FETCH_TIMEOUT);
+        if (response == null || response.getBody() == null) {
+            throw new IllegalStateException("empty image response from " + url);
+        }
+        countFetch(outcome);
+        MediaType type = response.getHeaders().getContentType();
+        return image(type != null ? type.toString() : MediaType.APPLICATION_OCTET_STREAM_VALUE, response.getBody());
+    }
+
+    private static CachedImage convert(CachedImage original, ImageVariant variant, boolean webp) {
+        BufferedImage source;
+        try {
+            source = decode(original.body());
+        } catch (IOException e) {
+            source = null;
+        }
+        if (source == null) return original;
+
+        boolean resize = source.getWidth() > variant.maxWidth();
+        if (!resize && !webp) return original;
+        BufferedImage scaled = resize ? downscale(source, variant.maxWidth()) : source;
+        String format = webp ? "webp" : scaled.getColorModel().hasAlpha() ? "png" : "jpeg";
+        byte[] body = encode(scaled, format);
+        if (!resize && body.length >= original.body().length) return original;
+        return image("image/" + format, body);
+    }
+
+    /**
+     * Decodes the image, or returns {@code null} if no ImageIO reader knows the format or the
+     * header declares more than {@link #MAX_IMAGE_PIXELS} pixels.
+     */
+    private static BufferedImage decode(byte[] body) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(body))) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_IMAGE_PIXELS) {
+                    log.debug("Serving a {}x{} image unconverted", reader.getWidth(0), reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves the size in steps, which keeps bilinear filtering from dropping detail on large reductions
+    private static BufferedImage downscale(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (double) targetWidth / source.getWidth()));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equals("jpeg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static CachedImage image(String contentType, byte[] body) {
+        return new CachedImage(contentType, "\"" + HexFormat.of().formatHex(sha256(body), 0, 16) + "\"", body);
+    }
+
+    private static String key(String id, String variant, boolean webp) {
+        return id + "-" + variant + (webp ? "-webp" : "");
+    }
+
+    private static String idOf(String sourceUrl) {
+        int query = sourceUrl.indexOf('?');
+        String unsigned = query >= 0 ? sourceUrl.substring(0, query) : sourceUrl;
+        return HexFormat.of().formatHex(sha256(unsigned.getBytes(StandardCharsets.UTF_8)), 0, 10);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder("leaderboards.images.requests")
+                .description("Image proxy requests by cache result")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void countFetch(String outcome) {
+        Counter.builder("leaderboards.images.fetches")
+                .description("Image fetches from Stern's media hosts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,14 @@
+package com.infraleap.leaderboards.images;
+
+/**
+ * Maps a Stern image URL to the URL the browser should load it from.
+ */
+@FunctionalInterface
+public interface ImageUrls {
+
+    /**
+     * Returns the URL to render for {@code sourceUrl} at the given size, or {@code null} when
+     * {@code sourceUrl} is {@code null} or blank.
+     */
+    String url(String sourceUrl, ImageVariant variant);
+}
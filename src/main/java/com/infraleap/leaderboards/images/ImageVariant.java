@@ -0,0 +1,39 @@
+package com.infraleap.leaderboards.images;
+
+import java.util.Locale;
+
+/**
+ * The sizes the UI asks the image proxy for. Images wider than {@link #maxWidth()} are
+ * downscaled; narrower ones are served as they are.
+ */
+public enum ImageVariant {
+    /** Player avatars in the score tables. */
+    AVATAR(128),
+    /** Logos and backgrounds on the machine cards of the main view. */
+    CARD(800),
+    /** Logos and backgrounds in the fullscreen view. */
+    FULLSCREEN(1920);
+
+    private final int maxWidth;
+
+    ImageVariant(int maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    /** The path segment naming this variant in proxy URLs. */
+    public String path() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /** The variant named by a proxy URL path segment, or {@code null}. */
+    public static ImageVariant fromPath(String path) {
+        for (ImageVariant variant : values()) {
+            if (variant.path().equals(path)) return variant;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.infraleap.leaderboards.kiosk;
+
+import com.infraleap.leaderboards.api.ApiDocuments;
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code GET /kiosk}, a static page of all machine cards for wall displays that only show the
+ * board, and {@code GET /kiosk/version?since=n}, the long-poll its script uses to learn about
+ * newer snapshots. Neither keeps any state per display beyond a waiting poll. Other tenants than
+ * the default one have theirs under {@code /t/<tenant>/kiosk}.
+ */
+@RestController
+public class KioskController {
+
+    private static final MediaType HTML = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private final TenantRegistry tenants;
+    private final Map<Tenant, KioskPage> pages = new HashMap<>();
+
+    public KioskController(TenantRegistry tenants, LeaderboardProperties props) {
+        this.tenants = tenants;
+        for (Tenant tenant : tenants.all()) {
+            pages.put(tenant, new KioskPage(tenant, props));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pages.values().forEach(KioskPage::shutdown);
+    }
+
+    @GetMapping({"/kiosk", "/t/{tenant}/kiosk"})
+    public ResponseEntity<byte[]> page(
+            @PathVariable(required = false) String tenant,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Tenant t = tenant(tenant);
+        ResponseEntity<byte[]> response = pages.get(t).page().respond(HTML, ifNoneMatch, acceptEncoding);
+        count(t, response.getStatusCode() == HttpStatus.NOT_MODIFIED ? "not_modified" : "ok");
+        return response;
+    }
+
+    @GetMapping({"/kiosk/version", "/t/{tenant}/kiosk/version"})
+    public DeferredResult<ApiDocuments.Version> version(@PathVariable(required = false) String tenant,
+                                                        @RequestParam(defaultValue = "-1") long since) {
+        return pages.get(tenant(tenant)).awaitVersion(since);
+    }
+
+    private Tenant tenant(String id) {
+        Tenant tenant = id != null ? tenants.find(id) : tenants.defaultTenant();
+        if (tenant == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No such tenant");
+        return tenant;
+    }
+
+    private static void count(Tenant tenant, String result) {
+        Counter.builder("leaderboards.kiosk.pages")
+                .description("Kiosk page requests by whether the display's copy was still current")
+                .tag("result", result)
+                .register(tenant.meterRegistry())
+                .increment();
+    }
+}
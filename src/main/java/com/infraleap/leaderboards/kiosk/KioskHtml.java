@@ -0,0 +1,212 @@
+package com.infraleap.leaderboards.kiosk;
+
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.ui.model.MachineView;
+import com.infraleap.leaderboards.ui.model.ViewSnapshot;
+
+import java.util.List;
+
+/**
+ * Renders the kiosk page: every machine card as static HTML with the markup and
+ * {@code styles.css} classes of {@link com.infraleap.leaderboards.ui.component.MachineCard} and
+ * {@link com.infraleap.leaderboards.ui.component.HighScoresTable}, plus a script that long-polls
+ * {@code kiosk/version} and swaps in the new cards when the version moves on. URLs are relative,
+ * so the page works under any context path; a tenant's page sets its base to the context root and
+ * prefixes its own requests with the tenant's route.
+ */
+public final class KioskHtml {
+
+    private static final String ALERT_ICON =
+            "<svg class='alert-icon' viewBox='0 0 24 24' width='16' height='16' fill='currentColor'>"
+                    + "<path d='M1 21h22L12 2 1 21zm12-3h-2v-2h2v2zm0-4h-2v-4h2v4z'/></svg>";
+
+    private static final String POLL_SCRIPT = """
+            (() => {
+              let container = document.querySelector('.machines-container');
+              let version = Number(container.dataset.version);
+              const route = document.body.dataset.route;
+              const poll = () => fetch(route + 'kiosk/version?since=' + version, {cache: 'no-store'})
+                .then(r => r.ok ? r.json() : Promise.reject(r.status))
+                .then(d => d.version === version ? null : fetch(route + 'kiosk').then(r => r.text()).then(html => {
+                  const next = new DOMParser().parseFromString(html, 'text/html').querySelector('.machines-container');
+                  container.replaceWith(next);
+                  container = next;
+                  version = Number(next.dataset.version);
+                }))
+                .then(() => setTimeout(poll, 0), () => setTimeout(poll, 5000));
+              poll();
+            })();
+            """;
+
+    private static final String AUTOSCROLL_SCRIPT = """
+            (() => {
+              let down = true, holdUntil = 0;
+              setInterval(() => {
+                if (Date.now() < holdUntil) return;
+                const y = window.scrollY;
+                const max = Math.max(0, document.documentElement.scrollHeight - window.innerHeight);
+                if (max <= 0) return;
+                if (down ? y >= max - 5 : y <= 5) { down = !down; holdUntil = Date.now() + 2000; return; }
+                window.scrollTo({ top: down ? Math.min(max, y + 1) : Math.max(0, y - 1) });
+              }, 50);
+            })();
+            """;
+
+    private KioskHtml() {
+    }
+
+    /**
+     * @param routePrefix the route of the tenant the page is for, empty or ending in {@code /}
+     */
+    public static String render(ViewSnapshot views, int gridColumns, boolean autoscroll, String routePrefix) {
+        StringBuilder html = new StringBuilder(2048 + views.machines().size() * 3072);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\"><head><meta charset=\"UTF-8\">")
+                .append("<meta name=\"viewport\" content=\"width=device-width, initial-scale=1, viewport-fit=cover\">");
+        if (!routePrefix.isEmpty()) {
+            // One level up per segment of the prefix, so shared resources resolve against the context root
+            html.append("<base href=\"").append("../".repeat((int) routePrefix.chars().filter(c -> c == '/').count()))
+                    .append("\">");
+        }
+        html.append("<title>Stern Home Leaderboards</title>")
+                .append("<link rel=\"stylesheet\" href=\"styles.css\"></head><body")
+                .append(" data-route=\"").append(escape(routePrefix)).append("\">")
+                .append("<div class=\"machines-page\"><div class=\"machines-container\" style=\"--grid-columns: ")
+                .append(gridColumns).append("\" data-version=\"").append(views.version()).append("\">");
+        if (views.machines().isEmpty()) {
+            html.append("<div class=\"loading-message\"><span>Loading machines from Stern...</span></div>");
+        }
+        for (MachineView machine : views.machines()) {
+            machineCard(html, machine);
+        }
+        html.append("</div></div><script>").append(POLL_SCRIPT);
+        if (autoscroll) html.append(AUTOSCROLL_SCRIPT);
+        return html.append("</script></body></html>").toString();
+    }
+
+    private static void machineCard(StringBuilder html, MachineView view) {
+        html.append("<div class=\"machine-card");
+        if (view.backgroundUrl() != null) html.append(" with-background");
+        html.append('"');
+        StringBuilder style = new StringBuilder();
+        if (view.backgroundUrl() != null) {
+            style.append("background-image: linear-gradient(rgba(0,0,0,0.7), rgba(0,0,0,0.7)), url(")
+                    .append(view.backgroundUrl()).append("); background-size: cover; background-position: center;");
+        }
+        if (view.hasGradient()) {
+            if (!style.isEmpty()) style.append(' ');
+            style.append("border-image: linear-gradient(to bottom, ").append(view.gradientStart()).append(", ")
+                    .append(view.gradientStop()).append(") 1; border-width: 2px; border-style: solid;");
+        }
+        if (!style.isEmpty()) attribute(html, "style", style.toString());
+        html.append('>');
+
+        header(html, view);
+        scores(html, view.scores());
+        html.append("<div class=\"last-played\">").append(escape(view.lastPlayed())).append("</div></div>");
+    }
+
+    private static void header(StringBuilder html, MachineView view) {
+        html.append("<div class=\"machine-header\">");
+        if (view.logoUrl() != null) {
+            html.append("<img class=\"game-logo\"");
+            attribute(html, "src", view.logoUrl());
+            attribute(html, "alt", view.name() != null ? view.name() : "Machine");
+            html.append('>');
+        } else if (view.name() != null) {
+            html.append("<span class=\"machine-name-text\">").append(escape(view.name())).append("</span>");
+        }
+
+        if (view.modelType() != null || view.codeVersion() != null) {
+            html.append("<div class=\"machine-info\">");
+            if (view.modelType() != null) {
+                html.append("<span class=\"machine-type\">").append(escape(view.modelType())).append("</span>");
+            }
+            if (view.codeVersion() != null) {
+                html.append("<span class=\"machine-version\">").append(escape(view.codeVersion())).append("</span>");
+            }
+            html.append("</div>");
+        }
+
+        // No popover on a display nobody touches: the badge, with the alerts as its tooltip
+        List<MachineView.Alert> alerts = view.techAlerts();
+        if (!alerts.isEmpty()) {
+            StringBuilder title = new StringBuilder();
+            for (MachineView.Alert alert : alerts) {
+                if (!title.isEmpty()) title.append('\n');
+                title.append(alert.message());
+                if (!alert.date().isEmpty()) title.append(" (").append(alert.date()).append(')');
+            }
+            html.append("<div class=\"status-indicator\"><div class=\"tech-alerts-container\">")
+                    .append("<button class=\"tech-alerts-button\"");
+            attribute(html, "title", title.toString());
+            attribute(html, "aria-label", alerts.size() + " tech alert" + (alerts.size() != 1 ? "s" : ""));
+            html.append('>').append(ALERT_ICON)
+                    .append("<span class='alert-badge'>").append(alerts.size()).append("</span></button></div></div>");
+        }
+        html.append("</div>");
+    }
+
+    private static void scores(StringBuilder html, List<MachineView.ScoreRow> scores) {
+        html.append("<div class=\"high-scores-section\">");
+        if (scores.isEmpty()) {
+            html.append("<span class=\"no-scores\">No high scores yet</span></div>");
+            return;
+        }
+        html.append("<table class=\"high-scores-table\"><thead><tr class=\"table-header\">")
+                .append("<th class=\"table-cell\">Rank</th><th class=\"table-cell\">Player</th>")
+                .append("<th class=\"table-cell\">Score</th></tr></thead><tbody>");
+        for (MachineView.ScoreRow row : scores) {
+            html.append(row.isNew() ? "<tr class=\"table-row new-score\">" : "<tr class=\"table-row\">")
+                    .append("<td class=\"table-cell rank-cell\">").append(escape(row.rank())).append("</td>")
+                    .append("<td class=\"table-cell\">");
+            playerInfo(html, row);
+            html.append("</td><td class=\"table-cell score-cell\">").append(escape(row.score())).append("</td></tr>");
+        }
+        html.append("</tbody></table></div>");
+    }
+
+    private static void playerInfo(StringBuilder html, MachineView.ScoreRow row) {
+        AvatarInfo avatar = row.avatar();
+        html.append("<div class=\"player-cell\"><div class=\"player-avatar\"");
+        if (avatar != null && avatar.backgroundColor() != null) {
+            attribute(html, "style", "background-color: " + avatar.backgroundColor());
+        }
+        html.append("><img class=\"avatar-img\"");
+        String src = avatar != null && avatar.avatarUrl() != null && !avatar.avatarUrl().isBlank()
+                ? avatar.avatarUrl() : "pinball.svg";
+        attribute(html, "src", src);
+        attribute(html, "alt", row.playerName());
+        html.append("></div><span class=\"player-name\">").append(escape(row.playerName())).append("</span>");
+        if (row.isNew()) {
+            html.append("<span class=\"trophy-icon\" title=\"New Score!\">\uD83C\uDFC6</span>");
+        }
+        html.append("</div>");
+    }
+
+    private static void attribute(StringBuilder html, String name, String value) {
+        html.append(' ').append(name).append("=\"").append(escape(value)).append('"');
+    }
+
+    static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder escaped = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement == null) {
+                if (escaped != null) escaped.append(c);
+                continue;
+            }
+            if (escaped == null) escaped = new StringBuilder(text.length() + 16).append(text, 0, i);
+            escaped.append(replacement);
+        }
+        return escaped != null ? escaped.toString() : text;
+    }
+}
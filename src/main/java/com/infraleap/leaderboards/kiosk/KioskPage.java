@@ -0,0 +1,102 @@
+package com.infraleap.leaderboards.kiosk;
+
+import com.infraleap.leaderboards.api.ApiDocuments;
+import com.infraleap.leaderboards.api.Representation;
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.ui.model.ViewSnapshot;
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.Gauge;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The kiosk page, rendered once per published version and held in memory plain and gzipped, and
+ * the version long-polls of the displays showing it. Polls wait without a request thread until
+ * the version differs from the one the display has, then all waiting displays are answered at
+ * once; the page is rendered before they are woken, so their reloads all hit the cache. There is
+ * one per tenant.
+ */
+class KioskPage {
+
+    static final Duration POLL_TIMEOUT = Duration.ofSeconds(25);
+
+    private final LeaderboardDataService dataService;
+    private final int gridColumns;
+    private final boolean autoscroll;
+    private final String routePrefix;
+    private final Set<Poll> polls = ConcurrentHashMap.newKeySet();
+    private final Registration registration;
+    private volatile Rendered rendered = new Rendered(null, null);
+
+    KioskPage(Tenant tenant, LeaderboardProperties props) {
+        this.dataService = tenant.dataService();
+        this.gridColumns = props.gridColumns();
+        this.autoscroll = !props.disableAutoscroll();
+        this.routePrefix = tenant.routePrefix();
+        Gauge.builder("leaderboards.kiosk.polls", polls, Set::size)
+                .description("Kiosk displays waiting for the next version")
+                .register(tenant.meterRegistry());
+        this.registration = tenant.broadcaster().register(events -> published());
+    }
+
+    void shutdown() {
+        registration.remove();
+    }
+
+    Representation page() {
+        ViewSnapshot views = dataService.getViews();
+        Rendered current = rendered;
+        if (current.views == views) return current.page;
+        synchronized (this) {
+            current = rendered;
+            // A request that read the views just before a publish must not replace the newer page
+            if (current.views == views || current.views != null && current.views.version() > views.version()) {
+                return current.page;
+            }
+            Representation page = Representation.of(
+                    KioskHtml.render(views, gridColumns, autoscroll, routePrefix).getBytes(StandardCharsets.UTF_8));
+            rendered = new Rendered(views, page);
+            return page;
+        }
+    }
+
+    /**
+     * Completes with the current version right away if it differs from {@code since}, otherwise
+     * once a newer one is published or after {@link #POLL_TIMEOUT}.
+     */
+    DeferredResult<ApiDocuments.Version> awaitVersion(long since) {
+        DeferredResult<ApiDocuments.Version> result = new DeferredResult<>(POLL_TIMEOUT.toMillis());
+        long version = dataService.getViews().version();
+        if (version != since) {
+            result.setResult(new ApiDocuments.Version(version));
+            return result;
+        }
+        Poll poll = new Poll(since, result);
+        polls.add(poll);
+        result.onCompletion(() -> polls.remove(poll));
+        result.onTimeout(() -> result.setResult(new ApiDocuments.Version(dataService.getViews().version())));
+        // A publish between reading the version and registering the poll has not woken it
+        long current = dataService.getViews().version();
+        if (current != since) result.setResult(new ApiDocuments.Version(current));
+        return result;
+    }
+
+    private void published() {
+        if (polls.isEmpty()) return;
+        page();
+        long version = dataService.getViews().version();
+        for (Poll poll : polls) {
+            if (poll.since != version) poll.result.setResult(new ApiDocuments.Version(version));
+        }
+    }
+
+    private record Poll(long since, DeferredResult<ApiDocuments.Version> result) {}
+
+    private record Rendered(ViewSnapshot views, Representation page) {}
+}
@@ -0,0 +1,111 @@
+package com.infraleap.leaderboards.regional;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.domain.LeaderboardPage;
+import com.infraleap.leaderboards.stern.domain.RegionalLeaderboard;
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.stern.service.SternApiClient;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a tenant's {@link RegionalStore} up to date. Each refresh walks the global and the nearby
+ * listing page by page. Every page goes into the store as soon as it arrives, so no listing is
+ * ever held in full. A page whose body did not change since the last walk comes back as the same
+ * instance and is skipped. Boards missing from a complete walk are dropped. Only the titles whose
+ * boards changed are re-ranked and re-rendered.
+ * <p>
+ * Each walk is timed as {@code leaderboards.regional.refresh} by scope and outcome, and pages are
+ * counted as {@code leaderboards.regional.pages} by whether they changed.
+ */
+public class RegionalLeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(RegionalLeaderboardService.class);
+
+    private final SternApiClient apiClient;
+    private final RegionalStore store;
+    private final LeaderboardDataService dataService;
+    private final MeterRegistry meterRegistry;
+    private final LeaderboardProperties.Regional config;
+    // Pages of the last complete walk per scope, by identity
+    private final Map<RegionalStore.Scope, Set<LeaderboardPage>> lastPages = new EnumMap<>(RegionalStore.Scope.class);
+
+    public RegionalLeaderboardService(SternApiClient apiClient, RegionalStore store, LeaderboardDataService dataService,
+                                      MeterRegistry meterRegistry, LeaderboardProperties props) {
+        this.apiClient = apiClient;
+        this.store = store;
+        this.dataService = dataService;
+        this.meterRegistry = meterRegistry;
+        this.config = props.regional();
+        Gauge.builder("leaderboards.regional.boards", store, RegionalStore::boardCount)
+                .description("Global and nearby leaderboards held in the regional store")
+                .register(meterRegistry);
+    }
+
+    public void refresh() {
+        Set<String> changed = new HashSet<>();
+        for (RegionalStore.Scope scope : RegionalStore.Scope.values()) {
+            changed.addAll(refresh(scope));
+        }
+        if (!changed.isEmpty()) dataService.regionalChanged(changed);
+    }
+
+    private Set<String> refresh(RegionalStore.Scope scope) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        Set<LeaderboardPage> previous = lastPages.getOrDefault(scope, Set.of());
+        Set<LeaderboardPage> pages = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Long> ids = new HashSet<>();
+        Set<String> changed = new HashSet<>();
+        int[] unchanged = {0};
+        try {
+            // Pages are emitted one at a time, so the sets need no locking
+            apiClient.fetchLeaderboardPages(endpoint(scope), config.maxPages(), config.pageConcurrency())
+                    .doOnNext(page -> {
+                        pages.add(page);
+                        for (RegionalLeaderboard board : page.boards()) {
+                            if (board.id() != null) ids.add(board.id());
+                        }
+                        if (previous.contains(page)) {
+                            unchanged[0]++;
+                        } else {
+                            changed.addAll(store.put(scope, page.boards()));
+                        }
+                    })
+                    .blockLast();
+            changed.addAll(store.retain(scope, ids));
+            lastPages.put(scope, pages);
+            outcome = "success";
+            log.info("Regional {} leaderboards refreshed: {} pages ({} unchanged), {} boards, {} titles changed",
+                    scope.label().toLowerCase(), pages.size(), unchanged[0], ids.size(), changed.size());
+        } catch (RuntimeException e) {
+            // What did arrive is kept; boards are only dropped after a complete walk
+            log.warn("Regional {} leaderboards refresh failed after {} pages: {}",
+                    scope.label().toLowerCase(), pages.size(), e.getMessage());
+        } finally {
+            meterRegistry.counter("leaderboards.regional.pages", "scope", scope.name().toLowerCase(), "result", "unchanged")
+                    .increment(unchanged[0]);
+            meterRegistry.counter("leaderboards.regional.pages", "scope", scope.name().toLowerCase(), "result", "changed")
+                    .increment(pages.size() - unchanged[0]);
+            meterRegistry.timer("leaderboards.regional.refresh", "scope", scope.name().toLowerCase(), "outcome", outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        store.reindex(scope, changed);
+        return changed;
+    }
+
+    private static String endpoint(RegionalStore.Scope scope) {
+        return scope == RegionalStore.Scope.NEARBY
+                ? SternApiClient.NEARBY_LEADERBOARDS : SternApiClient.GLOBAL_LEADERBOARDS;
+    }
+}
@@ -0,0 +1,237 @@
+package com.infraleap.leaderboards.regional;
+
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.RegionalLeaderboard;
+import com.infraleap.leaderboards.stern.ingest.Interner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global and nearby leaderboards, indexed for the machine cards. Boards are stored compactly,
+ * keeping the top {@code depth} entries of each with interned player names, and merged per
+ * scope and title into one ranking with each player's best score. Both lookups the cards need
+ * are single hash lookups: the standings of a title ({@link #forTitle}) and where a player stands
+ * on a title ({@link #placement}).
+ * <p>
+ * Updated incrementally by {@link RegionalLeaderboardService}: {@link #put} and {@link #retain}
+ * report which titles actually changed, and {@link #reindex} rebuilds only their rankings. There
+ * is one writer at a time; readers see each title's standings replaced as a whole.
+ */
+public final class RegionalStore {
+
+    public enum Scope {
+        NEARBY("Nearby"), GLOBAL("Global");
+
+        private final String label;
+
+        Scope(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * @param rank 1-based position in the merged ranking
+     */
+    public record Standing(int rank, String playerName, long score) {}
+
+    /**
+     * The merged ranking of one scope's boards for a title, best first.
+     */
+    public record Standings(Scope scope, String title, List<Standing> top) {}
+
+    /**
+     * A title's standings per scope; either may be {@code null}.
+     */
+    public record TitleStandings(Standings nearby, Standings global) {
+        public Standings of(Scope scope) {
+            return scope == Scope.NEARBY ? nearby : global;
+        }
+
+        TitleStandings with(Scope scope, Standings standings) {
+            return scope == Scope.NEARBY ? new TitleStandings(standings, global) : new TitleStandings(nearby, standings);
+        }
+
+        boolean isEmpty() {
+            return nearby == null && global == null;
+        }
+    }
+
+    private record Board(String titleKey, String title, List<Standing> entries) {}
+
+    private final int depth;
+    // Written by the single writer only
+    private final Map<Scope, Map<Long, Board>> boards = new EnumMap<>(Scope.class);
+    private final Map<Scope, Map<String, Set<Long>>> boardsByTitle = new EnumMap<>(Scope.class);
+    // Read by the UIs
+    private final ConcurrentHashMap<String, TitleStandings> byTitle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Standing>> byPlayer = new ConcurrentHashMap<>();
+    private volatile int boardCount;
+
+    public RegionalStore(int depth) {
+        this.depth = depth;
+        for (Scope scope : Scope.values()) {
+            boards.put(scope, new HashMap<>());
+            boardsByTitle.put(scope, new HashMap<>());
+        }
+    }
+
+    public TitleStandings forTitle(String title) {
+        return title != null ? byTitle.get(key(title)) : null;
+    }
+
+    /**
+     * Where {@code playerName} stands on {@code title} in {@code scope}, or {@code null} if they
+     * are not in its top entries.
+     */
+    public Standing placement(String playerName, Scope scope, String title) {
+        if (playerName == null || title == null) return null;
+        Map<String, Standing> placements = byPlayer.get(key(playerName));
+        return placements != null ? placements.get(placementKey(scope, key(title))) : null;
+    }
+
+    public int boardCount() {
+        return boardCount;
+    }
+
+    /**
+     * Stores the boards of one page, returning the keys of the titles whose boards changed.
+     */
+    public synchronized Set<String> put(Scope scope, Collection<RegionalLeaderboard> page) {
+        Set<String> changed = new HashSet<>();
+        Map<Long, Board> scoped = boards.get(scope);
+        for (RegionalLeaderboard leaderboard : page) {
+            String title = leaderboard.titleName();
+            // Boards are keyed by id, so one without could only overwrite another
+            if (title == null || leaderboard.id() == null) continue;
+            long id = leaderboard.id();
+            Board board = new Board(key(title), Interner.intern(title), entries(leaderboard.scores()));
+            Board previous = scoped.put(id, board);
+            if (board.equals(previous)) continue;
+            changed.add(board.titleKey());
+            boardsByTitle.get(scope).computeIfAbsent(board.titleKey(), k -> new HashSet<>()).add(id);
+            if (previous != null && !previous.titleKey().equals(board.titleKey())) {
+                unlink(scope, previous.titleKey(), id);
+                changed.add(previous.titleKey());
+            }
+        }
+        boardCount = countBoards();
+        return changed;
+    }
+
+    /**
+     * Drops the boards of {@code scope} that are not in {@code ids}, i.e. were not listed by a
+     * complete walk of the endpoint, returning the keys of the titles that lost boards.
+     */
+    public synchronized Set<String> retain(Scope scope, Set<Long> ids) {
+        Set<String> changed = new HashSet<>();
+        boards.get(scope).entrySet().removeIf(entry -> {
+            if (ids.contains(entry.getKey())) return false;
+            changed.add(entry.getValue().titleKey());
+            unlink(scope, entry.getValue().titleKey(), entry.getKey());
+            return true;
+        });
+        boardCount = countBoards();
+        return changed;
+    }
+
+    /**
+     * Rebuilds the ranking of {@code scope} for each of {@code titleKeys}, and the player index with it.
+     */
+    public synchronized void reindex(Scope scope, Set<String> titleKeys) {
+        for (String titleKey : titleKeys) {
+            Map<String, Standing> best = new HashMap<>();
+            String title = null;
+            for (long id : boardsByTitle.get(scope).getOrDefault(titleKey, Set.of())) {
+                Board board = boards.get(scope).get(id);
+                title = board.title();
+                for (Standing entry : board.entries()) {
+                    best.merge(key(entry.playerName()), entry,
+                            (a, b) -> a.score() >= b.score() ? a : b);
+                }
+            }
+            List<Standing> merged = new ArrayList<>(best.values());
+            merged.sort(Comparator.comparingLong(Standing::score).reversed());
+            List<Standing> top = new ArrayList<>(Math.min(depth, merged.size()));
+            for (int i = 0; i < merged.size() && i < depth; i++) {
+                Standing entry = merged.get(i);
+                top.add(new Standing(i + 1, entry.playerName(), entry.score()));
+            }
+
+            TitleStandings previous = byTitle.get(titleKey);
+            Standings old = previous != null ? previous.of(scope) : null;
+            String placementKey = placementKey(scope, titleKey);
+            if (old != null) {
+                for (Standing standing : old.top()) {
+                    byPlayer.computeIfPresent(key(standing.playerName()), (player, placements) -> {
+                        Map<String, Standing> remaining = new HashMap<>(placements);
+                        remaining.remove(placementKey);
+                        return remaining.isEmpty() ? null : Map.copyOf(remaining);
+                    });
+                }
+            }
+            for (Standing standing : top) {
+                byPlayer.compute(key(standing.playerName()), (player, placements) -> {
+                    Map<String, Standing> updated = placements != null ? new HashMap<>(placements) : new HashMap<>();
+                    updated.put(placementKey, standing);
+                    return Map.copyOf(updated);
+                });
+            }
+            TitleStandings updated = (previous != null ? previous : new TitleStandings(null, null))
+                    .with(scope, top.isEmpty() ? null : new Standings(scope, title, List.copyOf(top)));
+            if (updated.isEmpty()) byTitle.remove(titleKey);
+            else byTitle.put(titleKey, updated);
+        }
+    }
+
+    /**
+     * The normalized key titles and players are indexed by.
+     */
+    public static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private List<Standing> entries(List<HighScoreEntry> scores) {
+        if (scores == null) return List.of();
+        // First occurrence per player is their best on this board
+        Map<String, Standing> byPlayerName = new LinkedHashMap<>();
+        for (HighScoreEntry entry : scores) {
+            if (!entry.hasScore()) continue;
+            String player = Interner.intern(entry.playerName());
+            byPlayerName.merge(key(player), new Standing(0, player, entry.score()),
+                    (a, b) -> a.score() >= b.score() ? a : b);
+        }
+        List<Standing> entries = new ArrayList<>(byPlayerName.values());
+        entries.sort(Comparator.comparingLong(Standing::score).reversed());
+        return List.copyOf(entries.subList(0, Math.min(depth, entries.size())));
+    }
+
+    private void unlink(Scope scope, String titleKey, long id) {
+        Set<Long> ids = boardsByTitle.get(scope).get(titleKey);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) boardsByTitle.get(scope).remove(titleKey);
+    }
+
+    private int countBoards() {
+        int count = 0;
+        for (Map<Long, Board> scoped : boards.values()) count += scoped.size();
+        return count;
+    }
+
+    private static String placementKey(Scope scope, String titleKey) {
+        return scope.name() + ':' + titleKey;
+    }
+}
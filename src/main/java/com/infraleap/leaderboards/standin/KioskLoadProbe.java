@@ -0,0 +1,217 @@
+package com.infraleap.leaderboards.standin;
+
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code load} profile's kiosk displays: once the application is ready it starts
+ * {@code standin.load-kiosk-clients} virtual-thread clients that behave like the kiosk page's
+ * script, fetching {@code /kiosk} gzipped and then long-polling {@code /kiosk/version}, fetching
+ * the page again whenever the version moves on. Every 30 seconds it logs the page latency, how
+ * long a published snapshot took to reach the displays, and the heap and CPU the process uses
+ * compared to before the displays connected. The clients run in the same JVM, so the heap
+ * delta is an upper bound on what the displays cost the server.
+ */
+@Component
+@Profile("load")
+public class KioskLoadProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(KioskLoadProbe.class);
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(30);
+    private static final Pattern VERSION = Pattern.compile("\"version\"\\s*:\\s*(\\d+)");
+
+    private final LeaderboardDataService dataService;
+    private final MeterRegistry meterRegistry;
+    private final TaskScheduler taskScheduler;
+    private final Environment environment;
+    private final int clients;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+    private final List<Long> pageLatencies = new ArrayList<>();
+    private final List<Long> updateLatencies = new ArrayList<>();
+    private final AtomicInteger connected = new AtomicInteger();
+    private final AtomicLong pageBytes = new AtomicLong();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile boolean running = true;
+    private volatile long baselineHeap;
+    private volatile long baselineCpuNanos;
+    private volatile long startNanos;
+    private volatile ScheduledFuture<?> reportTask;
+
+    public KioskLoadProbe(TenantRegistry tenants, MeterRegistry meterRegistry,
+                          TaskScheduler taskScheduler, Environment environment, StandInProperties props) {
+        this.dataService = tenants.defaultTenant().dataService();
+        this.meterRegistry = meterRegistry;
+        this.taskScheduler = taskScheduler;
+        this.environment = environment;
+        this.clients = props.loadKioskClients();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (clients == 0) return;
+        Thread.startVirtualThread(this::startDisplays);
+    }
+
+    private void startDisplays() {
+        // Measure the baseline with the fleet loaded, so the heap delta is the displays' alone
+        while (running && dataService.getViews().version() == 0) {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+        URI base = URI.create("http://localhost:" + environment.getProperty("local.server.port", "8080") + "/");
+        baselineHeap = usedHeapAfterGc();
+        baselineCpuNanos = processCpuNanos();
+        startNanos = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.startVirtualThread(() -> display(base)));
+        }
+        log.info("Load: started {} kiosk displays against {}kiosk, heap {} MB", clients, base,
+                baselineHeap / (1024 * 1024));
+        reportTask = taskScheduler.scheduleAtFixedRate(this::report,
+                Instant.now().plus(REPORT_INTERVAL), REPORT_INTERVAL);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        if (reportTask != null) {
+            reportTask.cancel(false);
+            report();
+        }
+    }
+
+    private void display(URI base) {
+        boolean counted = false;
+        long version = -1;
+        // When the snapshot the display is about to fetch was published; null on the first fetch
+        Instant publishedAt = null;
+        while (running) {
+            try {
+                long start = System.nanoTime();
+                HttpResponse<InputStream> page = httpClient.send(HttpRequest.newBuilder(base.resolve("kiosk"))
+                        .header("Accept-Encoding", "gzip")
+                        .build(), HttpResponse.BodyHandlers.ofInputStream());
+                // Streamed and dropped, so pages in flight do not count towards the heap figure
+                try (InputStream body = page.body()) {
+                    pageBytes.addAndGet(body.transferTo(OutputStream.nullOutputStream()));
+                }
+                record(pageLatencies, System.nanoTime() - start);
+                if (publishedAt != null) {
+                    record(updateLatencies, Duration.between(publishedAt, Instant.now()).toNanos());
+                }
+                if (!counted) {
+                    connected.incrementAndGet();
+                    counted = true;
+                }
+
+                long seen = version;
+                while (running && seen == version) {
+                    HttpResponse<String> poll = httpClient.send(
+                            HttpRequest.newBuilder(base.resolve("kiosk/version?since=" + version))
+                                    .timeout(Duration.ofSeconds(60))
+                                    .build(), HttpResponse.BodyHandlers.ofString());
+                    polls.incrementAndGet();
+                    Matcher matcher = VERSION.matcher(poll.body());
+                    if (!matcher.find()) throw new IllegalStateException("unexpected poll response " + poll.statusCode());
+                    seen = Long.parseLong(matcher.group(1));
+                }
+                publishedAt = version >= 0 ? dataService.getViews().publishedAt() : null;
+                version = seen;
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void record(List<Long> samples, long nanos) {
+        synchronized (samples) {
+            samples.add(nanos);
+        }
+    }
+
+    private void report() {
+        long heap = usedHeapAfterGc();
+        double cpu = (processCpuNanos() - baselineCpuNanos) / (double) (System.nanoTime() - startNanos);
+        Timer server = meterRegistry.find("http.server.requests").tag("uri", "/kiosk").timer();
+        log.info("Load: {} of {} kiosk displays connected, {} polls answered, {} failures; page {} at the client, "
+                        + "mean {} ms on the server, {} KB served; snapshot-to-display {}; "
+                        + "heap {} MB (+{} KB per display), CPU {}% of one core",
+                connected.get(), clients, polls.get(), failures.get(), percentiles(pageLatencies),
+                server != null ? Math.round(server.mean(TimeUnit.MILLISECONDS) * 10) / 10.0 : "?",
+                pageBytes.get() / 1024, percentiles(updateLatencies), heap / (1024 * 1024),
+                (heap - baselineHeap) / 1024 / Math.max(1, connected.get()), Math.round(cpu * 1000) / 10.0);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long processCpuNanos() {
+        return ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os
+                ? os.getProcessCpuTime() : 0;
+    }
+
+    private static String percentiles(List<Long> samples) {
+        List<Long> sorted;
+        synchronized (samples) {
+            if (samples.isEmpty()) return "no samples";
+            sorted = new ArrayList<>(samples);
+        }
+        sorted.sort(null);
+        return "p50 " + millis(sorted, 0.50) + " ms, p95 " + millis(sorted, 0.95)
+                + " ms, max " + sorted.getLast() / 1_000_000 + " ms";
+    }
+
+    private static long millis(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+}
@@ -0,0 +1,133 @@
+package com.infraleap.leaderboards.standin;
+
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardEvent;
+import com.vaadin.flow.shared.Registration;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * The {@code load} profile (which pulls in {@code standin}): once the application is ready it
+ * times {@code standin.load-cycles} back-to-back full refreshes against the stand-in, and for
+ * every score the stand-in posts it records how long it took to reach the broadcaster as a
+ * {@link LeaderboardEvent.NewScore}. Both are logged as percentiles. It also registers
+ * {@code standin.load-listeners} slow listeners and {@code standin.load-stalled-listeners} that
+ * never return, standing in for attached kiosks.
+ */
+@Component
+@Profile("load")
+public class RefreshLoadProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshLoadProbe.class);
+    private static final Duration REPORT_INTERVAL = Duration.ofSeconds(30);
+
+    private final LeaderboardDataService dataService;
+    private final SyntheticFleet fleet;
+    private final TaskScheduler taskScheduler;
+    private final StandInProperties props;
+    private final Registration registration;
+    private final List<Registration> kiosks = new ArrayList<>();
+    private final List<Long> newScoreLatencies = new ArrayList<>();
+
+    private ScheduledFuture<?> reportTask;
+
+    public RefreshLoadProbe(TenantRegistry tenants, SyntheticFleet fleet, TaskScheduler taskScheduler,
+                            StandInProperties props) {
+        this.dataService = tenants.defaultTenant().dataService();
+        LeaderboardBroadcaster broadcaster = tenants.defaultTenant().broadcaster();
+        this.fleet = fleet;
+        this.taskScheduler = taskScheduler;
+        this.props = props;
+        this.registration = broadcaster.registerForType(LeaderboardEvent.NewScore.class, this::onEvents);
+        for (int i = 0; i < props.loadListeners(); i++) {
+            kiosks.add(broadcaster.register(events -> pause(props.loadListenerDelayMs())));
+        }
+        for (int i = 0; i < props.loadStalledListeners(); i++) {
+            kiosks.add(broadcaster.register(events -> pause(Long.MAX_VALUE)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        Thread.startVirtualThread(this::timeRefreshes);
+        reportTask = taskScheduler.scheduleAtFixedRate(this::reportNewScoreLatency,
+                Instant.now().plus(REPORT_INTERVAL), REPORT_INTERVAL);
+    }
+
+    @PreDestroy
+    void stop() {
+        registration.remove();
+        kiosks.forEach(Registration::remove);
+        if (reportTask != null) reportTask.cancel(false);
+        reportNewScoreLatency();
+    }
+
+    private void timeRefreshes() {
+        List<Long> wallTimes = new ArrayList<>();
+        for (int i = 0; i < props.loadCycles(); i++) {
+            long start = System.nanoTime();
+            dataService.refreshAll();
+            wallTimes.add(System.nanoTime() - start);
+        }
+        log.info("Load: full refresh of {} machines over {} cycles: {}",
+                props.machines(), wallTimes.size(), percentiles(wallTimes));
+    }
+
+    private void onEvents(List<LeaderboardEvent> events) {
+        long now = System.nanoTime();
+        for (LeaderboardEvent event : events) {
+            if (!(event instanceof LeaderboardEvent.NewScore newScore)) continue;
+            Long postedAt = fleet.takePostedAt(newScore.machineId(), newScore.score());
+            if (postedAt == null) continue;
+            synchronized (newScoreLatencies) {
+                newScoreLatencies.add(now - postedAt);
+            }
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reportNewScoreLatency() {
+        List<Long> latencies;
+        synchronized (newScoreLatencies) {
+            latencies = List.copyOf(newScoreLatencies);
+        }
+        if (latencies.isEmpty()) {
+            log.info("Load: no posted scores broadcast yet");
+            return;
+        }
+        log.info("Load: new-score-to-broadcast latency over {} scores: {}", latencies.size(), percentiles(latencies));
+    }
+
+    private static String percentiles(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        sorted.sort(null);
+        return "p50 " + millis(sorted, 0.50) + " ms, p95 " + millis(sorted, 0.95)
+                + " ms, max " + sorted.getLast() / 1_000_000 + " ms";
+    }
+
+    private static long millis(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+}
@@ -0,0 +1,58 @@
+package com.infraleap.leaderboards.standin;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the local Stern stand-in server and its synthetic fleet.
+ *
+ * @param port              port the stand-in listens on
+ * @param machines          number of registered machines
+ * @param scoresPerMachine  high-score entries per machine
+ * @param latencyMedianMs   median per-request latency; latencies are log-normal
+ * @param latencyP99Ms      99th percentile per-request latency
+ * @param errorRate         fraction of API requests answered with a 500
+ * @param tokenTtlSeconds   age after which the stand-in rejects a token with a 401
+ * @param tokenExpClaim     whether issued tokens carry a JWT {@code exp} claim; without it the
+ *                          client cannot renew ahead of time and has to recover from 401s
+ * @param playIntervalMs    how often a new high score is posted on a random machine (0 = never)
+ * @param seed              random seed for the fleet and the latency/error draws
+ * @param loadCycles        full refreshes the {@code load} profile times back to back
+ * @param loadListeners     simulated kiosk listeners the {@code load} profile registers
+ * @param loadListenerDelayMs time each simulated listener spends on a batch, standing in for UI work
+ * @param loadStalledListeners simulated listeners that never return, to exercise eviction
+ * @param loadKioskClients  simulated displays the {@code load} profile points at {@code /kiosk}
+ */
+@ConfigurationProperties(prefix = "standin")
+public record StandInProperties(
+        int port,
+        int machines,
+        int scoresPerMachine,
+        int latencyMedianMs,
+        int latencyP99Ms,
+        double errorRate,
+        int tokenTtlSeconds,
+        Boolean tokenExpClaim,
+        int playIntervalMs,
+        long seed,
+        int loadCycles,
+        int loadListeners,
+        int loadListenerDelayMs,
+        int loadStalledListeners,
+        int loadKioskClients
+) {
+    public StandInProperties {
+        if (port <= 0) port = 8089;
+        if (machines <= 0) machines = 20;
+        if (scoresPerMachine <= 0) scoresPerMachine = 5;
+        if (latencyMedianMs < 0) latencyMedianMs = 0;
+        if (latencyP99Ms < latencyMedianMs) latencyP99Ms = latencyMedianMs;
+        if (errorRate < 0) errorRate = 0;
+        if (tokenTtlSeconds <= 0) tokenTtlSeconds = 1800;
+        if (tokenExpClaim == null) tokenExpClaim = true;
+        if (loadCycles <= 0) loadCycles = 10;
+        if (loadListeners < 0) loadListeners = 0;
+        if (loadListenerDelayMs < 0) loadListenerDelayMs = 0;
+        if (loadStalledListeners < 0) loadStalledListeners = 0;
+        if (loadKioskClients < 0) loadKioskClients = 0;
+    }
+}
@@ -0,0 +1,374 @@
+package com.infraleap.leaderboards.standin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Stern Insider login and the CMS/v2 portal endpoints the client uses,
+ * serving a {@link SyntheticFleet}. Activated by the {@code standin} profile, which also points
+ * {@code leaderboards.api.*} at it. Requests are delayed by a log-normal latency, fail with a
+ * configurable error rate, and tokens expire after {@code standin.token-ttl-seconds} with a 401.
+ * Responses carry ETags and are gzipped when the client asks, like the real CDN. Generated SVG
+ * avatars and full-size PNG machine artwork stand in for Stern's media hosts.
+ */
+@Component
+@Profile("standin")
+public class SternStandInServer {
+
+    private static final Logger log = LoggerFactory.getLogger(SternStandInServer.class);
+    private static final Pattern MACHINE_DETAIL_PATH = Pattern.compile("/api/v1/portal/game_machines/(\\d+)/?");
+    private static final Pattern MACHINE_ID_QUERY = Pattern.compile("(?:^|&)machine_id=(\\d+)");
+    private static final Pattern PAGE_QUERY = Pattern.compile("(?:^|&)page=(\\d+)");
+    private static final Pattern REGIONAL_PATH = Pattern.compile("/api/v1/portal/(stern_global|nearby)_leaderboards/");
+    private static final int REGIONAL_PAGE_SIZE = 25;
+    private static final Pattern AVATAR_PATH = Pattern.compile("/avatars/([A-Za-z0-9]+)\\.svg");
+    private static final Pattern MEDIA_PATH = Pattern.compile("/media/(background|logo)-(\\d+)\\.png");
+    private static final Pattern BEARER = Pattern.compile("Bearer (\\S+)");
+    private static final Pattern REFRESH_COOKIE = Pattern.compile("spb-insider-refresh-token=([^;\\s]+)");
+    // z-score of the 99th percentile of a standard normal distribution
+    private static final double Z_P99 = 2.3263;
+
+    private final StandInProperties props;
+    private final SyntheticFleet fleet;
+    private final JsonMapper jsonMapper;
+    private final TaskScheduler taskScheduler;
+    private final Random random;
+    private final double latencySigma;
+    private final Map<String, Instant> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> refreshTokens = new ConcurrentHashMap<>();
+    private final AtomicLong tokenCounter = new AtomicLong();
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> media = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ScheduledFuture<?> playTask;
+
+    public SternStandInServer(StandInProperties props, SyntheticFleet fleet, JsonMapper jsonMapper,
+                              TaskScheduler taskScheduler) {
+        this.props = props;
+        this.fleet = fleet;
+        this.jsonMapper = jsonMapper;
+        this.taskScheduler = taskScheduler;
+        this.random = new Random(props.seed());
+        this.latencySigma = props.latencyMedianMs() > 0
+                ? Math.log((double) props.latencyP99Ms() / props.latencyMedianMs()) / Z_P99 : 0;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", props.port()), 128);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+        if (props.playIntervalMs() > 0) {
+            playTask = taskScheduler.scheduleAtFixedRate(this::play, Duration.ofMillis(props.playIntervalMs()));
+        }
+        log.info("Stern stand-in listening on http://localhost:{}: {} machines x {} scores, latency p50 {} ms / p99 {} ms, "
+                        + "error rate {}, token TTL {}s, new score every {} ms",
+                props.port(), props.machines(), props.scoresPerMachine(), props.latencyMedianMs(),
+                props.latencyP99Ms(), props.errorRate(), props.tokenTtlSeconds(), props.playIntervalMs());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (playTask != null) playTask.cancel(false);
+        if (server != null) server.stop(0);
+        log.info("Stern stand-in request counts: {}", requestCounts);
+    }
+
+    private void play() {
+        SyntheticFleet.PostedScore posted = fleet.play();
+        log.debug("Stand-in posted score {} at rank {} on machine {}", posted.score(), posted.rank(), posted.machineId());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            String method = exchange.getRequestMethod();
+
+            if (method.equals("POST") && path.equals("/login")) {
+                count("login");
+                delay();
+                login(exchange);
+                return;
+            }
+            if (method.equals("GET") && path.equals("/")) {
+                count("refresh");
+                delay();
+                refresh(exchange);
+                return;
+            }
+            Matcher avatar = AVATAR_PATH.matcher(path);
+            if (method.equals("GET") && avatar.matches()) {
+                count("avatar");
+                send(exchange, 200, "image/svg+xml", avatarSvg(avatar.group(1)));
+                return;
+            }
+            Matcher mediaPath = MEDIA_PATH.matcher(path);
+            if (method.equals("GET") && mediaPath.matches()) {
+                count("media");
+                delay();
+                send(exchange, 200, "image/png", media.computeIfAbsent(path,
+                        p -> mediaPng(mediaPath.group(1).equals("background"), Integer.parseInt(mediaPath.group(2)))));
+                return;
+            }
+            if (!method.equals("GET") || !path.startsWith("/api/")) {
+                send(exchange, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            delay();
+            if (!authorized(exchange)) {
+                count("401");
+                send(exchange, 401, "application/json", "{\"detail\":\"Invalid token.\"}".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (props.errorRate() > 0 && random(props.errorRate())) {
+                count("500");
+                send(exchange, 500, "text/plain", "synthetic failure".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            api(exchange, path, uri.getRawQuery());
+        } catch (RuntimeException e) {
+            log.warn("Stand-in failed to handle {}: {}", exchange.getRequestURI(), e.getMessage());
+        }
+    }
+
+    private void api(HttpExchange exchange, String path, String query) throws IOException {
+        Object body;
+        if (path.equals("/api/v1/portal/user_registered_machines/")) {
+            count("user_registered_machines");
+            body = Map.of("user", Map.of("machines", fleet.machines()));
+        } else if (path.equals("/api/v1/portal/game_machine_high_scores/")) {
+            count("game_machine_high_scores");
+            Matcher m = MACHINE_ID_QUERY.matcher(query != null ? query : "");
+            body = m.find() ? fleet.highScores(Long.parseLong(m.group(1))).orElse(null) : null;
+        } else if (REGIONAL_PATH.matcher(path).matches()) {
+            boolean nearby = path.contains("/nearby_");
+            count(nearby ? "nearby_leaderboards" : "stern_global_leaderboards");
+            body = regionalPage(exchange, path, query, nearby);
+        } else if (path.equals("/api/v2/portal/user_detail/")) {
+            count("user_detail");
+            body = fleet.userDetail("http://localhost:" + props.port() + "/avatars/");
+        } else {
+            Matcher m = MACHINE_DETAIL_PATH.matcher(path);
+            count("game_machines");
+            body = m.matches() ? fleet.detail(Long.parseLong(m.group(1))).orElse(null) : null;
+        }
+        if (body == null) {
+            send(exchange, 404, "application/json", "{\"detail\":\"Not found.\"}".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        sendJson(exchange, jsonMapper.writeValueAsBytes(body));
+    }
+
+    /**
+     * A page of regional leaderboards in the portal's paginated shape:
+     * {@code {count, next, previous, results}} with absolute page links.
+     */
+    private Map<String, Object> regionalPage(HttpExchange exchange, String path, String query, boolean nearby) {
+        Matcher m = PAGE_QUERY.matcher(query != null ? query : "");
+        int page = m.find() ? Integer.parseInt(m.group(1)) : 1;
+        SyntheticFleet.RegionalPage result = fleet.regionalPage(nearby, page, REGIONAL_PAGE_SIZE);
+        if (result == null) return null;
+        String base = "http://" + exchange.getRequestHeaders().getFirst("Host") + path + "?page=";
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("count", result.count());
+        body.put("next", result.hasNext() ? base + (page + 1) : null);
+        body.put("previous", page > 1 ? base + (page - 1) : null);
+        body.put("results", result.results());
+        return body;
+    }
+
+    /**
+     * Mimics the Next.js server action behind the Insider login form: a {@code Next-Action} POST of
+     * {@code ["user","password"]} answered with session cookies and an RSC payload.
+     */
+    private void login(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        if (exchange.getRequestHeaders().getFirst("Next-Action") == null || !body.startsWith("[\"")) {
+            send(exchange, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        String refreshToken = "r" + tokenCounter.incrementAndGet();
+        refreshTokens.put(refreshToken, true);
+        exchange.getResponseHeaders().add("Set-Cookie", "spb-insider-token=" + issueToken() + "; Path=/; HttpOnly");
+        exchange.getResponseHeaders().add("Set-Cookie", "spb-insider-refresh-token=" + refreshToken + "; Path=/; HttpOnly");
+        send(exchange, 200, "text/x-component",
+                "0:[\"$@1\",[\"standin\",null]]\n1:{\"authenticated\":true}\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A page load carrying a valid refresh-token cookie re-issues the session token.
+     */
+    private void refresh(HttpExchange exchange) throws IOException {
+        String cookies = exchange.getRequestHeaders().getFirst("Cookie");
+        Matcher m = REFRESH_COOKIE.matcher(cookies != null ? cookies : "");
+        if (m.find() && refreshTokens.containsKey(m.group(1))) {
+            exchange.getResponseHeaders().add("Set-Cookie", "spb-insider-token=" + issueToken() + "; Path=/; HttpOnly");
+        }
+        send(exchange, 200, "text/html", "<!doctype html><title>Stand-in</title>".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String issueToken() {
+        Instant expiresAt = Instant.now().plusSeconds(props.tokenTtlSeconds());
+        String claims = "{\"sub\":\"standin\",\"jti\":" + tokenCounter.incrementAndGet()
+                + (props.tokenExpClaim() ? ",\"exp\":" + expiresAt.getEpochSecond() : "") + "}";
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString("{\"alg\":\"none\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".standin";
+        tokens.put(token, expiresAt);
+        return token;
+    }
+
+    private boolean authorized(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        Matcher m = BEARER.matcher(header != null ? header : "");
+        if (!m.matches()) return false;
+        Instant expiresAt = tokens.get(m.group(1));
+        if (expiresAt == null) return false;
+        if (Instant.now().isAfter(expiresAt)) {
+            tokens.remove(m.group(1));
+            return false;
+        }
+        return true;
+    }
+
+    private void sendJson(HttpExchange exchange, byte[] body) throws IOException {
+        String etag = "\"" + HexFormat.of().formatHex(sha256(body), 0, 8) + "\"";
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            count("304");
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        send(exchange, 200, "application/json", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip") && body.length > 256) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void delay() {
+        if (props.latencyMedianMs() <= 0) return;
+        double gaussian;
+        synchronized (random) {
+            gaussian = random.nextGaussian();
+        }
+        long millis = Math.round(props.latencyMedianMs() * Math.exp(latencySigma * gaussian));
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean random(double probability) {
+        synchronized (random) {
+            return random.nextDouble() < probability;
+        }
+    }
+
+    private void count(String what) {
+        requestCounts.computeIfAbsent(what, k -> new LongAdder()).increment();
+    }
+
+    private static byte[] avatarSvg(String initials) {
+        return ("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"64\" height=\"64\">"
+                + "<circle cx=\"32\" cy=\"32\" r=\"32\" fill=\"#444\"/>"
+                + "<text x=\"32\" y=\"40\" font-size=\"22\" text-anchor=\"middle\" fill=\"#fff\">" + initials + "</text>"
+                + "</svg>").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Full-size artwork like Stern's CMS serves: a 1920x1080 background or a 1200x300 logo.
+     */
+    private static byte[] mediaPng(boolean background, int machineIndex) {
+        int width = background ? 1920 : 1200;
+        int height = background ? 1080 : 300;
+        float hue = (machineIndex * 0.13f) % 1f;
+        BufferedImage image = new BufferedImage(width, height,
+                background ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (background) {
+            g.setPaint(new GradientPaint(0, 0, Color.getHSBColor(hue, 0.8f, 0.6f),
+                    width, height, Color.getHSBColor((hue + 0.3f) % 1f, 0.9f, 0.2f)));
+            g.fillRect(0, 0, width, height);
+        } else {
+            g.setColor(Color.getHSBColor(hue, 0.7f, 1f));
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 180));
+            g.drawString("GAME " + machineIndex, 40, 230);
+        }
+        g.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.infraleap.leaderboards.standin;
+
+import com.infraleap.leaderboards.stern.domain.FollowedUser;
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.domain.MachineAddress;
+import com.infraleap.leaderboards.stern.domain.MachineDetail;
+import com.infraleap.leaderboards.stern.domain.MachineModel;
+import com.infraleap.leaderboards.stern.domain.MachineTitle;
+import com.infraleap.leaderboards.stern.domain.RegionalLeaderboard;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import com.infraleap.leaderboards.stern.domain.UserDetailResponse;
+import com.infraleap.leaderboards.stern.domain.UserDetailUser;
+import com.infraleap.leaderboards.stern.domain.UserProfile;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deterministic, seeded fleet of home machines served by {@link SternStandInServer}.
+ * {@link #play()} posts a new high score on a random machine and remembers when it did, so the
+ * {@code load} profile can measure how long the score takes to reach the broadcaster. Each title
+ * also has one global and {@value #NEARBY_PER_TITLE} nearby leaderboards, mixing the home players
+ * with strangers; scores played at home that beat a nearby board are posted there too.
+ */
+@Component
+@Profile("standin")
+public class SyntheticFleet {
+
+    private static final String[] TITLES = {
+            "Godzilla", "Jurassic Park", "Deadpool", "Foo Fighters", "James Bond 007", "Rush",
+            "Venom", "The Mandalorian", "Elvira's House of Horrors", "Led Zeppelin", "Metallica",
+            "Star Wars", "Stranger Things", "The Munsters", "Teenage Mutant Ninja Turtles", "Avengers",
+            "John Wick", "Iron Maiden", "Black Knight: Sword of Rage", "Aerosmith"
+    };
+    private static final String[] MODELS = {"Pro", "Premium", "LE"};
+    private static final String[] PLAYERS = {
+            "ACE", "BOB", "CAT", "DJM", "EVE", "FLO", "GUS", "HAL", "IVY", "JAX", "KIM", "LOU"
+    };
+    private static final int NEARBY_PER_TITLE = 2;
+    private static final int REGIONAL_DEPTH = 10;
+    private static final String[] COLORS = {"#e53935", "#8e24aa", "#1e88e5", "#43a047", "#fdd835", "#fb8c00"};
+
+    private final int scoresPerMachine;
+    private final Random random;
+    // Separate from random, so the home boards come out the same as without the regional ones
+    private final Random regionalRandom;
+    private final List<Machine> machines = new ArrayList<>();
+    private final Map<Long, List<HighScoreEntry>> scores = new HashMap<>();
+    private final Map<String, Long> postedAt = new ConcurrentHashMap<>();
+    private final List<RegionalBoard> globalBoards = new ArrayList<>();
+    private final List<RegionalBoard> nearbyBoards = new ArrayList<>();
+    private long nextScoreId = 1;
+
+    public SyntheticFleet(StandInProperties props) {
+        this.scoresPerMachine = props.scoresPerMachine();
+        this.random = new Random(props.seed());
+        this.regionalRandom = new Random(props.seed() + 1);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        String mediaBase = "http://localhost:" + props.port() + "/media/";
+        for (int i = 0; i < props.machines(); i++) {
+            long id = 10_000 + i;
+            String name = TITLES[i % TITLES.length] + (i >= TITLES.length ? " #" + (i / TITLES.length + 1) : "");
+            MachineTitle title = new MachineTitle(name, mediaBase + "background-" + i + ".png",
+                    mediaBase + "logo-" + i + ".png", null,
+                    COLORS[i % COLORS.length], COLORS[(i + 2) % COLORS.length]);
+            machines.add(new Machine(id, false, true, now.minus(random.nextInt(72), ChronoUnit.HOURS),
+                    new MachineModel(title, MODELS[i % MODELS.length]), new MachineAddress(1L), List.of(),
+                    "1." + (i % 9) + ".0"));
+
+            List<HighScoreEntry> board = new ArrayList<>();
+            long score = 500_000_000L + random.nextLong(4_500_000_000L);
+            for (int rank = 0; rank < scoresPerMachine; rank++) {
+                board.add(entry(score));
+                score = score * (60 + random.nextInt(35)) / 100;
+            }
+            scores.put(id, board);
+
+            globalBoards.add(regionalBoard(1_000_000L + i, "Global", title, board.getFirst().score() * 3));
+            for (int n = 0; n < NEARBY_PER_TITLE; n++) {
+                nearbyBoards.add(regionalBoard(2_000_000L + (long) i * NEARBY_PER_TITLE + n, "Nearby", title,
+                        board.getFirst().score() * 3 / 2));
+            }
+        }
+    }
+
+    public synchronized List<Machine> machines() {
+        return List.copyOf(machines);
+    }
+
+    public synchronized Optional<MachineDetail> detail(long machineId) {
+        return machines.stream()
+                .filter(m -> m.safeId() == machineId)
+                .findFirst()
+                .map(m -> new MachineDetail(m.id(), m.online(), m.lastPlayed(), m.codeVersion(),
+                        new MachineDetail.GameModelInfo(m.model().modelTypeName()), m.techAlerts()));
+    }
+
+    public synchronized Optional<HighScoreResponse> highScores(long machineId) {
+        List<HighScoreEntry> board = scores.get(machineId);
+        return board != null ? Optional.of(new HighScoreResponse(List.copyOf(board))) : Optional.empty();
+    }
+
+    /**
+     * One page of the global ({@code nearby == false}) or nearby leaderboards, numbered from 1, or
+     * {@code null} past the last page.
+     */
+    public synchronized RegionalPage regionalPage(boolean nearby, int page, int pageSize) {
+        List<RegionalBoard> boards = nearby ? nearbyBoards : globalBoards;
+        int from = (page - 1) * pageSize;
+        if (page < 1 || (from >= boards.size() && page > 1)) return null;
+        List<RegionalLeaderboard> results = new ArrayList<>();
+        for (RegionalBoard board : boards.subList(from, Math.min(boards.size(), from + pageSize))) {
+            results.add(new RegionalLeaderboard(board.id(), board.name(), board.title(), List.copyOf(board.scores())));
+        }
+        return new RegionalPage(boards.size(), from + pageSize < boards.size(), results);
+    }
+
+    public UserDetailResponse userDetail(String avatarBaseUrl) {
+        List<FollowedUser> following = new ArrayList<>();
+        for (int i = 1; i < PLAYERS.length; i++) {
+            following.add(new FollowedUser(PLAYERS[i], avatarBaseUrl + PLAYERS[i] + ".svg", COLORS[i % COLORS.length]));
+        }
+        UserProfile profile = new UserProfile(PLAYERS[0], avatarBaseUrl + PLAYERS[0] + ".svg", COLORS[0], following);
+        return new UserDetailResponse(true, new UserDetailUser(profile));
+    }
+
+    /**
+     * Posts a new score somewhere between the lowest and just above the grand champion on a random
+     * machine and marks the machine as just played.
+     */
+    public synchronized PostedScore play() {
+        int index = random.nextInt(machines.size());
+        Machine machine = machines.get(index);
+        List<HighScoreEntry> board = scores.get(machine.safeId());
+
+        long low = board.getLast().score();
+        long high = board.getFirst().score() * 11 / 10;
+        HighScoreEntry posted = entry(low + 1 + random.nextLong(high - low));
+        int rank = 0;
+        while (rank < board.size() && board.get(rank).score() >= posted.score()) {
+            rank++;
+        }
+        board.add(rank, posted);
+        while (board.size() > scoresPerMachine) board.removeLast();
+
+        RegionalBoard nearby = nearbyBoards.get(index * NEARBY_PER_TITLE);
+        List<HighScoreEntry> regional = nearby.scores();
+        if (posted.score() > regional.getLast().score()) {
+            int at = 0;
+            while (regional.get(at).score() >= posted.score()) at++;
+            regional.add(at, posted);
+            regional.removeLast();
+        }
+
+        machines.set(index, new Machine(machine.id(), machine.archived(), machine.online(),
+                Instant.now(), machine.model(), machine.address(), machine.techAlerts(),
+                machine.codeVersion()));
+
+        long now = System.nanoTime();
+        postedAt.put(key(machine.safeId(), posted.score()), now);
+        return new PostedScore(machine.safeId(), posted.score(), rank + 1, now);
+    }
+
+    /**
+     * {@link System#nanoTime()} at which the given score was posted, or {@code null} if it was not
+     * posted by {@link #play()} or has already been taken.
+     */
+    public Long takePostedAt(long machineId, long score) {
+        return postedAt.remove(key(machineId, score));
+    }
+
+    private HighScoreEntry entry(long score) {
+        String player = PLAYERS[random.nextInt(PLAYERS.length)];
+        return new HighScoreEntry(String.valueOf(nextScoreId++), score,
+                new ScoreUser(player, null, player));
+    }
+
+    private RegionalBoard regionalBoard(long id, String scope, MachineTitle title, long top) {
+        List<HighScoreEntry> entries = new ArrayList<>();
+        long score = top;
+        for (int rank = 0; rank < REGIONAL_DEPTH; rank++) {
+            // Every third entry is a home player, the rest are strangers
+            String player = rank % 3 == 1
+                    ? PLAYERS[regionalRandom.nextInt(PLAYERS.length)]
+                    : "P" + (100 + regionalRandom.nextInt(900));
+            entries.add(new HighScoreEntry("r" + id + "-" + rank, score, new ScoreUser(player, null, player)));
+            score = score * (75 + regionalRandom.nextInt(20)) / 100;
+        }
+        return new RegionalBoard(id, scope + " " + title.name(), title, entries);
+    }
+
+    private static String key(long machineId, long score) {
+        return machineId + ":" + score;
+    }
+
+    /**
+     * A page as the portal paginates it; {@code hasNext} becomes the {@code next} link.
+     */
+    public record RegionalPage(int count, boolean hasNext, List<RegionalLeaderboard> results) {}
+
+    private record RegionalBoard(long id, String name, MachineTitle title, List<HighScoreEntry> scores) {}
+
+    public record PostedScore(long machineId, long score, int rank, long postedAtNanos) {}
+}
@@ -1,10 +1,128 @@
 package com.infraleap.leaderboards.stern.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Objects;
+
+/**
+ * One row of a machine's high-score board. Stern sends the score as a decimal string; it is
+ * parsed once at bind time, and {@link #NO_SCORE} stands in for a missing or non-numeric one.
+ * The {@link #key()} is computed once as well, since boards are diffed on every refresh.
+ */
 @JsonIgnoreProperties(ignoreUnknown = true)
-public record HighScoreEntry(
-        String id,
-        String score,
-        ScoreUser user
-) {}
+public final class HighScoreEntry {
+
+    public static final long NO_SCORE = -1;
+
+    private final String id;
+    private final long score;
+    private final ScoreUser user;
+    private final long key;
+
+    public HighScoreEntry(String id, long score, ScoreUser user) {
+        this.id = id;
+        this.score = score;
+        this.user = user;
+        this.key = keyOf(id, playerName(user), score);
+    }
+
+    @JsonCreator
+    static HighScoreEntry fromJson(@JsonProperty("id") String id, @JsonProperty("score") String score,
+                                   @JsonProperty("user") ScoreUser user) {
+        return new HighScoreEntry(id, parseScore(score), user);
+    }
+
+    @JsonProperty("id")
+    public String id() {
+        return id;
+    }
+
+    @JsonProperty("score")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public long score() {
+        return score;
+    }
+
+    @JsonProperty("user")
+    public ScoreUser user() {
+        return user;
+    }
+
+    public boolean hasScore() {
+        return score != NO_SCORE;
+    }
+
+    /** Username, else name, else initials, else "Unknown". */
+    public String playerName() {
+        return playerName(user);
+    }
+
+    /**
+     * Stable 64-bit identity of this entry across refreshes, derived from the Stern id or, when
+     * there is none, from the player and score.
+     */
+    @JsonIgnore
+    public long key() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HighScoreEntry other && score == other.score
+                && Objects.equals(id, other.id) && Objects.equals(user, other.user);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, score, user);
+    }
+
+    @Override
+    public String toString() {
+        return "HighScoreEntry[id=" + id + ", score=" + score + ", user=" + user + "]";
+    }
+
+    public static long parseScore(String score) {
+        if (score == null) return NO_SCORE;
+        try {
+            long value = Long.parseLong(score.trim());
+            return value >= 0 ? value : NO_SCORE;
+        } catch (NumberFormatException e) {
+            return NO_SCORE;
+        }
+    }
+
+    private static String playerName(ScoreUser user) {
+        if (user == null) return "Unknown";
+        if (user.username() != null && !user.username().isBlank()) return user.username();
+        if (user.name() != null && !user.name().isBlank()) return user.name();
+        if (user.initials() != null && !user.initials().isBlank()) return user.initials();
+        return "Unknown";
+    }
+
+    // 64-bit FNV-1a over the id, or over player name and score when there is no id
+    private static long keyOf(String id, String playerName, long score) {
+        long hash = 0xcbf29ce484222325L;
+        if (id != null && !id.isBlank()) {
+            hash = fnv(hash, id);
+        } else {
+            hash = fnv(hash, playerName);
+            hash = (hash ^ '-') * 0x100000001b3L;
+            for (int shift = 0; shift < 64; shift += 8) {
+                hash = (hash ^ ((score >>> shift) & 0xff)) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package com.infraleap.leaderboards.stern.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One page of a paginated leaderboard listing.
+ *
+ * @param count total boards across all pages
+ * @param next  URL of the following page, {@code null} on the last one
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record LeaderboardPage(
+        int count,
+        String next,
+        List<RegionalLeaderboard> results
+) {
+    public List<RegionalLeaderboard> boards() {
+        return results != null ? results : List.of();
+    }
+}
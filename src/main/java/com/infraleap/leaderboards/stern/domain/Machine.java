@@ -2,6 +2,11 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import com.infraleap.leaderboards.stern.ingest.SternInstant;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.time.Instant;
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -9,11 +14,11 @@ public record Machine(
         Long id,
         Boolean archived,
         Boolean online,
-        @JsonProperty("last_played") String lastPlayed,
+        @JsonProperty("last_played") @JsonDeserialize(using = SternInstant.class) Instant lastPlayed,
         MachineModel model,
         MachineAddress address,
         @JsonProperty("last_seven_day_tech_alerts") List<TechAlert> techAlerts,
-        String codeVersion
+        @JsonDeserialize(using = InternedString.class) String codeVersion
 ) {
     public long safeId() { return id != null ? id : 0; }
     public boolean isArchived() { return archived != null && archived; }
@@ -2,14 +2,19 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import com.infraleap.leaderboards.stern.ingest.SternInstant;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.time.Instant;
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record MachineDetail(
         Long pk,
         Boolean online,
-        @JsonProperty("last_played") String lastPlayed,
-        @JsonProperty("code_version") String codeVersion,
+        @JsonProperty("last_played") @JsonDeserialize(using = SternInstant.class) Instant lastPlayed,
+        @JsonProperty("code_version") @JsonDeserialize(using = InternedString.class) String codeVersion,
         @JsonProperty("game_model") GameModelInfo gameModel,
         @JsonProperty("last_seven_day_tech_alerts") List<TechAlert> techAlerts
 ) {
@@ -19,6 +24,6 @@ public record MachineDetail(
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record GameModelInfo(
-            @JsonProperty("model_type_name") String modelTypeName
+            @JsonProperty("model_type_name") @JsonDeserialize(using = InternedString.class) String modelTypeName
     ) {}
 }
@@ -2,9 +2,11 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record MachineModel(
         MachineTitle title,
-        @JsonProperty("model_type_name") String modelTypeName
+        @JsonProperty("model_type_name") @JsonDeserialize(using = InternedString.class) String modelTypeName
 ) {}
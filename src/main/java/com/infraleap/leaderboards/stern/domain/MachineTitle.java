@@ -2,13 +2,15 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record MachineTitle(
-        String name,
-        @JsonProperty("primary_background") String primaryBackground,
-        @JsonProperty("variable_width_logo") String variableWidthLogo,
-        @JsonProperty("square_logo") String squareLogo,
-        @JsonProperty("gradient_start") String gradientStart,
-        @JsonProperty("gradient_stop") String gradientStop
+        @JsonDeserialize(using = InternedString.class) String name,
+        @JsonProperty("primary_background") @JsonDeserialize(using = InternedString.class) String primaryBackground,
+        @JsonProperty("variable_width_logo") @JsonDeserialize(using = InternedString.class) String variableWidthLogo,
+        @JsonProperty("square_logo") @JsonDeserialize(using = InternedString.class) String squareLogo,
+        @JsonProperty("gradient_start") @JsonDeserialize(using = InternedString.class) String gradientStart,
+        @JsonProperty("gradient_stop") @JsonDeserialize(using = InternedString.class) String gradientStop
 ) {}
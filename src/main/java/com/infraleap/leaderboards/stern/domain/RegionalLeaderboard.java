@@ -0,0 +1,25 @@
+package com.infraleap.leaderboards.stern.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.List;
+
+/**
+ * One board of {@code /stern_global_leaderboards/} or {@code /nearby_leaderboards/}: the best
+ * scores on one game title, worldwide or around the account's location.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RegionalLeaderboard(
+        Long id,
+        @JsonDeserialize(using = InternedString.class) String name,
+        @JsonProperty("game_title") MachineTitle title,
+        List<HighScoreEntry> scores
+) {
+    /** The game title's name, falling back to the board's own name. */
+    public String titleName() {
+        return title != null && title.name() != null ? title.name() : name;
+    }
+}
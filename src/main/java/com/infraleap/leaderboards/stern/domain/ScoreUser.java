@@ -1,10 +1,12 @@
 package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record ScoreUser(
-        String username,
-        String name,
-        String initials
+        @JsonDeserialize(using = InternedString.class) String username,
+        @JsonDeserialize(using = InternedString.class) String name,
+        @JsonDeserialize(using = InternedString.class) String initials
 ) {}
@@ -2,9 +2,13 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.SternInstant;
+import tools.jackson.databind.annotation.JsonDeserialize;
+
+import java.time.Instant;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record TechAlert(
         String message,
-        @JsonProperty("date_of_event") String dateOfEvent
+        @JsonProperty("date_of_event") @JsonDeserialize(using = SternInstant.class) Instant dateOfEvent
 ) {}
@@ -2,13 +2,15 @@ package com.infraleap.leaderboards.stern.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.infraleap.leaderboards.stern.ingest.InternedString;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
 import java.util.List;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 public record UserProfile(
-        String initials,
-        @JsonProperty("avatar_url") String avatarUrl,
-        @JsonProperty("background_color_hex") String backgroundColorHex,
+        @JsonDeserialize(using = InternedString.class) String initials,
+        @JsonProperty("avatar_url") @JsonDeserialize(using = InternedString.class) String avatarUrl,
+        @JsonProperty("background_color_hex") @JsonDeserialize(using = InternedString.class) String backgroundColorHex,
         List<FollowedUser> following
 ) {}
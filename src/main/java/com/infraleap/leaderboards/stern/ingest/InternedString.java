@@ -0,0 +1,16 @@
+package com.infraleap.leaderboards.stern.ingest;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+/**
+ * Binds a JSON string through the {@link Interner}.
+ */
+public class InternedString extends ValueDeserializer<String> {
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) {
+        return Interner.intern(p.getValueAsString());
+    }
+}
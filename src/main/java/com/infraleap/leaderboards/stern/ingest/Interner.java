@@ -0,0 +1,26 @@
+package com.infraleap.leaderboards.stern.ingest;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical instances for the strings that repeat across Stern payloads and refreshes (player
+ * names, initials, URLs, titles), so every snapshot shares one copy of each. The pool is
+ * bounded; when it fills up it is cleared and refills from the live snapshot, which keeps
+ * churn from e.g. re-signed avatar URLs from growing it without limit.
+ */
+public final class Interner {
+
+    private static final int MAX_SIZE = 16_384;
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    private Interner() {
+    }
+
+    public static String intern(String value) {
+        if (value == null) return null;
+        String canonical = POOL.putIfAbsent(value, value);
+        if (canonical != null) return canonical;
+        if (POOL.size() > MAX_SIZE) POOL.clear();
+        return value;
+    }
+}
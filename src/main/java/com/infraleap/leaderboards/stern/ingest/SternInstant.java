@@ -0,0 +1,37 @@
+package com.infraleap.leaderboards.stern.ingest;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Binds a Stern timestamp to an {@link Instant}. Stern sends ISO-8601 with a {@code Z} or a
+ * numeric offset; a timestamp without either is taken as UTC, and one that cannot be parsed
+ * binds to {@code null} rather than failing the whole payload.
+ */
+public class SternInstant extends ValueDeserializer<Instant> {
+
+    @Override
+    public Instant deserialize(JsonParser p, DeserializationContext ctxt) {
+        return parse(p.getValueAsString());
+    }
+
+    public static Instant parse(String iso) {
+        if (iso == null || iso.isBlank()) return null;
+        try {
+            return OffsetDateTime.parse(iso).toInstant();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(iso).toInstant(ZoneOffset.UTC);
+            } catch (DateTimeParseException e2) {
+                return null;
+            }
+        }
+    }
+}
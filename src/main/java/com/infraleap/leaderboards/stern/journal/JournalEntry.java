@@ -0,0 +1,26 @@
+package com.infraleap.leaderboards.stern.journal;
+
+import java.time.Instant;
+
+/**
+ * One high-score event recorded in the {@link ScoreJournal}.
+ *
+ * @param rank 1-based position on the machine's board ({@code 1} is the grand champion); for
+ *             {@link Kind#DISPLACED} the position the score held before it dropped off
+ */
+public record JournalEntry(
+        Kind kind,
+        Instant time,
+        long machineId,
+        String machineName,
+        String player,
+        String score,
+        int rank
+) {
+    public enum Kind {
+        /** A score that was not on the board in the previous cycle. */
+        NEW_SCORE,
+        /** A score that was on the board in the previous cycle and has been pushed off. */
+        DISPLACED
+    }
+}
@@ -0,0 +1,559 @@
+package com.infraleap.leaderboards.stern.journal;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of every detected new or displaced high score.
+ * <p>
+ * Entries are appended to segment files ({@code segment-<n>.log}) that roll over at
+ * {@code leaderboards.journal.segment-size-kb}. Each record is {@code [length][payload][crc]}; a
+ * torn record at the tail of the active segment is truncated on startup. An in-memory index of
+ * file positions by machine, by player and by time is rebuilt from the segments at startup, so
+ * queries seek straight to matching records and stream them lazily instead of scanning the log.
+ * Sealed segments are periodically compacted: entries older than
+ * {@code leaderboards.journal.retention-days} are dropped and small segments merged. The
+ * replacement segments are written and synced beside the originals without holding the lock, then
+ * renamed over them; a crash part way through can duplicate entries but never lose them. When the
+ * segment size was lowered, the output can need more segments than it replaces; the extra ones are
+ * parts of the last replaced segment ({@code segment-<n>.<part>.log}), sorting before {@code n + 1}.
+ */
+public class ScoreJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(ScoreJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final Duration retention;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held for a whole compaction, so only one rewrites the sealed segments at a time
+    private final ReentrantLock compaction = new ReentrantLock();
+
+    // Guarded by lock
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, List<Pointer>> byMachine = new HashMap<>();
+    private final Map<String, List<Pointer>> byPlayer = new HashMap<>();
+    private final List<Pointer> byTime = new ArrayList<>();
+    private FileChannel active;
+
+    public ScoreJournal(LeaderboardProperties props) {
+        LeaderboardProperties.Journal config = props.journal();
+        this.directory = config.directory() != null && !config.directory().isBlank()
+                ? Path.of(config.directory()) : null;
+        this.segmentSizeBytes = config.segmentSizeKb() * 1024L;
+        this.retention = Duration.ofDays(config.retentionDays());
+    }
+
+    public void open() {
+        if (directory == null) return;
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            int unfinished = deleteCompacting();
+            if (unfinished > 0) log.warn("Removed {} files of an unfinished journal compaction", unfinished);
+            load();
+            if (segments.isEmpty()) {
+                segments.add(segment(1, 0));
+            }
+            active = FileChannel.open(lastOf(segments).path(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            log.info("Opened score journal in {}: {} segments, {} entries", directory, segments.size(), byTime.size());
+        } catch (IOException e) {
+            log.error("Score journal disabled, cannot open {}: {}", directory, e.getMessage());
+            closeActive();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeActive();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void append(List<JournalEntry> entries) {
+        if (entries.isEmpty()) return;
+        lock.writeLock().lock();
+        try {
+            if (active == null) return;
+            for (JournalEntry entry : entries) {
+                if (active.size() >= segmentSizeBytes) {
+                    rollSegment();
+                }
+                long offset = active.size();
+                active.write(ByteBuffer.wrap(encode(entry)));
+                index(entry, new Pointer(lastOf(segments), offset, entry.time().toEpochMilli()));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to append {} entries to score journal: {}", entries.size(), e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Entries for one machine with {@code from <= time < to}, oldest first.
+     */
+    public Stream<JournalEntry> byMachine(long machineId, Instant from, Instant to) {
+        return query(() -> byMachine.getOrDefault(machineId, List.of()), from, to);
+    }
+
+    /**
+     * Entries for one player (case-insensitive) with {@code from <= time < to}, oldest first.
+     */
+    public Stream<JournalEntry> byPlayer(String player, Instant from, Instant to) {
+        return query(() -> byPlayer.getOrDefault(player.toLowerCase(Locale.ROOT), List.of()), from, to);
+    }
+
+    /**
+     * All entries with {@code from <= time < to}, oldest first.
+     */
+    public Stream<JournalEntry> between(Instant from, Instant to) {
+        return query(() -> byTime, from, to);
+    }
+
+    /**
+     * Resolves the matching pointers under the read lock, then streams the records lazily with
+     * positional reads. Channels are opened up front so a concurrent compaction that deletes a
+     * segment cannot pull the file out from under an open stream.
+     */
+    private Stream<JournalEntry> query(Supplier<List<Pointer>> pointers, Instant from, Instant to) {
+        List<Pointer> matching;
+        Map<Segment, FileChannel> channels = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            List<Pointer> all = pointers.get();
+            matching = List.copyOf(all.subList(
+                    lowerBound(all, toMillis(from)), lowerBound(all, toMillis(to))));
+            for (Pointer pointer : matching) {
+                if (!channels.containsKey(pointer.segment())) {
+                    channels.put(pointer.segment(),
+                            FileChannel.open(pointer.segment().path(), StandardOpenOption.READ));
+                }
+            }
+        } catch (IOException e) {
+            channels.values().forEach(ScoreJournal::closeQuietly);
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return matching.stream()
+                .map(pointer -> read(channels.get(pointer.segment()), pointer.offset()))
+                .onClose(() -> channels.values().forEach(ScoreJournal::closeQuietly));
+    }
+
+    /**
+     * Drops entries older than the retention period from sealed segments and merges the
+     * survivors into as few segments as fit the configured size. The active segment is left
+     * alone, and appends and queries only wait for the final renames.
+     */
+    public void compact() {
+        if (!compaction.tryLock()) return;
+        try {
+            List<Segment> sealed;
+            lock.readLock().lock();
+            try {
+                if (active == null || segments.size() < 2) return;
+                sealed = List.copyOf(segments.subList(0, segments.size() - 1));
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Sealed segments are never written again, so they can be read without the lock
+            Compacted compacted;
+            try {
+                compacted = rewrite(sealed, Instant.now().minus(retention).toEpochMilli());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Score journal compaction failed: {}", e.toString());
+                deleteCompacting();
+                return;
+            }
+            if (compacted.dropped() == 0 && compacted.segments().size() == sealed.size()) {
+                deleteCompacting();
+                return;
+            }
+            install(sealed, compacted);
+        } finally {
+            compaction.unlock();
+        }
+    }
+
+    /**
+     * Writes the entries of {@code sealed} younger than {@code cutoff} to {@code .compacting}
+     * files, each synced to disk, remembering where every entry went.
+     */
+    private Compacted rewrite(List<Segment> sealed, long cutoff) throws IOException {
+        List<Segment> written = new ArrayList<>();
+        List<Indexed> entries = new ArrayList<>();
+        FileChannel out = null;
+        Segment target = null;
+        long dropped = 0;
+        try {
+            for (Segment segment : sealed) {
+                for (JournalEntry entry : readAll(segment)) {
+                    if (entry.time().toEpochMilli() < cutoff) {
+                        dropped++;
+                        continue;
+                    }
+                    if (out == null || out.size() >= segmentSizeBytes) {
+                        if (out != null) {
+                            out.force(true);
+                            out.close();
+                        }
+                        // The sealed ids are reused in order; should the segment size have been
+                        // lowered since they were written, the rest become parts of the last one
+                        Segment last = sealed.getLast();
+                        target = written.size() < sealed.size() ? sealed.get(written.size())
+                                : segment(last.id(), last.part() + written.size() - sealed.size() + 1);
+                        written.add(target);
+                        out = FileChannel.open(compactingPath(target), StandardOpenOption.CREATE,
+                                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    }
+                    long offset = out.size();
+                    out.write(ByteBuffer.wrap(encode(entry)));
+                    entries.add(new Indexed(entry, new Pointer(target, offset, entry.time().toEpochMilli())));
+                }
+            }
+            if (out != null) out.force(true);
+        } finally {
+            if (out != null) out.close();
+        }
+        return new Compacted(written, entries, dropped);
+    }
+
+    /**
+     * Renames the compacted segments over the originals with the same id, deletes the originals
+     * left over, and swaps in the index. Each rename is atomic, so every segment file always holds
+     * either its original or its compacted entries.
+     */
+    private void install(List<Segment> sealed, Compacted compacted) {
+        lock.writeLock().lock();
+        try {
+            Set<Segment> installed = new HashSet<>();
+            for (Segment segment : compacted.segments()) {
+                Files.move(compactingPath(segment), segment.path(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                installed.add(segment);
+            }
+            for (Segment segment : sealed) {
+                if (!installed.contains(segment)) Files.deleteIfExists(segment.path());
+            }
+
+            // Segments rolled while compacting are kept as they are, after the compacted ones
+            List<Segment> later = List.copyOf(segments.subList(sealed.size(), segments.size()));
+            Set<Segment> replaced = Set.copyOf(sealed);
+            Map<Long, List<Pointer>> oldByMachine = Map.copyOf(byMachine);
+            Map<String, List<Pointer>> oldByPlayer = Map.copyOf(byPlayer);
+            List<Pointer> oldByTime = List.copyOf(byTime);
+            segments.clear();
+            segments.addAll(compacted.segments());
+            segments.addAll(later);
+            byMachine.clear();
+            byPlayer.clear();
+            byTime.clear();
+            for (Indexed indexed : compacted.entries()) {
+                index(indexed.entry(), indexed.pointer());
+            }
+            oldByMachine.forEach((machineId, pointers) -> appendLater(
+                    byMachine.computeIfAbsent(machineId, k -> new ArrayList<>()), pointers, replaced));
+            oldByPlayer.forEach((player, pointers) -> appendLater(
+                    byPlayer.computeIfAbsent(player, k -> new ArrayList<>()), pointers, replaced));
+            appendLater(byTime, oldByTime, replaced);
+            byMachine.values().removeIf(List::isEmpty);
+            byPlayer.values().removeIf(List::isEmpty);
+            log.info("Compacted score journal: {} sealed segments into {}, kept {} entries, dropped {}",
+                    sealed.size(), compacted.segments().size(), compacted.entries().size(), compacted.dropped());
+        } catch (IOException | RuntimeException e) {
+            // Some segments may already hold their compacted entries, so re-read what is on disk
+            log.warn("Score journal compaction failed while installing, reloading segments: {}", e.toString());
+            try {
+                deleteCompacting();
+                load();
+            } catch (IOException reloadFailed) {
+                log.error("Score journal disabled, cannot reload {}: {}", directory, reloadFailed.getMessage());
+                closeActive();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void appendLater(List<Pointer> target, List<Pointer> pointers, Set<Segment> replaced) {
+        for (Pointer pointer : pointers) {
+            if (!replaced.contains(pointer.segment())) target.add(pointer);
+        }
+    }
+
+    /**
+     * Rebuilds the segment list and the index from the files on disk. Called with the write lock held.
+     */
+    private void load() throws IOException {
+        segments.clear();
+        byMachine.clear();
+        byPlayer.clear();
+        byTime.clear();
+        List<Segment> existing = listSegments();
+        for (Segment segment : existing) {
+            segments.add(segment);
+            indexSegment(segment, segment.equals(lastOf(existing)));
+        }
+    }
+
+    /**
+     * Removes {@code .compacting} files of a compaction that failed or was interrupted. Their
+     * originals are still in place, unless already replaced by a completed rename.
+     */
+    private int deleteCompacting() {
+        int deleted = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(COMPACTING_SUFFIX) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot clean up compaction output in {}: {}", directory, e.getMessage());
+        }
+        return deleted;
+    }
+
+    private void rollSegment() throws IOException {
+        active.force(false);
+        active.close();
+        Segment next = segment(lastOf(segments).id() + 1, 0);
+        segments.add(next);
+        active = FileChannel.open(next.path(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void indexSegment(Segment segment, boolean truncateTornTail) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long size = channel.size();
+            while (position < size) {
+                JournalEntry entry;
+                try {
+                    entry = read(channel, position);
+                } catch (UncheckedIOException e) {
+                    if (truncateTornTail) {
+                        log.warn("Truncating torn record at {}:{}", segment.path().getFileName(), position);
+                        channel.truncate(position);
+                    } else {
+                        log.warn("Skipping corrupt tail of {} at {}", segment.path().getFileName(), position);
+                    }
+                    break;
+                }
+                index(entry, new Pointer(segment, position, entry.time().toEpochMilli()));
+                position += recordLength(channel, position);
+            }
+        }
+    }
+
+    private List<JournalEntry> readAll(Segment segment) throws IOException {
+        List<JournalEntry> entries = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+            long position = 0;
+            while (position < channel.size()) {
+                try {
+                    entries.add(read(channel, position));
+                } catch (UncheckedIOException e) {
+                    break;
+                }
+                position += recordLength(channel, position);
+            }
+        }
+        return entries;
+    }
+
+    private void index(JournalEntry entry, Pointer pointer) {
+        byMachine.computeIfAbsent(entry.machineId(), k -> new ArrayList<>()).add(pointer);
+        byPlayer.computeIfAbsent(entry.player() != null ? entry.player().toLowerCase(Locale.ROOT) : "",
+                k -> new ArrayList<>()).add(pointer);
+        byTime.add(pointer);
+    }
+
+    private List<Segment> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .map(p -> {
+                        String name = p.getFileName().toString();
+                        String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                        int dot = number.indexOf('.');
+                        return dot < 0 ? new Segment(Long.parseLong(number), 0, p)
+                                : new Segment(Long.parseLong(number.substring(0, dot)),
+                                Integer.parseInt(number.substring(dot + 1)), p);
+                    })
+                    .sorted(Comparator.comparingLong(Segment::id).thenComparingInt(Segment::part))
+                    .toList();
+        }
+    }
+
+    private Segment segment(long id, int part) {
+        return new Segment(id, part, directory.resolve(fileName(id, part) + SEGMENT_SUFFIX));
+    }
+
+    private Path compactingPath(Segment segment) {
+        return directory.resolve(fileName(segment.id(), segment.part()) + COMPACTING_SUFFIX);
+    }
+
+    private static String fileName(long id, int part) {
+        return SEGMENT_PREFIX + String.format("%010d", id) + (part > 0 ? "." + part : "");
+    }
+
+    private void closeActive() {
+        if (active != null) {
+            closeQuietly(active);
+            active = null;
+        }
+    }
+
+    /** Index lists are appended in time order, so a binary search finds the first entry at or after {@code timeMillis}. */
+    private static int lowerBound(List<Pointer> pointers, long timeMillis) {
+        int lo = 0;
+        int hi = pointers.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (pointers.get(mid).timeMillis() < timeMillis) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Like {@link Instant#toEpochMilli()} but saturating, so {@code Instant.MIN/MAX} work as open bounds. */
+    private static long toMillis(Instant instant) {
+        try {
+            return instant.toEpochMilli();
+        } catch (ArithmeticException e) {
+            return instant.isBefore(Instant.EPOCH) ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private static byte[] encode(JournalEntry entry) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeByte(entry.kind().ordinal());
+        out.writeLong(entry.time().toEpochMilli());
+        out.writeLong(entry.machineId());
+        out.writeUTF(Objects.requireNonNullElse(entry.machineName(), ""));
+        out.writeUTF(Objects.requireNonNullElse(entry.player(), ""));
+        out.writeUTF(Objects.requireNonNullElse(entry.score(), ""));
+        out.writeInt(entry.rank());
+        byte[] body = payload.toByteArray();
+
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        return ByteBuffer.allocate(body.length + 8)
+                .putInt(body.length)
+                .put(body)
+                .putInt((int) crc.getValue())
+                .array();
+    }
+
+    private static JournalEntry read(FileChannel channel, long position) {
+        try {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            readFully(channel, header, position);
+            int length = header.flip().getInt();
+            if (length <= 0 || position + 8 + length > channel.size()) {
+                throw new IOException("truncated record");
+            }
+            ByteBuffer record = ByteBuffer.allocate(length + 4);
+            readFully(channel, record, position + 4);
+            record.flip();
+            byte[] body = new byte[length];
+            record.get(body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != record.getInt()) {
+                throw new IOException("checksum mismatch");
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+            return new JournalEntry(
+                    JournalEntry.Kind.values()[in.readByte()],
+                    Instant.ofEpochMilli(in.readLong()),
+                    in.readLong(),
+                    in.readUTF(),
+                    in.readUTF(),
+                    in.readUTF(),
+                    in.readInt());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long recordLength(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(4);
+        readFully(channel, header, position);
+        return 8L + header.flip().getInt();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) throw new EOFException();
+        }
+    }
+
+    private static <T> T lastOf(List<T> list) {
+        return list.isEmpty() ? null : list.getLast();
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // nothing useful to do
+        }
+    }
+
+    private record Segment(long id, int part, Path path) {}
+
+    private record Pointer(Segment segment, long offset, long timeMillis) {}
+
+    private record Indexed(JournalEntry entry, Pointer pointer) {}
+
+    private record Compacted(List<Segment> segments, List<Indexed> entries, long dropped) {}
+}
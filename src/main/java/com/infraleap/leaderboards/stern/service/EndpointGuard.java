@@ -0,0 +1,160 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Rate limit and circuit breaker for one Stern endpoint.
+ * <p>
+ * The token bucket refills at {@code requests-per-second} up to {@code burst} tokens. A call that
+ * finds it empty reserves the next token and waits for it, unless that would take longer than
+ * the call's timeout, in which case it is rejected.
+ * <p>
+ * The breaker opens after {@code failure-threshold} consecutive calls failed with a server error
+ * or timeout, retries included. While open, calls are rejected without touching the network.
+ * After {@code open-seconds} a single trial call is let through: success closes the breaker,
+ * failure opens it again. Client errors such as a 404 for one machine say nothing about the
+ * endpoint's health and leave the breaker alone.
+ * <p>
+ * The state is exposed as {@code stern.api.circuit.state} (0 closed, 1 half open, 2 open) and
+ * rejections as {@code stern.api.rejections}, both by endpoint.
+ */
+final class EndpointGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(EndpointGuard.class);
+
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String endpoint;
+    private final double tokensPerNano;
+    private final double burst;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Counter rateLimited;
+    private final Counter circuitOpen;
+
+    // Guarded by this
+    private double tokens;
+    private long refilledAt;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    EndpointGuard(String endpoint, LeaderboardProperties.Resilience config, MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.tokensPerNano = config.requestsPerSecond() / 1e9;
+        this.burst = config.burst();
+        this.failureThreshold = config.failureThreshold();
+        this.openNanos = Duration.ofSeconds(config.openSeconds()).toNanos();
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
+        Gauge.builder("stern.api.circuit.state", this, guard -> guard.state().ordinal())
+                .description("Circuit breaker per Stern endpoint: 0 closed, 1 half open, 2 open")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        this.rateLimited = rejections(meterRegistry, "rate_limited");
+        this.circuitOpen = rejections(meterRegistry, "circuit_open");
+    }
+
+    private Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("stern.api.rejections")
+                .description("Stern API calls rejected before reaching the network")
+                .tags("endpoint", endpoint, "reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token, returning how long to wait for it: zero if one was available, or
+     * {@code -1} (and counts a rejection) if none will be within {@code maxWait}.
+     */
+    synchronized long reserve(Duration maxWait) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        long wait = (long) Math.ceil((1 - tokens) / tokensPerNano);
+        if (wait > maxWait.toNanos()) {
+            rateLimited.increment();
+            return -1;
+        }
+        // Goes negative, so later callers queue up behind this reservation
+        tokens -= 1;
+        return wait;
+    }
+
+    /**
+     * Whether a call may go out now; counts a rejection if not. A call let through while half
+     * open is the trial and must end in {@link #succeeded()}, {@link #failed()} or
+     * {@link #abandoned()}.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+            log.info("Stern {} circuit half open, sending a trial request", endpoint);
+        }
+        boolean permitted = switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> {
+                if (trialInFlight) yield false;
+                trialInFlight = true;
+                yield true;
+            }
+            case OPEN -> false;
+        };
+        if (!permitted) circuitOpen.increment();
+        return permitted;
+    }
+
+    synchronized void succeeded() {
+        if (state != State.CLOSED) {
+            log.info("Stern {} circuit closed, endpoint is healthy again", endpoint);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void failed() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            log.warn("Stern {} circuit open after {} consecutive failures, serving last good data for {} s",
+                    endpoint, consecutiveFailures, Duration.ofNanos(openNanos).toSeconds());
+            state = State.OPEN;
+            openUntil = System.nanoTime() + openNanos;
+        }
+        trialInFlight = false;
+    }
+
+    /**
+     * The call ended without telling anything about the endpoint's health, e.g. it was cancelled
+     * or failed with a client error.
+     */
+    synchronized void abandoned() {
+        trialInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Why a call never reached Stern. Thrown only when there is no earlier response to fall back to.
+     */
+    static final class Rejected extends RuntimeException {
+
+        Rejected(String endpoint, String reason) {
+            super("Stern " + endpoint + " call rejected: " + reason, null, false, false);
+        }
+    }
+}
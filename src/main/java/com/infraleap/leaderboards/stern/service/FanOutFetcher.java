@@ -0,0 +1,83 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs one blocking Stern call per machine on virtual threads, with at most
+ * {@code leaderboards.fetch-concurrency} calls in flight at a time.
+ * A failing call leaves {@code null} in its slot instead of failing the batch and is counted
+ * as {@code stern.fetch.failures} for that machine.
+ */
+public class FanOutFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(FanOutFetcher.class);
+
+    private final SternHttpTransport transport;
+    private final MeterRegistry meterRegistry;
+    private final int concurrency;
+
+    public FanOutFetcher(SternHttpTransport transport, MeterRegistry meterRegistry, LeaderboardProperties props) {
+        this.transport = transport;
+        this.meterRegistry = meterRegistry;
+        this.concurrency = props.fetchConcurrency();
+    }
+
+    public <T, R> List<R> fetchAll(String what, List<T> machines, ToLongFunction<T> machineId, Function<T, R> call) {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicLong callNanos = new AtomicLong();
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(machines.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < machines.size(); i++) {
+                int index = i;
+                T machine = machines.get(i);
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    long callStart = System.nanoTime();
+                    try {
+                        results.set(index, call.apply(machine));
+                    } catch (Exception e) {
+                        log.warn("Failed to fetch {} for machine {}: {}",
+                                what, machineId.applyAsLong(machine), e.getMessage());
+                        countFailure(meterRegistry, what, machineId.applyAsLong(machine));
+                    } finally {
+                        callNanos.addAndGet(System.nanoTime() - callStart);
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        log.info("Fetched {} for {} machines in {} ms wall clock ({} ms summed call time, concurrency {})",
+                what, machines.size(), (System.nanoTime() - start) / 1_000_000,
+                callNanos.get() / 1_000_000, concurrency);
+        log.debug("Connection pools after {}: {}", what, transport.poolStats());
+
+        List<R> list = new ArrayList<>(machines.size());
+        for (int i = 0; i < machines.size(); i++) {
+            list.add(results.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * Counts a failed per-machine fetch; shared with the reactive refresh path.
+     */
+    static void countFailure(MeterRegistry meterRegistry, String what, long machineId) {
+        meterRegistry.counter("stern.fetch.failures", "fetch", what, "machine", String.valueOf(machineId)).increment();
+    }
+}
@@ -1,145 +1,578 @@
 package com.infraleap.leaderboards.stern.service;
 
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.regional.RegionalStore;
 import com.infraleap.leaderboards.stern.domain.AvatarInfo;
 import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
 import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
 import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.journal.JournalEntry;
+import com.infraleap.leaderboards.stern.journal.ScoreJournal;
 
 import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
-import jakarta.annotation.PostConstruct;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardEvent;
+import com.infraleap.leaderboards.ui.model.MachineView;
+import com.infraleap.leaderboards.ui.model.MachineViews;
+import com.infraleap.leaderboards.ui.model.ViewSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
 
-@Service
+/**
+ * Fetches one Stern account's machines, avatars and high scores, publishes them as snapshots and
+ * detects new scores between them. There is one per tenant, created and started by
+ * {@link com.infraleap.leaderboards.tenant.TenantRegistry}, which also schedules its refreshes
+ * and activity polls.
+ */
 public class LeaderboardDataService {
 
     private static final Logger log = LoggerFactory.getLogger(LeaderboardDataService.class);
+    private static final long[] NO_KEYS = new long[0];
 
     private final SternApiClient apiClient;
+    private final FanOutFetcher fanOutFetcher;
     private final LeaderboardBroadcaster broadcaster;
+    private final LeaderboardProperties props;
+    private final SnapshotStore snapshotStore;
+    private final ScoreJournal scoreJournal;
+    private final RegionalStore regionalStore;
+    private final ImageUrls imageUrls;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean reactiveRefreshInFlight = new AtomicBoolean();
 
     private volatile List<Machine> machines = List.of();
     private final ConcurrentHashMap<Long, HighScoreResponse> highScores = new ConcurrentHashMap<>();
     private volatile Map<String, AvatarInfo> avatars = Map.of();
-    private final ConcurrentHashMap<Long, List<HighScoreEntry>> previousScores = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<Long, Set<String>> newScoreIds = new ConcurrentHashMap<>();
+    // Keys of the entries that are new since the last full refresh, sorted, per machine
+    private final ConcurrentHashMap<Long, NewScores> newScoreKeys = new ConcurrentHashMap<>();
+    // Render model of the current snapshot, shared by all UIs and the HTTP API
+    private volatile ViewSnapshot views = ViewSnapshot.EMPTY;
+    // last_played per machine as listed by user_registered_machines at the last successful check
+    private volatile Map<Long, Instant> listedLastPlayed = Map.of();
+    // When the data last came back from Stern, changed or not; null until the first refresh or restore
+    private volatile Instant refreshedAt;
+    // Bumped by every full refresh, so an activity poll that overlapped one can tell its data is older
+    private volatile long fullRefreshes;
 
-    public LeaderboardDataService(SternApiClient apiClient, LeaderboardBroadcaster broadcaster) {
+    public LeaderboardDataService(SternApiClient apiClient, FanOutFetcher fanOutFetcher,
+                                  LeaderboardBroadcaster broadcaster, SnapshotStore snapshotStore,
+                                  ScoreJournal scoreJournal, RegionalStore regionalStore, ImageUrls imageUrls,
+                                  MeterRegistry meterRegistry,
+                                  LeaderboardProperties props) {
         this.apiClient = apiClient;
+        this.fanOutFetcher = fanOutFetcher;
         this.broadcaster = broadcaster;
+        this.props = props;
+        this.snapshotStore = snapshotStore;
+        this.scoreJournal = scoreJournal;
+        this.regionalStore = regionalStore;
+        this.imageUrls = imageUrls;
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("leaderboards.snapshot.age", this, TimeUnit.MILLISECONDS, LeaderboardDataService::snapshotAgeMillis)
+                .description("Time since the data last came back from Stern")
+                .register(meterRegistry);
     }
 
-    @PostConstruct
+    /**
+     * Restores the last saved snapshot. The first refresh is up to the caller, since a cluster
+     * follower never fetches from Stern itself.
+     */
     public void init() {
-        Thread.startVirtualThread(this::refreshAll);
+        snapshotStore.load().ifPresent(this::restore);
     }
 
-    @Scheduled(fixedDelayString = "${leaderboards.data-refresh-minutes:5}", timeUnit = TimeUnit.MINUTES)
     public void scheduledRefresh() {
-        refreshAll();
+        if (props.reactiveRefresh()) {
+            triggerReactiveRefresh();
+        } else {
+            refreshAll();
+        }
     }
 
     public void refreshAll() {
+        long start = System.nanoTime();
+        String outcome = "failure";
         try {
             log.info("Refreshing leaderboards data from Stern API...");
 
-            // Clear new-score highlights from previous cycle
-            newScoreIds.clear();
-
-            List<Machine> fetchedMachines = apiClient.fetchMachines();
+            List<Machine> listedMachines = apiClient.fetchMachineList();
+            List<Machine> fetchedMachines = apiClient.enrichMachines(listedMachines);
             if (fetchedMachines.isEmpty()) {
                 log.warn("No machines fetched from Stern API");
+                outcome = "empty";
                 return;
             }
-            this.machines = fetchedMachines;
 
             // Fetch avatars from user profile (v2 API)
+            Map<String, AvatarInfo> fetchedAvatars = null;
             try {
-                this.avatars = apiClient.fetchAvatars();
+                fetchedAvatars = apiClient.fetchAvatars();
             } catch (Exception e) {
                 log.warn("Failed to fetch avatars: {}", e.getMessage());
             }
 
-            // Fetch high scores for each machine and detect new scores
-            List<String> newScoreMessages = new ArrayList<>();
-            for (Machine machine : fetchedMachines) {
-                try {
-                    HighScoreResponse scores = apiClient.fetchHighScores(machine.safeId());
-                    if (scores != null) {
-                        newScoreMessages.addAll(detectNewScores(machine, scores));
-                        highScores.put(machine.safeId(), scores);
-                        // Store current scores as previous for next comparison
-                        if (scores.highScores() != null) {
-                            previousScores.put(machine.safeId(), new ArrayList<>(scores.highScores()));
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to fetch high scores for machine {}: {}", machine.safeId(), e.getMessage());
+            // Fetch high scores for all machines concurrently
+            List<HighScoreResponse> fetchedScores = fanOutFetcher.fetchAll("high scores", fetchedMachines,
+                    Machine::safeId, machine -> apiClient.fetchHighScores(machine.safeId()));
+
+            Map<Long, HighScoreResponse> scoresByMachine = new HashMap<>();
+            for (int i = 0; i < fetchedMachines.size(); i++) {
+                if (fetchedScores.get(i) != null) {
+                    scoresByMachine.put(fetchedMachines.get(i).safeId(), fetchedScores.get(i));
                 }
             }
 
-            log.info("Leaderboards data refreshed: {} machines", fetchedMachines.size());
+            publishFull(fetchedMachines, fetchedAvatars, scoresByMachine, lastPlayedById(listedMachines));
+            outcome = "success";
+        } catch (Exception e) {
+            log.error("Failed to refresh leaderboards data", e);
+        } finally {
+            recordCycle("full", outcome, start);
+        }
+    }
+
+    /**
+     * Cheap activity check between full refreshes: polls only the machine list and fetches
+     * details and high scores just for machines whose listed {@code last_played} moved since the
+     * previous check (or that are new). The scheduled full refresh remains the safety net. The
+     * poll may overlap a full refresh; if one is published first, the poll's older data is dropped.
+     */
+    public void pollActivity() {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        long generation = fullRefreshes;
+        try {
+            List<Machine> listedMachines = apiClient.fetchMachineList();
+            if (listedMachines.isEmpty()) {
+                outcome = "empty";
+                return;
+            }
+
+            Map<Long, Instant> known = listedLastPlayed;
+            List<Machine> played = listedMachines.stream()
+                    .filter(m -> !m.isArchived())
+                    .filter(m -> !known.containsKey(m.safeId())
+                            || !Objects.equals(known.get(m.safeId()), m.lastPlayed()))
+                    .toList();
 
-            // Broadcast update to all connected UIs
-            if (!newScoreMessages.isEmpty()) {
-                broadcaster.broadcast(String.join("\n", newScoreMessages));
-            } else {
-                broadcaster.broadcast("REFRESH");
+            Set<Long> currentIds = new HashSet<>();
+            for (Machine machine : machines) {
+                currentIds.add(machine.safeId());
             }
+            List<Machine> listed = listedMachines.stream().filter(m -> !m.isArchived()).toList();
+            if (played.isEmpty() && listed.size() == currentIds.size()
+                    && listed.stream().allMatch(m -> currentIds.contains(m.safeId()))) {
+                log.debug("Activity poll: no machines played since last check");
+                if (servedLive()) refreshedAt = Instant.now();
+                outcome = "idle";
+                return;
+            }
+            log.info("Activity poll: {} of {} machines played since last check", played.size(), listed.size());
+
+            Map<Long, Machine> enrichedById = new HashMap<>();
+            for (Machine machine : apiClient.enrichMachines(played)) {
+                enrichedById.put(machine.safeId(), machine);
+            }
+
+            List<HighScoreResponse> fetchedScores = fanOutFetcher.fetchAll("high scores", played,
+                    Machine::safeId, machine -> apiClient.fetchHighScores(machine.safeId()));
+
+            Map<Long, HighScoreResponse> scoresByMachine = new HashMap<>();
+            Map<Long, Instant> nextLastPlayed = new HashMap<>(lastPlayedById(listedMachines));
+            for (int i = 0; i < played.size(); i++) {
+                long machineId = played.get(i).safeId();
+                if (fetchedScores.get(i) != null) {
+                    scoresByMachine.put(machineId, fetchedScores.get(i));
+                } else {
+                    // Retry on the next poll instead of waiting for the full refresh
+                    nextLastPlayed.remove(machineId);
+                    if (known.containsKey(machineId)) nextLastPlayed.put(machineId, known.get(machineId));
+                }
+            }
+
+            outcome = publishActivity(generation, listed, enrichedById, scoresByMachine, nextLastPlayed)
+                    ? "success" : "superseded";
         } catch (Exception e) {
-            log.error("Failed to refresh leaderboards data", e);
+            log.error("Activity poll failed", e);
+        } finally {
+            recordCycle("activity", outcome, start);
         }
     }
 
-    private List<String> detectNewScores(Machine machine, HighScoreResponse current) {
-        if (current.highScores() == null) return List.of();
+    private synchronized void publishFull(List<Machine> fetchedMachines, Map<String, AvatarInfo> fetchedAvatars,
+                                          Map<Long, HighScoreResponse> scoresByMachine, Map<Long, Instant> lastPlayed) {
+        fullRefreshes++;
+        publish(fetchedMachines, fetchedAvatars, scoresByMachine, Instant.MAX);
+        if (lastPlayed != null) listedLastPlayed = lastPlayed;
+    }
 
-        List<HighScoreEntry> prev = previousScores.get(machine.safeId());
-        if (prev == null) return List.of(); // First fetch, nothing to compare
+    /**
+     * Publishes what an activity poll fetched, merged with the current state under the publish
+     * lock. Returns {@code false} without publishing if a full refresh was published since the
+     * poll started at {@code generation}.
+     */
+    private synchronized boolean publishActivity(long generation, List<Machine> listed, Map<Long, Machine> enrichedById,
+                                                 Map<Long, HighScoreResponse> scoresByMachine,
+                                                 Map<Long, Instant> nextLastPlayed) {
+        if (generation != fullRefreshes) {
+            log.debug("Activity poll overlapped a full refresh, dropping its results");
+            return false;
+        }
+        Map<Long, Machine> currentById = new HashMap<>();
+        for (Machine machine : machines) {
+            currentById.put(machine.safeId(), machine);
+        }
+        // Keep the previously enriched state for machines nobody touched
+        List<Machine> merged = new ArrayList<>();
+        for (Machine machine : listed) {
+            Machine enriched = enrichedById.get(machine.safeId());
+            merged.add(enriched != null ? enriched : currentById.getOrDefault(machine.safeId(), machine));
+        }
+        // Highlights stay until the next full refresh
+        publish(merged, null, scoresByMachine, Instant.MIN);
+        listedLastPlayed = nextLastPlayed;
+        return true;
+    }
+
+    private static Map<Long, Instant> lastPlayedById(List<Machine> listedMachines) {
+        // HashMap rather than Map.of/ConcurrentHashMap: machines that were never played have a null last_played
+        Map<Long, Instant> lastPlayed = new HashMap<>();
+        for (Machine machine : listedMachines) {
+            lastPlayed.put(machine.safeId(), machine.lastPlayed());
+        }
+        return lastPlayed;
+    }
+
+    /**
+     * Reactive counterpart of {@link #refreshAll()}: machines, details, avatars and high scores
+     * form one composed pipeline and the snapshot is published from whichever thread completes
+     * it, so no thread is held while requests are in flight.
+     */
+    public Mono<Void> refreshAllReactive() {
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    log.info("Refreshing leaderboards data from Stern API (reactive)...");
+                    return fetchAndPublishReactive()
+                            .doOnSuccess(published -> recordCycle("reactive", published != null ? "success" : "empty", start))
+                            .doOnError(e -> recordCycle("reactive", "failure", start));
+                })
+                .doOnError(e -> log.error("Failed to refresh leaderboards data", e))
+                .onErrorComplete()
+                .then();
+    }
+
+    private Mono<?> fetchAndPublishReactive() {
+        return apiClient.fetchMachinesReactive()
+                .flatMap(fetchedMachines -> {
+                    if (fetchedMachines.isEmpty()) {
+                        log.warn("No machines fetched from Stern API");
+                        return Mono.empty();
+                    }
+
+                    Mono<Optional<Map<String, AvatarInfo>>> fetchedAvatars = apiClient.fetchAvatarsReactive()
+                            .map(Optional::of)
+                            .onErrorResume(e -> {
+                                log.warn("Failed to fetch avatars: {}", e.getMessage());
+                                return Mono.just(Optional.empty());
+                            });
+
+                    Mono<Map<Long, HighScoreResponse>> fetchedScores = Flux.fromIterable(fetchedMachines)
+                            .flatMap(machine -> apiClient.fetchHighScoresReactive(machine.safeId())
+                                    .map(scores -> Map.entry(machine.safeId(), scores))
+                                    .onErrorResume(e -> {
+                                        log.warn("Failed to fetch high scores for machine {}: {}",
+                                                machine.safeId(), e.getMessage());
+                                        FanOutFetcher.countFailure(meterRegistry, "high scores", machine.safeId());
+                                        return Mono.empty();
+                                    }), props.fetchConcurrency())
+                            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
 
-        Set<String> prevIds = new HashSet<>();
-        for (HighScoreEntry e : prev) {
-            prevIds.add(scoreEntryId(e));
+                    return Mono.zip(fetchedAvatars, fetchedScores)
+                            .doOnNext(result -> publishFull(fetchedMachines, result.getT1().orElse(null),
+                                    result.getT2(), null));
+                });
+    }
+
+    private void recordCycle(String kind, String outcome, long startNanos) {
+        meterRegistry.timer("leaderboards.refresh", "kind", kind, "outcome", outcome)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Whether the data just fetched came from Stern rather than from responses a circuit breaker
+     * fell back to; only then does it count as a refresh for the snapshot age.
+     */
+    private boolean servedLive() {
+        return apiClient == null || !apiClient.isDegraded();
+    }
+
+    private double snapshotAgeMillis() {
+        Instant at = refreshedAt;
+        return at != null ? Duration.between(at, Instant.now()).toMillis() : Double.NaN;
+    }
+
+    private void triggerReactiveRefresh() {
+        if (!reactiveRefreshInFlight.compareAndSet(false, true)) {
+            log.info("Previous reactive refresh still running, skipping this cycle");
+            return;
+        }
+        refreshAllReactive()
+                .doFinally(signal -> reactiveRefreshInFlight.set(false))
+                .subscribe();
+    }
+
+    /**
+     * Installs a freshly fetched snapshot, detects new scores against the previous one and
+     * notifies connected UIs of what changed. {@code fetchedAvatars} is {@code null} when the
+     * avatar fetch failed, in which case the previous avatars are kept. New-score highlights
+     * recorded before {@code clearHighlightsBefore} are cleared. Nothing is broadcast when the
+     * snapshot is identical to the previous one and there are no highlights to clear.
+     */
+    private synchronized void publish(List<Machine> fetchedMachines, Map<String, AvatarInfo> fetchedAvatars,
+                                      Map<Long, HighScoreResponse> scoresByMachine, Instant clearHighlightsBefore) {
+        Set<LeaderboardEvent> events = new LinkedHashSet<>(machineEvents(this.machines, fetchedMachines));
+        if (fetchedAvatars != null && !fetchedAvatars.equals(this.avatars)) {
+            events.add(new LeaderboardEvent.AvatarsChanged());
         }
 
-        Set<String> newIds = new HashSet<>();
-        List<String> messages = new ArrayList<>();
-        for (HighScoreEntry entry : current.highScores()) {
-            String entryId = scoreEntryId(entry);
-            if (!prevIds.contains(entryId)) {
-                newIds.add(entryId);
-                String playerName = resolveUsername(entry);
-                String scoreFmt = entry.score() != null ? entry.score() : "?";
-                String machineName = machine.model() != null && machine.model().title() != null
-                        ? machine.model().title().name() : "Unknown";
-                messages.add("NEW_SCORE:" + machineName + ":" + playerName + ":" + scoreFmt);
+        // Clear new-score highlights from previous cycles
+        Instant now = Instant.now();
+        newScoreKeys.entrySet().removeIf(highlight -> {
+            if (!highlight.getValue().at().isBefore(clearHighlightsBefore)) return false;
+            events.add(new LeaderboardEvent.ScoresChanged(highlight.getKey()));
+            return true;
+        });
+
+        this.machines = fetchedMachines;
+        if (servedLive()) this.refreshedAt = now;
+        if (fetchedAvatars != null) {
+            this.avatars = fetchedAvatars;
+        }
+
+        List<LeaderboardEvent> scoreEvents = new ArrayList<>();
+        List<JournalEntry> journalEntries = new ArrayList<>();
+        for (Machine machine : fetchedMachines) {
+            HighScoreResponse scores = scoresByMachine.get(machine.safeId());
+            // Unchanged payloads come back as the same cached instance, so this is usually an identity check
+            if (scores == null || Objects.equals(scores, highScores.get(machine.safeId()))) continue;
+
+            events.add(new LeaderboardEvent.ScoresChanged(machine.safeId()));
+            scoreEvents.addAll(detectScoreChanges(machine, scores, now, journalEntries));
+            highScores.put(machine.safeId(), scores);
+        }
+        events.addAll(scoreEvents);
+        scoreJournal.append(journalEntries);
+
+        if (events.isEmpty()) {
+            log.info("Leaderboards data unchanged: {} machines, skipping broadcast", fetchedMachines.size());
+            return;
+        }
+        log.info("Leaderboards data refreshed: {} machines, {} change events", fetchedMachines.size(), events.size());
+        rebuildViews(now);
+
+        // Broadcast update to all connected UIs
+        broadcaster.broadcast(List.copyOf(events));
+
+        snapshotStore.save(new SnapshotStore.Snapshot(now, fetchedMachines, avatars, Map.copyOf(highScores)));
+    }
+
+    /**
+     * Installs a snapshot fetched by another instance as if this one had fetched it, so new
+     * scores are detected, journaled and broadcast locally. The leader's full refreshes and
+     * activity polls look the same from here, so highlights expire after one refresh interval.
+     */
+    public void apply(SnapshotStore.Snapshot snapshot) {
+        publish(snapshot.machines(), snapshot.avatars(), snapshot.highScores(),
+                Instant.now().minus(Duration.ofMinutes(props.dataRefreshMinutes())));
+    }
+
+    /**
+     * Records that another instance heard back from Stern at {@code at} without anything changing.
+     */
+    public void markRefreshed(Instant at) {
+        Instant current = refreshedAt;
+        if (current == null || at.isAfter(current)) refreshedAt = at;
+    }
+
+    /**
+     * The current data, in the form {@link SnapshotStore} persists it.
+     */
+    public synchronized SnapshotStore.Snapshot snapshot() {
+        return new SnapshotStore.Snapshot(refreshedAt != null ? refreshedAt : Instant.EPOCH, machines, avatars,
+                Map.copyOf(highScores));
+    }
+
+    /**
+     * When the data last came back from Stern, changed or not; {@code null} before the first
+     * refresh or restore.
+     */
+    public Instant refreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * Rebuilds the views after the regional standings of the given {@link RegionalStore#key title
+     * keys} changed, and tells the UIs which machines show them.
+     */
+    public synchronized void regionalChanged(Set<String> titleKeys) {
+        List<LeaderboardEvent> events = new ArrayList<>();
+        for (Machine machine : machines) {
+            String title = machine.model() != null && machine.model().title() != null
+                    ? machine.model().title().name() : null;
+            if (title != null && titleKeys.contains(RegionalStore.key(title))) {
+                events.add(new LeaderboardEvent.RegionalChanged(machine.safeId()));
             }
         }
+        if (events.isEmpty()) return;
+        rebuildViews(Instant.now());
+        broadcaster.broadcast(events);
+    }
+
+    synchronized void restore(SnapshotStore.Snapshot snapshot) {
+        this.machines = snapshot.machines();
+        this.avatars = snapshot.avatars();
+        this.refreshedAt = snapshot.savedAt();
+        highScores.putAll(snapshot.highScores());
+        rebuildViews(snapshot.savedAt());
+    }
+
+    /**
+     * Rebuilds the render model once for all UIs. Views that did not change keep their previous
+     * instance so cards can skip them with an identity check. Each rebuild is a new version.
+     */
+    private void rebuildViews(Instant publishedAt) {
+        ViewSnapshot current = views;
+        Map<Long, MachineView> previous = current.byId();
+        Map<String, AvatarInfo> viewAvatars = MachineViews.proxyAvatars(avatars, imageUrls);
+        List<MachineView> machineViews = new ArrayList<>(machines.size());
+        Map<Long, MachineView> byId = new HashMap<>();
+        for (Machine machine : machines) {
+            long machineId = machine.safeId();
+            MachineView view = MachineViews.reuse(
+                    MachineViews.of(machine, highScores.get(machineId), viewAvatars, getNewScoreKeys(machineId),
+                            regionalStore, imageUrls),
+                    previous.get(machineId));
+            machineViews.add(view);
+            byId.put(machineId, view);
+        }
+        views = new ViewSnapshot(current.version() + 1, publishedAt, List.copyOf(machineViews), Map.copyOf(byId));
+    }
 
-        if (!newIds.isEmpty()) {
-            newScoreIds.put(machine.safeId(), newIds);
+    private static List<LeaderboardEvent> machineEvents(List<Machine> previous, List<Machine> current) {
+        Map<Long, Machine> previousById = new HashMap<>();
+        for (Machine machine : previous) {
+            previousById.put(machine.safeId(), machine);
         }
 
-        return messages;
+        List<LeaderboardEvent> events = new ArrayList<>();
+        for (Machine machine : current) {
+            Machine before = previousById.remove(machine.safeId());
+            if (before == null) {
+                events.add(new LeaderboardEvent.MachineAdded(machine.safeId()));
+                continue;
+            }
+            if (!Objects.equals(before.techAlerts(), machine.techAlerts())) {
+                events.add(new LeaderboardEvent.TechAlertsChanged(machine.safeId()));
+            }
+            if (!Objects.equals(before.online(), machine.online())
+                    || !Objects.equals(before.lastPlayed(), machine.lastPlayed())
+                    || !Objects.equals(before.model(), machine.model())
+                    || !Objects.equals(before.codeVersion(), machine.codeVersion())) {
+                events.add(new LeaderboardEvent.MachineUpdated(machine.safeId()));
+            }
+        }
+        for (Long removedId : previousById.keySet()) {
+            events.add(new LeaderboardEvent.MachineRemoved(removedId));
+        }
+        return events;
     }
 
-    private String scoreEntryId(HighScoreEntry e) {
-        if (e.id() != null && !e.id().isBlank()) return e.id();
-        return resolveUsername(e) + "-" + e.score();
+    /**
+     * Diffs a machine's fresh board against the one currently published and returns the
+     * resulting score events: new entries, rank moves, entries knocked off the board and a change
+     * of grand champion. New and knocked-off entries are also journaled. Returns an empty list,
+     * without allocating, when the board holds the same entries in the same order.
+     */
+    List<LeaderboardEvent> detectScoreChanges(Machine machine, HighScoreResponse current,
+                                              Instant now, List<JournalEntry> journalEntries) {
+        HighScoreResponse previous = highScores.get(machine.safeId());
+        // First fetch, nothing to compare
+        if (current.highScores() == null || previous == null || previous.highScores() == null) return List.of();
+
+        List<HighScoreEntry> before = previous.highScores();
+        List<HighScoreEntry> after = current.highScores();
+        if (ScoreDiff.sameBoard(before, after)) return List.of();
+
+        long machineId = machine.safeId();
+        String machineName = machine.model() != null && machine.model().title() != null
+                ? machine.model().title().name() : "Unknown";
+        List<LeaderboardEvent> events = new ArrayList<>();
+        List<Long> newKeys = new ArrayList<>();
+        ScoreDiff.diff(before, after, new ScoreDiff.Sink() {
+            @Override
+            public void added(HighScoreEntry entry, int rank) {
+                newKeys.add(entry.key());
+                events.add(new LeaderboardEvent.NewScore(machineId, machineName, entry.playerName(),
+                        entry.score(), rank));
+                journalEntries.add(new JournalEntry(JournalEntry.Kind.NEW_SCORE, now, machineId,
+                        machineName, entry.playerName(), journalScore(entry), rank));
+            }
+
+            @Override
+            public void moved(HighScoreEntry entry, int fromRank, int toRank) {
+                events.add(new LeaderboardEvent.ScoreMoved(machineId, machineName, entry.playerName(),
+                        entry.score(), fromRank, toRank));
+            }
+
+            @Override
+            public void knockedOff(HighScoreEntry entry, int rank) {
+                events.add(new LeaderboardEvent.ScoreKnockedOff(machineId, machineName, entry.playerName(),
+                        entry.score(), rank));
+                journalEntries.add(new JournalEntry(JournalEntry.Kind.DISPLACED, now, machineId,
+                        machineName, entry.playerName(), journalScore(entry), rank));
+            }
+        });
+
+        if (!after.isEmpty() && (before.isEmpty() || before.getFirst().key() != after.getFirst().key())) {
+            HighScoreEntry champion = after.getFirst();
+            HighScoreEntry dethroned = before.isEmpty() ? null : before.getFirst();
+            events.add(new LeaderboardEvent.GrandChampionChanged(machineId, machineName,
+                    champion.playerName(), champion.score(),
+                    dethroned != null ? dethroned.playerName() : null,
+                    dethroned != null ? dethroned.score() : HighScoreEntry.NO_SCORE));
+        }
+
+        if (!newKeys.isEmpty()) {
+            long[] keys = new long[newKeys.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = newKeys.get(i);
+            }
+            // Merged with highlights an earlier poll since the last full refresh left on the board
+            NewScores earlier = newScoreKeys.get(machineId);
+            if (earlier != null) {
+                keys = LongStream.concat(LongStream.of(earlier.keys()), LongStream.of(keys)).distinct().toArray();
+            }
+            Arrays.sort(keys);
+            newScoreKeys.put(machineId, new NewScores(keys, now));
+        }
+        return events;
     }
 
-    private String resolveUsername(HighScoreEntry entry) {
-        if (entry.user() == null) return "Unknown";
-        if (entry.user().username() != null) return entry.user().username();
-        if (entry.user().name() != null) return entry.user().name();
-        if (entry.user().initials() != null) return entry.user().initials();
-        return "Unknown";
+    // The journal keeps scores as text, as Stern sent them
+    private static String journalScore(HighScoreEntry e) {
+        return e.hasScore() ? Long.toString(e.score()) : "?";
     }
 
     public List<Machine> getMachines() {
@@ -154,8 +587,35 @@ public class LeaderboardDataService {
         return avatars;
     }
 
-    public Set<String> getNewScoreIds(long machineId) {
-        return newScoreIds.getOrDefault(machineId, Set.of());
+    /**
+     * Sorted {@link HighScoreEntry#key() keys} of the entries that are new on the machine's board
+     * in the current snapshot. The array is shared and must not be modified.
+     */
+    public long[] getNewScoreKeys(long machineId) {
+        NewScores highlight = newScoreKeys.get(machineId);
+        return highlight != null ? highlight.keys() : NO_KEYS;
+    }
+
+    /**
+     * The render model of the current snapshot, one view per machine in display order.
+     */
+    public List<MachineView> getMachineViews() {
+        return views.machines();
+    }
+
+    public MachineView getMachineView(long machineId) {
+        return views.byId().get(machineId);
+    }
+
+    /**
+     * The current render model together with its version, read in one step so the two always match.
+     */
+    public ViewSnapshot getViews() {
+        return views;
     }
 
+    /**
+     * The keys of a machine's highlighted entries and when they were last added to.
+     */
+    private record NewScores(long[] keys, Instant at) {}
 }
@@ -0,0 +1,112 @@
+package com.infraleap.leaderboards.stern.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the last response seen per Stern URL: its ETag, a SHA-256 fingerprint of the raw
+ * body and the value it was bound to. Lets {@link SternApiClient} send {@code If-None-Match}
+ * and skip Jackson binding entirely when a body is byte-for-byte unchanged. Hits and misses are
+ * also exposed as {@code stern.api.cache} counters.
+ */
+public class ResponseFingerprintCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ResponseFingerprintCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String etag(String url) {
+        Entry entry = entries.get(url);
+        return entry != null ? entry.etag() : null;
+    }
+
+    /**
+     * Returns the previously bound value for a 304 response, or {@code null} if nothing is cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T notModified(String endpoint, String url) {
+        Entry entry = entries.get(url);
+        if (entry == null) return null;
+        counters(endpoint).hits.increment();
+        return (T) entry.value();
+    }
+
+    /**
+     * Returns the previously bound value if {@code body} hashes to the same fingerprint,
+     * otherwise {@code null} and the caller must bind and {@link #store} it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T unchanged(String endpoint, String url, byte[] body) {
+        Entry entry = entries.get(url);
+        if (entry != null && Arrays.equals(entry.fingerprint(), fingerprint(body))) {
+            counters(endpoint).hits.increment();
+            return (T) entry.value();
+        }
+        counters(endpoint).misses.increment();
+        return null;
+    }
+
+    /**
+     * The value last bound for {@code url}, or {@code null}; not counted as a hit.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T lastGood(String url) {
+        Entry entry = entries.get(url);
+        return entry != null ? (T) entry.value() : null;
+    }
+
+    public void store(String url, String etag, byte[] body, Object value) {
+        entries.put(url, new Entry(etag, fingerprint(body), value));
+    }
+
+    /**
+     * Hit/miss counts per endpoint since startup, sorted by endpoint name.
+     */
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        counters.forEach((endpoint, c) -> stats.put(endpoint, new Stats(c.hits.sum(), c.misses.sum())));
+        return stats;
+    }
+
+    private Counters counters(String endpoint) {
+        return counters.computeIfAbsent(endpoint, k -> {
+            Counters c = new Counters();
+            FunctionCounter.builder("stern.api.cache", c.hits, LongAdder::sum)
+                    .tags("endpoint", endpoint, "result", "hit")
+                    .register(meterRegistry);
+            FunctionCounter.builder("stern.api.cache", c.misses, LongAdder::sum)
+                    .tags("endpoint", endpoint, "result", "miss")
+                    .register(meterRegistry);
+            return c;
+        });
+    }
+
+    private static byte[] fingerprint(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Stats(long hits, long misses) {}
+
+    private record Entry(String etag, byte[] fingerprint, Object value) {}
+
+    private static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+}
@@ -0,0 +1,109 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+
+import java.util.List;
+
+/**
+ * Compares two rank-ordered high-score boards by their entries' precomputed
+ * {@link HighScoreEntry#key()}s. Boards are sorted by descending score and an entry keeps its key
+ * and score across refreshes, so a single merge over both boards finds every new, moved and
+ * knocked-off entry. Entries with tied scores may swap places, so each run of equal scores is
+ * matched as a group. A board that is not in score order is matched as one group.
+ * <p>
+ * Results go to a {@link Sink}; {@link #sameBoard} lets callers skip the diff, and any
+ * allocation, when nothing changed. All ranks are 1-based.
+ */
+final class ScoreDiff {
+
+    interface Sink {
+        void added(HighScoreEntry entry, int rank);
+
+        void moved(HighScoreEntry entry, int fromRank, int toRank);
+
+        void knockedOff(HighScoreEntry entry, int rank);
+    }
+
+    private ScoreDiff() {
+    }
+
+    /** Whether both boards hold the same entries in the same order. */
+    static boolean sameBoard(List<HighScoreEntry> previous, List<HighScoreEntry> current) {
+        if (previous.size() != current.size()) return false;
+        for (int i = 0; i < current.size(); i++) {
+            if (previous.get(i).key() != current.get(i).key()) return false;
+        }
+        return true;
+    }
+
+    static void diff(List<HighScoreEntry> previous, List<HighScoreEntry> current, Sink sink) {
+        if (!isRanked(previous) || !isRanked(current)) {
+            matchGroup(previous, 0, previous.size(), current, 0, current.size(), sink);
+            return;
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < previous.size() && j < current.size()) {
+            long before = previous.get(i).score();
+            long after = current.get(j).score();
+            if (after > before) {
+                sink.added(current.get(j), j + 1);
+                j++;
+            } else if (before > after) {
+                sink.knockedOff(previous.get(i), i + 1);
+                i++;
+            } else {
+                int previousEnd = groupEnd(previous, i);
+                int currentEnd = groupEnd(current, j);
+                matchGroup(previous, i, previousEnd, current, j, currentEnd, sink);
+                i = previousEnd;
+                j = currentEnd;
+            }
+        }
+        for (; i < previous.size(); i++) {
+            sink.knockedOff(previous.get(i), i + 1);
+        }
+        for (; j < current.size(); j++) {
+            sink.added(current.get(j), j + 1);
+        }
+    }
+
+    private static void matchGroup(List<HighScoreEntry> previous, int previousFrom, int previousTo,
+                                   List<HighScoreEntry> current, int currentFrom, int currentTo, Sink sink) {
+        for (int j = currentFrom; j < currentTo; j++) {
+            int i = indexOf(previous, previousFrom, previousTo, current.get(j).key());
+            if (i < 0) {
+                sink.added(current.get(j), j + 1);
+            } else if (i != j) {
+                sink.moved(current.get(j), i + 1, j + 1);
+            }
+        }
+        for (int i = previousFrom; i < previousTo; i++) {
+            if (indexOf(current, currentFrom, currentTo, previous.get(i).key()) < 0) {
+                sink.knockedOff(previous.get(i), i + 1);
+            }
+        }
+    }
+
+    private static int indexOf(List<HighScoreEntry> board, int from, int to, long key) {
+        for (int i = from; i < to; i++) {
+            if (board.get(i).key() == key) return i;
+        }
+        return -1;
+    }
+
+    private static int groupEnd(List<HighScoreEntry> board, int start) {
+        long score = board.get(start).score();
+        int end = start + 1;
+        while (end < board.size() && board.get(end).score() == score) end++;
+        return end;
+    }
+
+    private static boolean isRanked(List<HighScoreEntry> board) {
+        for (int i = 1; i < board.size(); i++) {
+            if (board.get(i).score() > board.get(i - 1).score()) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,279 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.domain.MachineAddress;
+import com.infraleap.leaderboards.stern.domain.MachineModel;
+import com.infraleap.leaderboards.stern.domain.MachineTitle;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import com.infraleap.leaderboards.stern.domain.TechAlert;
+import com.infraleap.leaderboards.stern.ingest.Interner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Persists the last published snapshot to a compact binary file so a restart can render
+ * immediately and keep detecting new scores against the pre-restart baseline.
+ * Files are written to a temporary sibling, fsynced and atomically moved into place.
+ * Scores are stored as numbers and timestamps as epoch second plus nanos; files of any other
+ * version are ignored.
+ */
+public class SnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+    private static final int MAGIC = 0x53484C42; // "SHLB"
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+
+    public SnapshotStore(LeaderboardProperties props) {
+        this.file = props.snapshotFile() != null && !props.snapshotFile().isBlank()
+                ? Path.of(props.snapshotFile()) : null;
+    }
+
+    public Optional<Snapshot> load() {
+        if (file == null || !Files.isRegularFile(file)) return Optional.empty();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Snapshot snapshot = read(in);
+            log.info("Loaded snapshot from {}: {} machines saved at {}",
+                    file, snapshot.machines().size(), snapshot.savedAt());
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void save(Snapshot snapshot) {
+        if (file == null) return;
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileOutputStream fos = new FileOutputStream(tmp.toFile());
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+                    write(out, snapshot);
+                    out.flush();
+                    fos.getChannel().force(true);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    public static void write(DataOutput out, Snapshot snapshot) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(snapshot.savedAt().toEpochMilli());
+
+        out.writeInt(snapshot.machines().size());
+        for (Machine machine : snapshot.machines()) {
+            writeMachine(out, machine);
+        }
+
+        out.writeInt(snapshot.avatars().size());
+        for (Map.Entry<String, AvatarInfo> entry : snapshot.avatars().entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeString(out, entry.getValue().avatarUrl());
+            writeString(out, entry.getValue().backgroundColor());
+        }
+
+        out.writeInt(snapshot.highScores().size());
+        for (Map.Entry<Long, HighScoreResponse> entry : snapshot.highScores().entrySet()) {
+            out.writeLong(entry.getKey());
+            List<HighScoreEntry> entries = entry.getValue().highScores();
+            out.writeInt(entries != null ? entries.size() : -1);
+            if (entries == null) continue;
+            for (HighScoreEntry score : entries) {
+                writeString(out, score.id());
+                out.writeLong(score.score());
+                out.writeBoolean(score.user() != null);
+                if (score.user() != null) {
+                    writeString(out, score.user().username());
+                    writeString(out, score.user().name());
+                    writeString(out, score.user().initials());
+                }
+            }
+        }
+    }
+
+    public static Snapshot read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("not a snapshot file");
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported snapshot version " + version);
+        }
+        Instant savedAt = Instant.ofEpochMilli(in.readLong());
+
+        int machineCount = in.readInt();
+        List<Machine> machines = new ArrayList<>(machineCount);
+        for (int i = 0; i < machineCount; i++) {
+            machines.add(readMachine(in));
+        }
+
+        int avatarCount = in.readInt();
+        Map<String, AvatarInfo> avatars = new HashMap<>();
+        for (int i = 0; i < avatarCount; i++) {
+            avatars.put(in.readUTF(), new AvatarInfo(readString(in), readString(in)));
+        }
+
+        int scoreCount = in.readInt();
+        Map<Long, HighScoreResponse> highScores = new HashMap<>();
+        for (int i = 0; i < scoreCount; i++) {
+            long machineId = in.readLong();
+            int entryCount = in.readInt();
+            List<HighScoreEntry> entries = entryCount >= 0 ? new ArrayList<>(entryCount) : null;
+            for (int j = 0; j < entryCount; j++) {
+                String id = readString(in);
+                long score = in.readLong();
+                ScoreUser user = in.readBoolean()
+                        ? new ScoreUser(readString(in), readString(in), readString(in)) : null;
+                entries.add(new HighScoreEntry(id, score, user));
+            }
+            highScores.put(machineId, new HighScoreResponse(entries));
+        }
+
+        return new Snapshot(savedAt, machines, avatars, highScores);
+    }
+
+    private static void writeMachine(DataOutput out, Machine machine) throws IOException {
+        writeLong(out, machine.id());
+        writeBoolean(out, machine.archived());
+        writeBoolean(out, machine.online());
+        writeInstant(out, machine.lastPlayed());
+
+        MachineModel model = machine.model();
+        out.writeBoolean(model != null);
+        if (model != null) {
+            MachineTitle title = model.title();
+            out.writeBoolean(title != null);
+            if (title != null) {
+                writeString(out, title.name());
+                writeString(out, title.primaryBackground());
+                writeString(out, title.variableWidthLogo());
+                writeString(out, title.squareLogo());
+                writeString(out, title.gradientStart());
+                writeString(out, title.gradientStop());
+            }
+            writeString(out, model.modelTypeName());
+        }
+
+        out.writeBoolean(machine.address() != null);
+        if (machine.address() != null) {
+            writeLong(out, machine.address().locationId());
+        }
+
+        List<TechAlert> alerts = machine.techAlerts();
+        out.writeInt(alerts != null ? alerts.size() : -1);
+        if (alerts != null) {
+            for (TechAlert alert : alerts) {
+                writeString(out, alert.message());
+                writeInstant(out, alert.dateOfEvent());
+            }
+        }
+
+        writeString(out, machine.codeVersion());
+    }
+
+    private static Machine readMachine(DataInput in) throws IOException {
+        Long id = readLong(in);
+        Boolean archived = readBoolean(in);
+        Boolean online = readBoolean(in);
+        Instant lastPlayed = readInstant(in);
+
+        MachineModel model = null;
+        if (in.readBoolean()) {
+            MachineTitle title = in.readBoolean()
+                    ? new MachineTitle(readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in))
+                    : null;
+            model = new MachineModel(title, readString(in));
+        }
+
+        MachineAddress address = in.readBoolean() ? new MachineAddress(readLong(in)) : null;
+
+        int alertCount = in.readInt();
+        List<TechAlert> alerts = alertCount >= 0 ? new ArrayList<>(alertCount) : null;
+        for (int i = 0; i < alertCount; i++) {
+            alerts.add(new TechAlert(readString(in), readInstant(in)));
+        }
+
+        return new Machine(id, archived, online, lastPlayed, model, address, alerts, readString(in));
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? Interner.intern(in.readUTF()) : null;
+    }
+
+    private static void writeInstant(DataOutput out, Instant value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getEpochSecond());
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeLong(value);
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeBoolean(DataOutput out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : value ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(DataInput in) throws IOException {
+        byte b = in.readByte();
+        return b < 0 ? null : b == 1;
+    }
+
+    /**
+     * The persisted part of {@link LeaderboardDataService}'s state. The high scores double as the
+     * baseline for new-score detection after a restart.
+     */
+    public record Snapshot(
+            Instant savedAt,
+            List<Machine> machines,
+            Map<String, AvatarInfo> avatars,
+            Map<Long, HighScoreResponse> highScores
+    ) {}
+}
@@ -0,0 +1,121 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bound Stern responses by URL with a TTL per endpoint, sitting in front of the network call in
+ * {@link SternApiClient}. A fresh response is returned without a call; a stale one (older than
+ * its TTL by at most {@code max-stale-seconds}) is returned right away while one background call
+ * per URL replaces it; an expired or missing one is fetched before returning. Errors, including
+ * calls rejected by a circuit breaker, never replace a cached response.
+ * <p>
+ * Holds at most {@code max-entries} responses, evicting the least recently used. Lookups are
+ * counted as {@code stern.api.response.cache} by endpoint and result ({@code fresh},
+ * {@code stale}, {@code miss}).
+ */
+public class StaleWhileRevalidateCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleWhileRevalidateCache.class);
+
+    private final long maxStaleNanos;
+    private final MeterRegistry meterRegistry;
+    private final Counter evictions;
+    private final Map<String, Entry> entries;  // guarded by this, in access order
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Counter> lookups = new ConcurrentHashMap<>();
+
+    public StaleWhileRevalidateCache(LeaderboardProperties.Cache config, MeterRegistry meterRegistry) {
+        this.maxStaleNanos = Duration.ofSeconds(config.maxStaleSeconds()).toNanos();
+        this.meterRegistry = meterRegistry;
+        this.evictions = Counter.builder("stern.api.response.cache.evictions")
+                .description("Cached Stern responses evicted to stay within max-entries")
+                .register(meterRegistry);
+        int maxEntries = config.maxEntries();
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+        Gauge.builder("stern.api.response.cache.size", this, StaleWhileRevalidateCache::size)
+                .description("Stern responses held by the stale-while-revalidate cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The response for {@code url}, from the cache if it is younger than {@code ttl} plus the
+     * stale window, otherwise from {@code load}. A zero {@code ttl} always calls {@code load} and
+     * caches nothing.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String endpoint, String url, Duration ttl, Supplier<Mono<T>> load) {
+        if (ttl.isZero()) return load.get();
+        return Mono.defer(() -> {
+            Entry entry = entry(url);
+            long age = entry != null ? System.nanoTime() - entry.fetchedAt() : Long.MAX_VALUE;
+            if (age < ttl.toNanos()) {
+                count(endpoint, "fresh");
+                return Mono.just((T) entry.value());
+            }
+            if (age - ttl.toNanos() < maxStaleNanos) {
+                count(endpoint, "stale");
+                revalidate(url, load);
+                return Mono.just((T) entry.value());
+            }
+            count(endpoint, "miss");
+            return load.get().doOnNext(value -> put(url, value));
+        });
+    }
+
+    /**
+     * How long ago the cached response for {@code url} came from Stern, or {@code null} if none is cached.
+     */
+    public synchronized Duration age(String url) {
+        Entry entry = entries.get(url);
+        return entry != null ? Duration.ofNanos(System.nanoTime() - entry.fetchedAt()) : null;
+    }
+
+    private <T> void revalidate(String url, Supplier<Mono<T>> load) {
+        if (!revalidating.add(url)) return;
+        load.get()
+                .doFinally(signal -> revalidating.remove(url))
+                .subscribe(value -> put(url, value),
+                        e -> log.debug("Revalidating {} failed, keeping the stale response: {}", url, e.getMessage()));
+    }
+
+    private synchronized Entry entry(String url) {
+        return entries.get(url);
+    }
+
+    private synchronized void put(String url, Object value) {
+        entries.put(url, new Entry(value, System.nanoTime()));
+    }
+
+    private synchronized int size() {
+        return entries.size();
+    }
+
+    private void count(String endpoint, String result) {
+        lookups.computeIfAbsent(endpoint + '\0' + result, k -> Counter.builder("stern.api.response.cache")
+                .description("Lookups in the stale-while-revalidate cache of Stern responses")
+                .tags("endpoint", endpoint, "result", result)
+                .register(meterRegistry)).increment();
+    }
+
+    private record Entry(Object value, long fetchedAt) {}
+}
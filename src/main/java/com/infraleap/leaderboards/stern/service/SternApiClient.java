@@ -2,33 +2,100 @@ package com.infraleap.leaderboards.stern.service;
 
 import com.infraleap.leaderboards.config.LeaderboardProperties;
 import com.infraleap.leaderboards.stern.domain.*;
+import com.infraleap.leaderboards.stern.ingest.Interner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-@Service
 public class SternApiClient {
 
     private static final Logger log = LoggerFactory.getLogger(SternApiClient.class);
-    private static final String CMS_BASE = "https://cms.prd.sternpinball.io/api/v1/portal";
-    private static final String API_V2_BASE = "https://api.prd.sternpinball.io/api/v2/portal";
     private static final int MAX_RETRIES = 2;
 
+    // Endpoint names used to group fingerprint hit/miss counters and request metrics
+    static final String REGISTERED_MACHINES = "user_registered_machines";
+    static final String MACHINE_DETAIL = "game_machines";
+    static final String HIGH_SCORES = "game_machine_high_scores";
+    static final String USER_DETAIL = "user_detail";
+    public static final String GLOBAL_LEADERBOARDS = "stern_global_leaderboards";
+    public static final String NEARBY_LEADERBOARDS = "nearby_leaderboards";
+    // The endpoints a refresh of the home boards calls; the regional ones have their own schedule
+    private static final List<String> REFRESH_ENDPOINTS =
+            List.of(REGISTERED_MACHINES, MACHINE_DETAIL, HIGH_SCORES, USER_DETAIL);
+
+    private static final Duration MACHINES_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration MACHINE_DETAIL_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration HIGH_SCORES_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration USER_DETAIL_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration LEADERBOARD_PAGE_TIMEOUT = Duration.ofSeconds(20);
+
     private final SternAuthService authService;
+    private final FanOutFetcher fanOutFetcher;
+    private final ResponseFingerprintCache fingerprints;
+    private final StaleWhileRevalidateCache responseCache;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
     private final WebClient webClient;
+    private final String cmsBase;
+    private final String apiV2Base;
     private final String locationHeader;
+    private final int fetchConcurrency;
+    private final LeaderboardProperties.Resilience resilience;
+    private final Map<String, EndpointGuard> guards;
+    private final Map<String, Duration> ttls;
+    private final Duration statusTtl;
 
-    public SternApiClient(SternAuthService authService, LeaderboardProperties props) {
+    public SternApiClient(SternAuthService authService, FanOutFetcher fanOutFetcher,
+                          ResponseFingerprintCache fingerprints, StaleWhileRevalidateCache responseCache,
+                          JsonMapper jsonMapper,
+                          SternHttpTransport transport, MeterRegistry meterRegistry, LeaderboardProperties props) {
         this.authService = authService;
+        this.fanOutFetcher = fanOutFetcher;
+        this.fingerprints = fingerprints;
+        this.responseCache = responseCache;
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.cmsBase = props.api().cmsUrl();
+        this.apiV2Base = props.api().v2Url();
         this.locationHeader = buildLocationHeader(props);
+        this.fetchConcurrency = props.fetchConcurrency();
+        this.resilience = props.resilience();
+        this.guards = Map.of(
+                REGISTERED_MACHINES, new EndpointGuard(REGISTERED_MACHINES, resilience, meterRegistry),
+                MACHINE_DETAIL, new EndpointGuard(MACHINE_DETAIL, resilience, meterRegistry),
+                HIGH_SCORES, new EndpointGuard(HIGH_SCORES, resilience, meterRegistry),
+                USER_DETAIL, new EndpointGuard(USER_DETAIL, resilience, meterRegistry),
+                GLOBAL_LEADERBOARDS, new EndpointGuard(GLOBAL_LEADERBOARDS, resilience, meterRegistry),
+                NEARBY_LEADERBOARDS, new EndpointGuard(NEARBY_LEADERBOARDS, resilience, meterRegistry));
+        LeaderboardProperties.Cache cache = props.cache();
+        this.ttls = Map.of(
+                REGISTERED_MACHINES, Duration.ofSeconds(cache.machineListTtlSeconds()),
+                MACHINE_DETAIL, Duration.ofSeconds(cache.machineDetailTtlSeconds()),
+                HIGH_SCORES, Duration.ofSeconds(cache.highScoresTtlSeconds()),
+                USER_DETAIL, Duration.ofSeconds(cache.userDetailTtlSeconds()),
+                // Walked on their own schedule; unchanged pages are caught by their fingerprint
+                GLOBAL_LEADERBOARDS, Duration.ZERO,
+                NEARBY_LEADERBOARDS, Duration.ZERO);
+        this.statusTtl = Duration.ofSeconds(cache.statusTtlSeconds());
         this.webClient = WebClient.builder()
+                .clientConnector(transport.connector())
                 .defaultHeader("User-Agent", "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:142.0) Gecko/20100101 Firefox/142.0")
                 .defaultHeader("Accept", "application/json, text/plain, */*")
                 .defaultHeader("Accept-Language", "en-US,en;q=0.5")
@@ -40,63 +107,160 @@ public class SternApiClient {
                 .defaultHeader("Sec-Fetch-Dest", "empty")
                 .defaultHeader("Sec-Fetch-Mode", "cors")
                 .defaultHeader("Sec-Fetch-Site", "cross-site")
-                .defaultHeader("Pragma", "no-cache")
-                .defaultHeader("Cache-Control", "max-age=604800, no-cache, no-store")
                 .build();
     }
 
     public List<Machine> fetchMachines() {
-        MachinesResponse response = fetchWithRetry(
-                CMS_BASE + "/user_registered_machines/?group_type=home",
-                MachinesResponse.class, 0);
+        return enrichMachines(fetchMachineList());
+    }
 
-        if (response == null || response.user() == null || response.user().machines() == null) {
+    /**
+     * The registered machines exactly as listed, without detail enrichment and including
+     * archived ones. This is the cheap call used to watch {@code last_played}.
+     */
+    public List<Machine> fetchMachineList() {
+        List<Machine> basics = fetchMachineListReactive().block();
+        return basics != null ? basics : List.of();
+    }
+
+    /**
+     * Enriches listed machines from the detail endpoint, concurrently, and drops archived ones.
+     */
+    public List<Machine> enrichMachines(List<Machine> basics) {
+        if (basics.isEmpty()) {
             return List.of();
         }
 
-        List<Machine> basics = response.user().machines();
-
-        // Enrich each machine with tech alerts from detail endpoint
-        return basics.stream().map(machine -> {
-            try {
-                MachineDetail details = fetchWithRetry(
-                        CMS_BASE + "/game_machines/" + machine.id(),
-                        MachineDetail.class, 0);
-                if (details != null) {
-                    // Enrich model with type name from detail endpoint
-                    MachineModel enrichedModel = machine.model();
-                    if (details.modelTypeName() != null && enrichedModel != null) {
-                        enrichedModel = new MachineModel(enrichedModel.title(), details.modelTypeName());
-                    }
-                    return new Machine(
-                            machine.id(),
-                            machine.archived(),
-                            details.online() != null ? details.online() : machine.online(),
-                            details.lastPlayed() != null ? details.lastPlayed() : machine.lastPlayed(),
-                            enrichedModel,
-                            machine.address(),
-                            details.techAlerts(),
-                            details.codeVersion()
-                    );
-                }
-            } catch (Exception e) {
-                log.warn("Failed to fetch details for machine {}: {}", machine.id(), e.getMessage());
+        // Enrich each machine with tech alerts from detail endpoint, concurrently
+        List<MachineDetail> details = fanOutFetcher.fetchAll("machine details", basics, Machine::safeId,
+                machine -> fetchMachineDetailReactive(machine).block());
+
+        List<Machine> enriched = new ArrayList<>(basics.size());
+        for (int i = 0; i < basics.size(); i++) {
+            Machine machine = enrich(basics.get(i), details.get(i), statusFresh(basics.get(i)));
+            if (!machine.isArchived()) {
+                enriched.add(machine);
             }
-            return machine;
-        }).filter(m -> !m.isArchived()).toList();
+        }
+        return enriched;
     }
 
     public HighScoreResponse fetchHighScores(long machineId) {
-        return fetchWithRetry(
-                CMS_BASE + "/game_machine_high_scores/?machine_id=" + machineId,
-                HighScoreResponse.class, 0);
+        return fetchHighScoresReactive(machineId).block();
     }
 
     public Map<String, AvatarInfo> fetchAvatars() {
-        UserDetailResponse response = fetchWithRetry(
-                API_V2_BASE + "/user_detail/",
-                UserDetailResponse.class, 0);
+        return fetchAvatarsReactive().block();
+    }
+
+    /**
+     * Reactive counterpart of {@link #fetchMachines()}: the machine list followed by up to
+     * {@code leaderboards.fetch-concurrency} concurrent detail calls. A failed detail call
+     * keeps the machine as listed instead of failing the whole list.
+     */
+    public Mono<List<Machine>> fetchMachinesReactive() {
+        return fetchMachineListReactive()
+                .flatMapMany(Flux::fromIterable)
+                .flatMapSequential(machine -> fetchMachineDetailReactive(machine)
+                        .map(details -> enrich(machine, details, statusFresh(machine)))
+                        .defaultIfEmpty(machine)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to fetch machine details for machine {}: {}", machine.safeId(), e.getMessage());
+                            FanOutFetcher.countFailure(meterRegistry, "machine details", machine.safeId());
+                            return Mono.just(machine);
+                        }), fetchConcurrency)
+                .filter(m -> !m.isArchived())
+                .collectList();
+    }
+
+    public Mono<HighScoreResponse> fetchHighScoresReactive(long machineId) {
+        return fetch(HIGH_SCORES, cmsBase + "/game_machine_high_scores/?machine_id=" + machineId,
+                HighScoreResponse.class, HIGH_SCORES_TIMEOUT);
+    }
+
+    public Mono<Map<String, AvatarInfo>> fetchAvatarsReactive() {
+        return fetch(USER_DETAIL, apiV2Base + "/user_detail/", UserDetailResponse.class, USER_DETAIL_TIMEOUT)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(response -> toAvatarMap(response.orElse(null)));
+    }
+
+    /**
+     * Walks a paginated leaderboard listing ({@link #GLOBAL_LEADERBOARDS} or
+     * {@link #NEARBY_LEADERBOARDS}), emitting each page as soon as it is bound. The first page
+     * tells how many there are; the rest, up to {@code maxPages} in all, are fetched with at most
+     * {@code concurrency} in flight, so they arrive in no particular order. A page whose body is
+     * unchanged comes back as the same instance as last time. Fails if any page fails, so callers
+     * know whether they saw the whole listing.
+     */
+    public Flux<LeaderboardPage> fetchLeaderboardPages(String endpoint, int maxPages, int concurrency) {
+        return fetchLeaderboardPage(endpoint, 1)
+                .flatMapMany(first -> {
+                    int pageSize = first.boards().size();
+                    int pages = first.next() == null || pageSize == 0
+                            ? 1 : Math.min(maxPages, (first.count() + pageSize - 1) / pageSize);
+                    return Flux.range(2, Math.max(0, pages - 1))
+                            .flatMap(page -> fetchLeaderboardPage(endpoint, page), concurrency)
+                            .startWith(first);
+                });
+    }
+
+    private Mono<LeaderboardPage> fetchLeaderboardPage(String endpoint, int page) {
+        return fetch(endpoint, cmsBase + "/" + endpoint + "/?page=" + page, LeaderboardPage.class, LEADERBOARD_PAGE_TIMEOUT)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No " + endpoint + " page " + page)));
+    }
+
+    private Mono<List<Machine>> fetchMachineListReactive() {
+        return fetch(REGISTERED_MACHINES, cmsBase + "/user_registered_machines/?group_type=home",
+                MachinesResponse.class, MACHINES_TIMEOUT)
+                .map(response -> response.user() != null && response.user().machines() != null
+                        ? response.user().machines() : List.<Machine>of())
+                .defaultIfEmpty(List.of());
+    }
+
+    private Mono<MachineDetail> fetchMachineDetailReactive(Machine machine) {
+        return fetch(MACHINE_DETAIL, machineDetailUrl(machine), MachineDetail.class, MACHINE_DETAIL_TIMEOUT);
+    }
+
+    private String machineDetailUrl(Machine machine) {
+        return cmsBase + "/game_machines/" + machine.id();
+    }
+
+    /**
+     * Whether the cached detail of {@code machine} is recent enough for its online and
+     * last-played fields to beat the machine list's.
+     */
+    private boolean statusFresh(Machine machine) {
+        Duration age = responseCache.age(machineDetailUrl(machine));
+        return age == null || age.compareTo(statusTtl) < 0;
+    }
 
+    private static Machine enrich(Machine machine, MachineDetail details, boolean statusFresh) {
+        if (details == null) return machine;
+        if (!statusFresh) {
+            // A cached detail's status is older than the list's, so only its slower field groups are used
+            details = new MachineDetail(details.pk(), null, null, details.codeVersion(), details.gameModel(),
+                    details.techAlerts());
+        }
+
+        // Enrich model with type name from detail endpoint
+        MachineModel enrichedModel = machine.model();
+        if (details.modelTypeName() != null && enrichedModel != null) {
+            enrichedModel = new MachineModel(enrichedModel.title(), details.modelTypeName());
+        }
+        return new Machine(
+                machine.id(),
+                machine.archived(),
+                details.online() != null ? details.online() : machine.online(),
+                details.lastPlayed() != null ? details.lastPlayed() : machine.lastPlayed(),
+                enrichedModel,
+                machine.address(),
+                details.techAlerts(),
+                details.codeVersion()
+        );
+    }
+
+    private static Map<String, AvatarInfo> toAvatarMap(UserDetailResponse response) {
         Map<String, AvatarInfo> avatarMap = new HashMap<>();
         if (response == null || response.user() == null || response.user().profile() == null) {
             log.warn("user_detail response has no profile data");
@@ -107,7 +271,7 @@ public class SternApiClient {
 
         // Add the logged-in user's own avatar
         if (profile.initials() != null && profile.avatarUrl() != null && !profile.avatarUrl().isBlank()) {
-            avatarMap.put(profile.initials().toLowerCase(),
+            avatarMap.put(Interner.intern(profile.initials().toLowerCase()),
                     new AvatarInfo(profile.avatarUrl(), profile.backgroundColorHex()));
         }
 
@@ -115,7 +279,7 @@ public class SternApiClient {
         if (profile.following() != null) {
             for (FollowedUser followed : profile.following()) {
                 if (followed.initials() != null && followed.avatarUrl() != null && !followed.avatarUrl().isBlank()) {
-                    avatarMap.put(followed.initials().toLowerCase(),
+                    avatarMap.put(Interner.intern(followed.initials().toLowerCase()),
                             new AvatarInfo(followed.avatarUrl(), followed.backgroundColorHex()));
                 }
             }
@@ -125,38 +289,158 @@ public class SternApiClient {
         return avatarMap;
     }
 
-    private <T> T fetchWithRetry(String url, Class<T> responseType, int retryCount) {
-        try {
-            String token = authService.getToken();
-            String cookies = authService.getCookies();
-            if (token == null || token.isBlank()) {
-                log.warn("No auth token available, attempting login...");
-                if (!authService.login()) {
-                    log.error("Authentication failed, cannot fetch {}", url);
-                    return null;
-                }
-                token = authService.getToken();
-                cookies = authService.getCookies();
-            }
-            return webClient.get()
-                    .uri(url)
-                    .header("Authorization", "Bearer " + token)
-                    .header("Cookie", cookies != null ? cookies : "")
-                    .header("Location", locationHeader)
-                    .retrieve()
-                    .bodyToMono(responseType)
-                    .block(Duration.ofSeconds(30));
-        } catch (WebClientResponseException e) {
-            if ((e.getStatusCode().value() == 401 || e.getStatusCode().value() == 403)
-                    && retryCount < MAX_RETRIES) {
-                log.info("Received {} from Stern API, refreshing auth (retry {}/{})",
-                        e.getStatusCode().value(), retryCount + 1, MAX_RETRIES);
-                authService.login();
-                return fetchWithRetry(url, responseType, retryCount + 1);
-            }
-            log.error("Stern API error for {}: {} {}", url, e.getStatusCode(), e.getMessage());
-            throw e;
+    /**
+     * Single authenticated GET, answered from the {@link StaleWhileRevalidateCache} while the
+     * endpoint's TTL allows. Credentials are resolved without blocking, a 401/403 renews the
+     * rejected credentials (shared with any other request rejected at the same time) and
+     * resubscribes (up to {@link #MAX_RETRIES} times), and each attempt including auth retries is
+     * bounded by {@code timeout}. Completes empty when login fails.
+     * <p>
+     * Sends {@code If-None-Match} when an ETag is known and returns the previously bound value on
+     * a 304 or when the raw body fingerprint is unchanged, so unchanged payloads skip Jackson.
+     * <p>
+     * Every attempt takes a token from the endpoint's {@link EndpointGuard rate limit}. Server
+     * errors and timeouts are retried with jittered exponential backoff, and calls that still fail
+     * count towards the endpoint's circuit breaker. While the breaker is open, or when the rate
+     * limit would make the call wait longer than {@code timeout}, the last good response for the
+     * URL is returned without calling Stern; without one the call fails with
+     * {@link EndpointGuard.Rejected}.
+     * <p>
+     * Each exchange, retries included, is timed as {@code stern.api.requests} by endpoint and
+     * outcome; auth retries are counted as {@code stern.api.retries}, backoff retries as
+     * {@code stern.api.backoff.retries}.
+     */
+    private <T> Mono<T> fetch(String endpoint, String url, Class<T> responseType, Duration timeout) {
+        return responseCache.get(endpoint, url, ttls.get(endpoint), () -> guarded(endpoint, url, responseType, timeout))
+                .onErrorResume(EndpointGuard.Rejected.class, e -> lastGood(endpoint, url, e));
+    }
+
+    private <T> Mono<T> guarded(String endpoint, String url, Class<T> responseType, Duration timeout) {
+        EndpointGuard guard = guards.get(endpoint);
+        Mono<T> attempt = Mono.defer(() -> {
+            long wait = guard.reserve(timeout);
+            if (wait < 0) return Mono.error(new EndpointGuard.Rejected(endpoint, "rate limited"));
+            Mono<T> exchange = exchange(endpoint, url, responseType, timeout);
+            return wait == 0 ? exchange : Mono.delay(Duration.ofNanos(wait)).then(exchange);
+        });
+        return Mono.defer(() -> {
+            if (!guard.tryAcquire()) return Mono.error(new EndpointGuard.Rejected(endpoint, "circuit open"));
+            long start = System.nanoTime();
+            return attempt
+                    .retryWhen(Retry.backoff(resilience.retries(), Duration.ofMillis(resilience.backoffMinMillis()))
+                            .maxBackoff(Duration.ofMillis(resilience.backoffMaxMillis()))
+                            .jitter(0.5)
+                            .filter(SternApiClient::isTransient)
+                            .doBeforeRetry(signal -> meterRegistry.counter("stern.api.backoff.retries", "endpoint", endpoint).increment())
+                            .doBeforeRetry(signal -> log.info("Stern {} failed with {}, backing off before retry {}/{}",
+                                    endpoint, outcome(signal.failure()), signal.totalRetries() + 1, resilience.retries()))
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .doOnSuccess(value -> {
+                        guard.succeeded();
+                        recordRequest(endpoint, value != null ? "success" : "empty", start);
+                    })
+                    .doOnError(e -> {
+                        if (isTransient(e)) guard.failed();
+                        else guard.abandoned();
+                        recordRequest(endpoint, outcome(e), start);
+                    })
+                    .doOnCancel(guard::abandoned);
+        });
+    }
+
+    private <T> Mono<T> lastGood(String endpoint, String url, EndpointGuard.Rejected rejection) {
+        T value = fingerprints.lastGood(url);
+        if (value == null) return Mono.error(rejection);
+        log.debug("{}, serving the last good response for {}", rejection.getMessage(), url);
+        return Mono.just(value);
+    }
+
+    /**
+     * Whether the circuit breaker of any endpoint the board refresh calls is open or half open, so
+     * its data may be served from earlier responses rather than fresh from Stern. The regional
+     * leaderboard endpoints do not count.
+     */
+    public boolean isDegraded() {
+        return REFRESH_ENDPOINTS.stream()
+                .anyMatch(endpoint -> guards.get(endpoint).state() != EndpointGuard.State.CLOSED);
+    }
+
+    private <T> Mono<T> exchange(String endpoint, String url, Class<T> responseType, Duration timeout) {
+        return Mono.fromFuture(authService::credentialsAsync)
+                .switchIfEmpty(Mono.fromRunnable(() -> log.error("Authentication failed, cannot fetch {}", url)))
+                .flatMap(credentials -> webClient.get()
+                        .uri(url)
+                        .header("Cookie", credentials.cookies() != null ? credentials.cookies() : "")
+                        .header("Location", locationHeader)
+                        .headers(headers -> {
+                            // A session without a token cookie is carried by its other cookies
+                            if (credentials.token() != null) headers.setBearerAuth(credentials.token());
+                            String etag = fingerprints.etag(url);
+                            if (etag != null) headers.setIfNoneMatch(etag);
+                        })
+                        .exchangeToMono(response -> {
+                            if (response.statusCode().value() == 304) {
+                                return Mono.justOrEmpty(fingerprints.<T>notModified(endpoint, url));
+                            }
+                            if (response.statusCode().isError()) {
+                                return response.<T>createError();
+                            }
+                            String etag = response.headers().asHttpHeaders().getETag();
+                            return response.bodyToMono(byte[].class)
+                                    .map(body -> bind(endpoint, url, etag, body, responseType));
+                        })
+                        .onErrorResume(SternApiClient::isAuthFailure, e ->
+                                Mono.fromFuture(() -> authService.reauthenticate(credentials))
+                                        .then(Mono.error(e))))
+                .retryWhen(Retry.max(MAX_RETRIES)
+                        .filter(SternApiClient::isAuthFailure)
+                        .doBeforeRetry(signal -> meterRegistry.counter("stern.api.retries", "endpoint", endpoint).increment())
+                        .doBeforeRetry(signal -> log.info("Received {} from Stern API, retrying with renewed auth ({}/{})",
+                                ((WebClientResponseException) signal.failure()).getStatusCode().value(),
+                                signal.totalRetries() + 1, MAX_RETRIES))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .timeout(timeout)
+                .doOnError(WebClientResponseException.class, e ->
+                        log.error("Stern API error for {}: {} {}", url, e.getStatusCode(), e.getMessage()));
+    }
+
+    private <T> T bind(String endpoint, String url, String etag, byte[] body, Class<T> responseType) {
+        T unchanged = fingerprints.unchanged(endpoint, url, body);
+        if (unchanged != null) return unchanged;
+        T value = jsonMapper.readValue(body, responseType);
+        fingerprints.store(url, etag, body, value);
+        return value;
+    }
+
+    private void recordRequest(String endpoint, String outcome, long startNanos) {
+        Timer.builder("stern.api.requests")
+                .description("Stern API exchanges including auth retries")
+                .tags("endpoint", endpoint, "outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof TimeoutException) return "timeout";
+        if (e instanceof EndpointGuard.Rejected) return "rejected";
+        if (e instanceof WebClientResponseException w) {
+            return w.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
         }
+        return "error";
+    }
+
+    /**
+     * Failures worth retrying after a pause: timeouts, connection errors, 429 and 5xx responses.
+     */
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof TimeoutException || e instanceof WebClientRequestException) return true;
+        return e instanceof WebClientResponseException w
+                && (w.getStatusCode().is5xxServerError() || w.getStatusCode().value() == 429);
+    }
+
+    private static boolean isAuthFailure(Throwable e) {
+        return e instanceof WebClientResponseException w
+                && (w.getStatusCode().value() == 401 || w.getStatusCode().value() == 403);
     }
 
     private static String buildLocationHeader(LeaderboardProperties props) {
@@ -1,151 +1,328 @@
 package com.infraleap.leaderboards.stern.service;
 
 import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.reactive.function.client.WebClient;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@Service
+/**
+ * Holds the Stern Insider session. Reads of the current credentials are lock-free; renewals
+ * are single-flight, so any number of callers that find the token expired or rejected share
+ * one in-flight request. Renewal first presents the {@code spb-insider-refresh-token} cookie
+ * and falls back to a full login, and is scheduled ahead of expiry so fetches rarely wait.
+ */
 public class SternAuthService {
 
     private static final Logger log = LoggerFactory.getLogger(SternAuthService.class);
-    private static final String LOGIN_URL = "https://insider.sternpinball.com/login";
+    private static final String USER_AGENT = "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:142.0) Gecko/20100101 Firefox/142.0";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
     private static final Duration AUTH_EXPIRY = Duration.ofMinutes(30);
+    private static final Duration RENEW_BEFORE_EXPIRY = Duration.ofMinutes(5);
+    private static final Duration MIN_RENEW_DELAY = Duration.ofSeconds(30);
+    private static final Duration RENEW_RETRY_DELAY = Duration.ofMinutes(1);
     private static final Pattern TOKEN_PATTERN = Pattern.compile("spb-insider-token=([^;]+)");
+    private static final Pattern REFRESH_TOKEN_PATTERN = Pattern.compile("spb-insider-refresh-token=([^;]+)");
+    private static final Pattern JWT_EXP_PATTERN = Pattern.compile("\"exp\"\\s*:\\s*(\\d+)");
 
     private final LeaderboardProperties props;
-    private final HttpClient httpClient;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+    private final WebClient webClient;
+    private final String insiderUrl;
+    private final AtomicReference<CompletableFuture<Credentials>> inFlight = new AtomicReference<>();
+    private final AtomicReference<ScheduledFuture<?>> scheduledRenewal = new AtomicReference<>();
 
-    private volatile String token;
-    private volatile String cookies;
-    private volatile Instant lastAuthTime;
+    private volatile Credentials credentials;
 
-    public SternAuthService(LeaderboardProperties props) {
+    public SternAuthService(LeaderboardProperties props, TaskScheduler taskScheduler, SternHttpTransport transport,
+                            MeterRegistry meterRegistry) {
         this.props = props;
-        this.httpClient = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NEVER)
-                .connectTimeout(Duration.ofSeconds(15))
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.insiderUrl = props.api().insiderUrl();
+        this.webClient = WebClient.builder()
+                .clientConnector(transport.connector())
+                .defaultHeader("User-Agent", USER_AGENT)
                 .build();
     }
 
-    public synchronized boolean login() {
+    public void cancelRenewal() {
+        ScheduledFuture<?> pending = scheduledRenewal.getAndSet(null);
+        if (pending != null) pending.cancel(false);
+    }
+
+    /**
+     * Completes with the current credentials, renewing first if they are missing or expired.
+     * Completes with {@code null} when authentication fails.
+     */
+    public CompletableFuture<Credentials> credentialsAsync() {
+        Credentials current = credentials;
+        if (current != null && !current.isExpired()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return renew();
+    }
+
+    /**
+     * Called when the API rejected {@code rejected}. Renews only if those are still the current
+     * credentials; when another request has already renewed them the newer ones are returned,
+     * so a burst of 401s costs a single re-authentication.
+     */
+    public CompletableFuture<Credentials> reauthenticate(Credentials rejected) {
+        meterRegistry.counter("stern.auth.rejections").increment();
+        Credentials current = credentials;
+        if (current != null && current != rejected && !current.isExpired()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return renew();
+    }
+
+    private CompletableFuture<Credentials> renew() {
+        CompletableFuture<Credentials> mine = new CompletableFuture<>();
+        CompletableFuture<Credentials> existing = inFlight.compareAndExchange(null, mine);
+        if (existing != null) return existing;
+
+        Credentials previous = credentials;
+        refreshAsync(previous)
+                .thenCompose(refreshed -> refreshed != null
+                        ? CompletableFuture.completedFuture(refreshed) : loginAsync())
+                .whenComplete((renewed, e) -> {
+                    if (e != null) log.error("Stern authentication error", e);
+                    if (renewed != null) {
+                        credentials = renewed;
+                        scheduleRenewal(renewed.expiresAt());
+                    }
+                    inFlight.set(null);
+                    mine.complete(e == null ? renewed : null);
+                });
+        return mine;
+    }
+
+    private void scheduleRenewal(Instant expiresAt) {
+        Instant at = expiresAt.minus(RENEW_BEFORE_EXPIRY);
+        Instant earliest = Instant.now().plus(MIN_RENEW_DELAY);
+        if (at.isBefore(earliest)) at = earliest;
+        ScheduledFuture<?> previous = scheduledRenewal.getAndSet(taskScheduler.schedule(this::renewAhead, at));
+        if (previous != null) previous.cancel(false);
+        log.debug("Next Stern token renewal at {}", at);
+    }
+
+    private void renewAhead() {
+        renew().thenAccept(renewed -> {
+            if (renewed != null) return;
+            Credentials current = credentials;
+            if (current != null && !current.isExpired()) {
+                Instant retryAt = Instant.now().plus(RENEW_RETRY_DELAY);
+                log.warn("Proactive Stern token renewal failed, retrying at {}", retryAt);
+                ScheduledFuture<?> previous = scheduledRenewal.getAndSet(taskScheduler.schedule(this::renewAhead, retryAt));
+                if (previous != null) previous.cancel(false);
+            } else {
+                log.warn("Proactive Stern token renewal failed, will retry on next request");
+            }
+        });
+    }
+
+    /**
+     * Presents the refresh-token cookie to the Insider site, which re-issues the session cookies
+     * when the refresh token is still valid. Completes with {@code null} when there is nothing to
+     * refresh or no new token came back, so the caller falls back to a full login.
+     */
+    private CompletableFuture<Credentials> refreshAsync(Credentials previous) {
+        if (previous == null || previous.cookies() == null
+                || !REFRESH_TOKEN_PATTERN.matcher(previous.cookies()).find()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return webClient.get()
+                .uri(insiderUrl + "/")
+                .header("Accept", "text/html")
+                .header("Cookie", previous.cookies())
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(new LoginResponse(response.statusCode().value(),
+                                response.headers().header("Set-Cookie"), null)))
+                .timeout(REQUEST_TIMEOUT)
+                .toFuture()
+                .thenApply(response -> {
+                    List<String> setCookies = response.setCookies();
+                    String token = extractToken(setCookies);
+                    countRenewal("refresh", token != null);
+                    if (token == null) {
+                        log.info("Stern token refresh returned no new token (status {}), logging in",
+                                response.status());
+                        return null;
+                    }
+                    log.info("Stern token refreshed");
+                    return newCredentials(token, mergeCookies(previous.cookies(), setCookies));
+                })
+                .exceptionally(e -> {
+                    countRenewal("refresh", false);
+                    log.warn("Stern token refresh failed, logging in: {}", e.getMessage());
+                    return null;
+                });
+    }
+
+    private CompletableFuture<Credentials> loginAsync() {
         String username = props.sternUsername();
         String password = props.sternPassword();
         if (username == null || username.isBlank() || password == null || password.isBlank()) {
             log.error("STERN_USERNAME and STERN_PASSWORD must be configured");
-            return false;
+            return CompletableFuture.completedFuture(null);
         }
 
-        try {
-            String body = "[\"" + escapeJson(username) + "\",\"" + escapeJson(password) + "\"]";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(LOGIN_URL))
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .header("User-Agent", "Mozilla/5.0 (X11; Ubuntu; Linux x86_64; rv:142.0) Gecko/20100101 Firefox/142.0")
-                    .header("Accept", "text/x-component")
-                    .header("Accept-Language", "en-US,en;q=0.5")
-                    .header("Referer", "https://insider.sternpinball.com/login")
-                    .header("Next-Action", "9d2cf818afff9e2c69368771b521d93585a10433")
-                    .header("Next-Router-State-Tree", "%5B%22%22%2C%7B%22children%22%3A%5B%22login%22%2C%7B%22children%22%3A%5B%22__PAGE__%22%2C%7B%7D%2C%22%2Flogin%22%2C%22refresh%22%5D%7D%5D%7D%2Cnull%2Cnull%2Ctrue%5D")
-                    .header("Content-Type", "text/plain;charset=UTF-8")
-                    .header("Origin", "https://insider.sternpinball.com")
-                    .header("DNT", "1")
-                    .header("Sec-GPC", "1")
-                    .header("Sec-Fetch-Dest", "empty")
-                    .header("Sec-Fetch-Mode", "cors")
-                    .header("Sec-Fetch-Site", "same-origin")
-                    .header("Pragma", "no-cache")
-                    .header("Cache-Control", "no-cache")
-                    .timeout(Duration.ofSeconds(30))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            // Extract token from Set-Cookie headers
-            String extractedToken = null;
-            StringBuilder cookieBuilder = new StringBuilder();
-            for (String setCookie : response.headers().allValues("set-cookie")) {
-                if (cookieBuilder.length() > 0) cookieBuilder.append("; ");
-                cookieBuilder.append(setCookie.split(";")[0]);
-                Matcher m = TOKEN_PATTERN.matcher(setCookie);
-                if (m.find()) {
-                    extractedToken = m.group(1);
-                }
-            }
+        String body = "[\"" + escapeJson(username) + "\",\"" + escapeJson(password) + "\"]";
+
+        return webClient.post()
+                .uri(insiderUrl + "/login")
+                .header("Accept", "text/x-component")
+                .header("Accept-Language", "en-US,en;q=0.5")
+                .header("Referer", "https://insider.sternpinball.com/login")
+                .header("Next-Action", "9d2cf818afff9e2c69368771b521d93585a10433")
+                .header("Next-Router-State-Tree", "%5B%22%22%2C%7B%22children%22%3A%5B%22login%22%2C%7B%22children%22%3A%5B%22__PAGE__%22%2C%7B%7D%2C%22%2Flogin%22%2C%22refresh%22%5D%7D%5D%7D%2Cnull%2Cnull%2Ctrue%5D")
+                .header("Content-Type", "text/plain;charset=UTF-8")
+                .header("Origin", "https://insider.sternpinball.com")
+                .header("DNT", "1")
+                .header("Sec-GPC", "1")
+                .header("Sec-Fetch-Dest", "empty")
+                .header("Sec-Fetch-Mode", "cors")
+                .header("Sec-Fetch-Site", "same-origin")
+                .bodyValue(body)
+                .exchangeToMono(response -> response.bodyToMono(String.class)
+                        .defaultIfEmpty("")
+                        .map(text -> new LoginResponse(response.statusCode().value(),
+                                response.headers().header("Set-Cookie"), text)))
+                .timeout(REQUEST_TIMEOUT)
+                .toFuture()
+                .thenApply(this::handleLoginResponse)
+                .whenComplete((renewed, e) -> countRenewal("login", renewed != null))
+                .exceptionally(e -> {
+                    log.error("Stern login error", e);
+                    return null;
+                });
+    }
+
+    private Credentials handleLoginResponse(LoginResponse response) {
+        // Extract token from Set-Cookie headers
+        List<String> setCookies = response.setCookies();
+        String extractedToken = extractToken(setCookies);
 
-            // Check for authentication success in response body
-            boolean authenticated = false;
-            String responseBody = response.body();
-            if (responseBody != null) {
-                for (String line : responseBody.split("\n")) {
-                    if (line.contains("\"authenticated\"")) {
-                        if (line.contains("\"authenticated\":true") || line.contains("\"authenticated\": true")) {
-                            authenticated = true;
-                            break;
-                        }
+        // Check for authentication success in response body
+        boolean authenticated = false;
+        String responseBody = response.body();
+        if (responseBody != null) {
+            for (String line : responseBody.split("\n")) {
+                if (line.contains("\"authenticated\"")) {
+                    if (line.contains("\"authenticated\":true") || line.contains("\"authenticated\": true")) {
+                        authenticated = true;
+                        break;
                     }
                 }
             }
+        }
 
-            if (response.statusCode() == 200 && (authenticated || extractedToken != null)) {
-                this.token = extractedToken;
-                this.cookies = cookieBuilder.toString();
-                this.lastAuthTime = Instant.now();
-                log.info("Stern authentication successful");
-                return true;
-            } else if (response.statusCode() == 303 || response.statusCode() == 302) {
-                // Stern may redirect on success — check for token in cookies regardless
-                if (extractedToken != null) {
-                    this.token = extractedToken;
-                    this.cookies = cookieBuilder.toString();
-                    this.lastAuthTime = Instant.now();
-                    log.info("Stern authentication successful via redirect (status {})", response.statusCode());
-                    return true;
-                }
-                log.error("Stern authentication redirect but no token - status: {}", response.statusCode());
-                return false;
-            } else {
-                log.error("Stern authentication failed - status: {}, authenticated: {}, hasToken: {}",
-                        response.statusCode(), authenticated, extractedToken != null);
-                return false;
+        if (response.status() == 200 && (authenticated || extractedToken != null)) {
+            log.info("Stern authentication successful");
+            return newCredentials(extractedToken, mergeCookies(null, setCookies));
+        } else if (response.status() == 303 || response.status() == 302) {
+            // Stern may redirect on success — check for token in cookies regardless
+            if (extractedToken != null) {
+                log.info("Stern authentication successful via redirect (status {})", response.status());
+                return newCredentials(extractedToken, mergeCookies(null, setCookies));
             }
-        } catch (Exception e) {
-            log.error("Stern login error", e);
-            return false;
+            log.error("Stern authentication redirect but no token - status: {}", response.status());
+            return null;
+        } else {
+            log.error("Stern authentication failed - status: {}, authenticated: {}, hasToken: {}",
+                    response.status(), authenticated, extractedToken != null);
+            return null;
         }
     }
 
-    public boolean isExpired() {
-        return lastAuthTime == null || Instant.now().isAfter(lastAuthTime.plus(AUTH_EXPIRY));
+    private void countRenewal(String method, boolean success) {
+        meterRegistry.counter("stern.auth.renewals",
+                "method", method, "outcome", success ? "success" : "failure").increment();
     }
 
-    public synchronized void refreshIfNeeded() {
-        if (isExpired()) {
-            login();
+    private static String extractToken(List<String> setCookies) {
+        String token = null;
+        for (String setCookie : setCookies) {
+            Matcher m = TOKEN_PATTERN.matcher(setCookie);
+            if (m.find()) {
+                token = m.group(1);
+            }
         }
+        return token;
     }
 
-    public String getToken() {
-        refreshIfNeeded();
-        return token;
+    /**
+     * Applies {@code Set-Cookie} values on top of an existing {@code Cookie} header value, keeping
+     * cookies the response did not touch (such as an unchanged refresh token).
+     */
+    private static String mergeCookies(String existing, List<String> setCookies) {
+        Map<String, String> cookies = new LinkedHashMap<>();
+        if (existing != null) {
+            for (String pair : existing.split("; ")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) cookies.put(pair.substring(0, eq), pair);
+            }
+        }
+        for (String setCookie : setCookies) {
+            String pair = setCookie.split(";")[0];
+            int eq = pair.indexOf('=');
+            if (eq > 0) cookies.put(pair.substring(0, eq), pair);
+        }
+        return String.join("; ", cookies.values());
     }
 
-    public String getCookies() {
-        refreshIfNeeded();
-        return cookies;
+    private static Credentials newCredentials(String token, String cookies) {
+        return new Credentials(token, cookies, expiryOf(token, Instant.now()));
+    }
+
+    /**
+     * The {@code exp} claim when the token is a JWT that carries one, otherwise
+     * {@link #AUTH_EXPIRY} after issue.
+     */
+    static Instant expiryOf(String token, Instant issuedAt) {
+        Instant fallback = issuedAt.plus(AUTH_EXPIRY);
+        if (token == null) return fallback;
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) return fallback;
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            Matcher m = JWT_EXP_PATTERN.matcher(payload);
+            return m.find() ? Instant.ofEpochSecond(Long.parseLong(m.group(1))) : fallback;
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
     }
 
     private static String escapeJson(String s) {
         return s.replace("\\", "\\\\").replace("\"", "\\\"");
     }
+
+    private record LoginResponse(int status, List<String> setCookies, String body) {}
+
+    /**
+     * @param token     the {@code spb-insider-token} cookie value, or {@code null} when the login
+     *                  succeeded without setting one; such a session is kept for the fallback expiry
+     * @param expiresAt when to stop using these credentials; see {@link #expiryOf}
+     */
+    public record Credentials(String token, String cookies, Instant expiresAt) {
+        public boolean isExpired() {
+            return !Instant.now().isBefore(expiresAt);
+        }
+    }
 }
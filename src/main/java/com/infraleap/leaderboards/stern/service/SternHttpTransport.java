@@ -0,0 +1,130 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The one HTTP connection pool shared by every tenant's {@link SternAuthService} and {@link SternApiClient}.
+ * Connections are kept alive and reused across a refresh, HTTP/2 is negotiated via ALPN when
+ * the server offers it, and gzip (plus br when Brotli is available) responses are decoded.
+ * Redirects are not followed, which the login flow relies on. Each per-host pool is exposed as
+ * {@code stern.http.pool.*} gauges tagged with the remote address.
+ */
+@Component
+public class SternHttpTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(SternHttpTransport.class);
+
+    private final ConnectionProvider connectionProvider;
+    private final ClientHttpConnector connector;
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> poolMeters = new ConcurrentHashMap<>();
+
+    public SternHttpTransport(LeaderboardProperties props, MeterRegistry meterRegistry) {
+        LeaderboardProperties.Http http = props.http();
+        this.connectionProvider = ConnectionProvider.builder("stern")
+                .maxConnections(http.maxConnections())
+                .pendingAcquireTimeout(Duration.ofSeconds(http.pendingAcquireTimeoutSeconds()))
+                .maxIdleTime(Duration.ofSeconds(http.maxIdleSeconds()))
+                .evictInBackground(Duration.ofSeconds(http.maxIdleSeconds()))
+                .metrics(true, () -> new ConnectionProvider.MeterRegistrar() {
+                    @Override
+                    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+                                                ConnectionPoolMetrics metrics) {
+                        log.debug("Opened connection pool to {}", remoteAddress);
+                        String remote = String.valueOf(remoteAddress);
+                        pools.put(remote, metrics);
+                        poolMeters.put(remote, List.of(
+                                poolGauge(meterRegistry, "active", remote, metrics, ConnectionPoolMetrics::acquiredSize),
+                                poolGauge(meterRegistry, "idle", remote, metrics, ConnectionPoolMetrics::idleSize),
+                                poolGauge(meterRegistry, "pending", remote, metrics, ConnectionPoolMetrics::pendingAcquireSize),
+                                poolGauge(meterRegistry, "max", remote, metrics, ConnectionPoolMetrics::maxAllocatedSize)));
+                    }
+
+                    @Override
+                    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+                        String remote = String.valueOf(remoteAddress);
+                        pools.remove(remote);
+                        List<Meter> meters = poolMeters.remove(remote);
+                        if (meters != null) meters.forEach(meterRegistry::remove);
+                    }
+                })
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(http.http2()
+                        ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, http.connectTimeoutSeconds() * 1000)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofSeconds(http.responseTimeoutSeconds()))
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(http.readTimeoutSeconds(), TimeUnit.SECONDS)))
+                .compress(true)
+                .headers(headers -> headers.set(HttpHeaderNames.ACCEPT_ENCODING,
+                        Brotli.isAvailable() ? "br, gzip" : "gzip"))
+                .followRedirect(false);
+        this.connector = new ReactorClientHttpConnector(httpClient);
+
+        log.info("Stern HTTP transport: max {} connections, {}s idle keep-alive, protocols {}, brotli {}",
+                http.maxConnections(), http.maxIdleSeconds(),
+                http.http2() ? "h2, http/1.1" : "http/1.1", Brotli.isAvailable() ? "on" : "off");
+    }
+
+    public ClientHttpConnector connector() {
+        return connector;
+    }
+
+    /**
+     * Current state of each per-host pool.
+     */
+    public List<PoolStats> poolStats() {
+        return pools.entrySet().stream()
+                .map(e -> new PoolStats(e.getKey(), e.getValue().acquiredSize(), e.getValue().idleSize(),
+                        e.getValue().pendingAcquireSize(), e.getValue().maxAllocatedSize()))
+                .toList();
+    }
+
+    private static Meter poolGauge(MeterRegistry meterRegistry, String state, String remote,
+                                   ConnectionPoolMetrics metrics, ToDoubleFunction<ConnectionPoolMetrics> value) {
+        return Gauge.builder("stern.http.pool." + state, metrics, value)
+                .tag("remote", remote)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void dispose() {
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    public record PoolStats(String remote, int active, int idle, int pending, int max) {
+        @Override
+        public String toString() {
+            return remote + " [active " + active + ", idle " + idle + ", pending " + pending + ", max " + max + "]";
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.infraleap.leaderboards.tenant;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.regional.RegionalLeaderboardService;
+import com.infraleap.leaderboards.regional.RegionalStore;
+import com.infraleap.leaderboards.stern.journal.ScoreJournal;
+import com.infraleap.leaderboards.stern.service.FanOutFetcher;
+import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
+import com.infraleap.leaderboards.stern.service.ResponseFingerprintCache;
+import com.infraleap.leaderboards.stern.service.SnapshotStore;
+import com.infraleap.leaderboards.stern.service.StaleWhileRevalidateCache;
+import com.infraleap.leaderboards.stern.service.SternApiClient;
+import com.infraleap.leaderboards.stern.service.SternAuthService;
+import com.infraleap.leaderboards.stern.service.SternHttpTransport;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One Stern account and everything that holds state for it: the session, API client, response
+ * caches, snapshot file, journal, regional
+ * leaderboards, broadcaster and data service. The HTTP transport, task scheduler
+ * and image proxy are shared with the other tenants. Meters registered by the tenant's components
+ * carry a {@code tenant} tag.
+ */
+public final class Tenant {
+
+    /** The tenant of the top-level {@code leaderboards.stern-*} credentials, served at {@code /}. */
+    public static final String DEFAULT_ID = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(Tenant.class);
+
+    private final String id;
+    private final MeterRegistry meterRegistry;
+    private final SternAuthService authService;
+    private final ScoreJournal scoreJournal;
+    private final LeaderboardBroadcaster broadcaster;
+    private final LeaderboardDataService dataService;
+    private final RegionalLeaderboardService regional;
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
+    Tenant(String id, LeaderboardProperties props, SternHttpTransport transport, TaskScheduler taskScheduler,
+           JsonMapper jsonMapper, ImageUrls imageUrls, MeterRegistry meterRegistry) {
+        this.id = id;
+        CompositeMeterRegistry tagged = new CompositeMeterRegistry();
+        tagged.config().commonTags("tenant", id);
+        tagged.add(meterRegistry);
+        this.meterRegistry = tagged;
+        this.authService = new SternAuthService(props, taskScheduler, transport, tagged);
+        FanOutFetcher fanOutFetcher = new FanOutFetcher(transport, tagged, props);
+        SternApiClient apiClient = new SternApiClient(authService, fanOutFetcher,
+                new ResponseFingerprintCache(tagged), new StaleWhileRevalidateCache(props.cache(), tagged),
+                jsonMapper, transport, tagged, props);
+        this.scoreJournal = new ScoreJournal(props);
+        this.broadcaster = new LeaderboardBroadcaster(props, tagged);
+        RegionalStore regionalStore = new RegionalStore(props.regional().depth());
+        this.dataService = new LeaderboardDataService(apiClient, fanOutFetcher, broadcaster,
+                new SnapshotStore(props), scoreJournal, regionalStore, imageUrls, tagged, props);
+        this.regional = new RegionalLeaderboardService(apiClient, regionalStore, dataService, tagged, props);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public boolean isDefault() {
+        return DEFAULT_ID.equals(id);
+    }
+
+    /**
+     * The path the tenant's pages live under, relative to the context root: empty for the
+     * default tenant, {@code t/<id>/} for the others.
+     */
+    public String routePrefix() {
+        return isDefault() ? "" : "t/" + id + "/";
+    }
+
+    /**
+     * The route of the tenant's board: empty for the default tenant, {@code t/<id>} for the others.
+     */
+    public String homeRoute() {
+        return isDefault() ? "" : "t/" + id;
+    }
+
+    public LeaderboardDataService dataService() {
+        return dataService;
+    }
+
+    public ScoreJournal scoreJournal() {
+        return scoreJournal;
+    }
+
+    public RegionalLeaderboardService regional() {
+        return regional;
+    }
+
+    public LeaderboardBroadcaster broadcaster() {
+        return broadcaster;
+    }
+
+    /**
+     * Registers meters with the {@code tenant} tag added.
+     */
+    public MeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    void start() {
+        scoreJournal.open();
+        dataService.init();
+    }
+
+    void compactJournal() {
+        scoreJournal.compact();
+    }
+
+    void stop() {
+        authService.cancelRenewal();
+        broadcaster.shutdown();
+        scoreJournal.close();
+    }
+
+    /**
+     * Runs {@code work} on a virtual thread, so a tenant whose calls hang only holds up itself,
+     * unless the previous run of the same {@code task} is still going.
+     */
+    void runExclusive(String task, Runnable work) {
+        AtomicBoolean busy = running.computeIfAbsent(task, t -> new AtomicBoolean());
+        if (!busy.compareAndSet(false, true)) {
+            log.debug("Tenant {}: previous {} still running, skipping this cycle", id, task);
+            return;
+        }
+        Thread.ofVirtual().name("tenant-" + id + "-" + task).start(() -> {
+            try {
+                work.run();
+            } catch (RuntimeException e) {
+                log.error("Tenant {}: {} failed", id, task, e);
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
@@ -0,0 +1,166 @@
+package com.infraleap.leaderboards.tenant;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.stern.service.SternHttpTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * The tenants: the {@link Tenant#DEFAULT_ID default} one for the top-level credentials plus one
+ * per {@code leaderboards.tenants.<id>} entry. The default tenant is left out when the top-level
+ * credentials are blank and other tenants are configured. Starts them, and spreads each kind of periodic
+ * work evenly over its interval, so with {@code n} tenants one of them refreshes every
+ * {@code interval / n} instead of all of them hitting Stern and the shared transport at once.
+ * Every run happens on its own virtual thread, so a tenant that fails or hangs does not hold up
+ * the others or the scheduler. In a cluster only the leader polls Stern; until
+ * {@link #startPolling()} the scheduled refreshes and activity polls are skipped.
+ */
+@Component
+public class TenantRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRegistry.class);
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,62}");
+    private static final Duration COMPACTION_DELAY = Duration.ofHours(1);
+    private static final Duration COMPACTION_INTERVAL = Duration.ofHours(6);
+    private static final Duration REGIONAL_DELAY = Duration.ofMinutes(1);
+
+    private final Map<String, Tenant> tenants;
+    private final TaskScheduler taskScheduler;
+    private final LeaderboardProperties props;
+    private final List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+    private volatile boolean polling;
+
+    public TenantRegistry(LeaderboardProperties props, SternHttpTransport transport, TaskScheduler taskScheduler,
+                          JsonMapper jsonMapper, ImageUrls imageUrls, MeterRegistry meterRegistry) {
+        this.taskScheduler = taskScheduler;
+        this.props = props;
+        Map<String, Tenant> byId = new LinkedHashMap<>();
+        if (hasCredentials(props) || props.tenants().isEmpty()) {
+            byId.put(Tenant.DEFAULT_ID, new Tenant(Tenant.DEFAULT_ID, props, transport, taskScheduler,
+                    jsonMapper, imageUrls, meterRegistry));
+        } else {
+            log.info("No top-level Stern credentials, serving only the tenants under /t/<tenant>");
+        }
+        props.tenants().forEach((id, account) -> {
+            if (!TENANT_ID.matcher(id).matches() || id.equals(Tenant.DEFAULT_ID) || byId.containsKey(id)) {
+                throw new IllegalArgumentException("Invalid tenant id '" + id
+                        + "': use lowercase letters, digits and dashes, and not '" + Tenant.DEFAULT_ID + "'");
+            }
+            byId.put(id, new Tenant(id, props.forTenant(id, account), transport, taskScheduler,
+                    jsonMapper, imageUrls, meterRegistry));
+        });
+        this.tenants = Collections.unmodifiableMap(byId);
+        this.polling = !props.cluster().enabled();
+    }
+
+    @PostConstruct
+    void start() {
+        for (Tenant tenant : tenants.values()) {
+            try {
+                tenant.start();
+            } catch (RuntimeException e) {
+                log.error("Tenant {} failed to start, its refreshes will keep retrying", tenant, e);
+            }
+        }
+        if (polling) refreshAll();
+        Duration refresh = Duration.ofMinutes(props.dataRefreshMinutes());
+        spread("refresh", refresh, refresh, tenant -> {
+            if (polling) tenant.dataService().scheduledRefresh();
+        });
+        if (props.activityPollSeconds() > 0) {
+            Duration poll = Duration.ofSeconds(props.activityPollSeconds());
+            spread("activity poll", poll, poll, tenant -> {
+                if (polling) tenant.dataService().pollActivity();
+            });
+        }
+        if (props.regional().enabled()) {
+            spread("regional refresh", REGIONAL_DELAY, Duration.ofMinutes(props.regional().refreshMinutes()), tenant -> {
+                if (polling) tenant.regional().refresh();
+            });
+        }
+        spread("journal compaction", COMPACTION_DELAY, COMPACTION_INTERVAL, Tenant::compactJournal);
+        if (tenants.size() > 1) {
+            log.info("Serving {} tenants: {}", tenants.size(), tenants.keySet());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduled.forEach(task -> task.cancel(false));
+        tenants.values().forEach(Tenant::stop);
+    }
+
+    /**
+     * Makes this instance the one that polls Stern, starting with an immediate refresh of every tenant.
+     */
+    public void startPolling() {
+        polling = true;
+        refreshAll();
+    }
+
+    public boolean isPolling() {
+        return polling;
+    }
+
+    private void refreshAll() {
+        for (Tenant tenant : tenants.values()) {
+            tenant.runExclusive("refresh", () -> tenant.dataService().scheduledRefresh());
+        }
+    }
+
+    /**
+     * Schedules {@code work} for every tenant every {@code interval}, the first run after
+     * {@code delay}, with tenant {@code i} of {@code n} offset by {@code i / n} of the interval.
+     */
+    private void spread(String task, Duration delay, Duration interval, Consumer<Tenant> work) {
+        Instant first = Instant.now().plus(delay);
+        int i = 0;
+        for (Tenant tenant : tenants.values()) {
+            Duration offset = interval.multipliedBy(i++).dividedBy(tenants.size());
+            scheduled.add(taskScheduler.scheduleAtFixedRate(() -> tenant.runExclusive(task, () -> work.accept(tenant)),
+                    first.plus(offset), interval));
+        }
+    }
+
+    /**
+     * The tenant of the top-level credentials, or {@code null} if there are none.
+     */
+    public Tenant defaultTenant() {
+        return tenants.get(Tenant.DEFAULT_ID);
+    }
+
+    /**
+     * The tenant with the given id, or {@code null} if there is none.
+     */
+    public Tenant find(String id) {
+        return id != null ? tenants.get(id) : null;
+    }
+
+    public Collection<Tenant> all() {
+        return tenants.values();
+    }
+
+    private static boolean hasCredentials(LeaderboardProperties props) {
+        return (props.sternUsername() != null && !props.sternUsername().isBlank())
+                || (props.sternPassword() != null && !props.sternPassword().isBlank());
+    }
+}
@@ -1,91 +1,122 @@
 package com.infraleap.leaderboards.ui;
 
-import com.infraleap.leaderboards.stern.domain.Machine;
-import com.infraleap.leaderboards.stern.domain.MachineTitle;
-import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
-import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import com.infraleap.leaderboards.ui.broadcast.UiDelivery;
 import com.infraleap.leaderboards.ui.component.HighScoresTable;
+import com.infraleap.leaderboards.ui.component.RegionalPanel;
 import com.infraleap.leaderboards.ui.component.TechAlertsPopup;
+import com.infraleap.leaderboards.ui.model.MachineView;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
-import com.vaadin.flow.router.BeforeEvent;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.HasDynamicTitle;
-import com.vaadin.flow.router.HasUrlParameter;
+import com.vaadin.flow.router.NotFoundException;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
 import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.Optional;
 
-@Route("fullscreen")
-public class FullscreenView extends Div implements HasUrlParameter<Long>, HasDynamicTitle {
+/**
+ * One machine of one tenant, full screen: {@code /fullscreen/<id>} for the default tenant,
+ * {@code /t/<tenant>/fullscreen/<id>} for the others.
+ */
+@Route("fullscreen/:machineId([0-9]{1,18})")
+@RouteAlias("t/:tenant/fullscreen/:machineId([0-9]{1,18})")
+public class FullscreenView extends Div implements BeforeEnterObserver, HasDynamicTitle {
 
-    private static final DateTimeFormatter DISPLAY_FORMAT =
-            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
-
-    private final LeaderboardDataService dataService;
-    private final LeaderboardBroadcaster broadcaster;
+    private final TenantRegistry tenants;
+    private final Timer accessDelay;
     private Registration broadcasterRegistration;
+    private UI attachedUi;
+    private Tenant tenant;
     private long machineId;
     private String machineName = "Fullscreen";
 
-    public FullscreenView(LeaderboardDataService dataService, LeaderboardBroadcaster broadcaster) {
-        this.dataService = dataService;
-        this.broadcaster = broadcaster;
+    public FullscreenView(TenantRegistry tenants, MeterRegistry meterRegistry) {
+        this.tenants = tenants;
+        this.accessDelay = meterRegistry.timer("leaderboards.ui.access.delay", "view", "fullscreen");
         addClassName("fullscreen-machine");
     }
 
     @Override
-    public void setParameter(BeforeEvent event, Long parameter) {
-        this.machineId = parameter != null ? parameter : 0;
+    public void beforeEnter(BeforeEnterEvent event) {
+        Optional<String> id = event.getRouteParameters().get("tenant");
+        Tenant next = id.isPresent() ? tenants.find(id.get()) : tenants.defaultTenant();
+        if (next == null) {
+            event.rerouteToError(NotFoundException.class);
+            return;
+        }
+        boolean tenantChanged = next != tenant;
+        this.tenant = next;
+        this.machineId = event.getRouteParameters().getLong("machineId").orElse(0L);
         buildLayout();
+        if (attachedUi != null) {
+            // Navigated to another machine while attached: follow its events instead
+            subscribe(attachedUi);
+            if (tenantChanged) installEscHandler(attachedUi);
+        }
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         UI ui = attachEvent.getUI();
-        // ESC key to go back
+        installEscHandler(ui);
+        attachedUi = ui;
+        subscribe(ui);
+    }
+
+    // ESC key to go back to the tenant's board
+    private void installEscHandler(UI ui) {
         ui.getPage().executeJs(
-                "window.__fsEscHandler = function(e) { if (e.key === 'Escape') window.location.href = '/'; };" +
-                "document.addEventListener('keydown', window.__fsEscHandler);"
+                "if (window.__fsEscHandler) document.removeEventListener('keydown', window.__fsEscHandler);" +
+                "const home = new URL($0, document.baseURI).href;" +
+                "window.__fsEscHandler = function(e) { if (e.key === 'Escape') window.location.href = home; };" +
+                "document.addEventListener('keydown', window.__fsEscHandler);",
+                tenant.homeRoute()
         );
-        broadcasterRegistration = broadcaster.register(msg ->
-                ui.access(this::buildLayout));
     }
 
     @Override
     protected void onDetach(DetachEvent detachEvent) {
         if (broadcasterRegistration != null) broadcasterRegistration.remove();
+        broadcasterRegistration = null;
+        attachedUi = null;
         detachEvent.getUI().getPage().executeJs(
                 "if (window.__fsEscHandler) document.removeEventListener('keydown', window.__fsEscHandler);"
         );
     }
 
+    private void subscribe(UI ui) {
+        if (broadcasterRegistration != null) broadcasterRegistration.remove();
+        broadcasterRegistration = tenant.broadcaster().registerForMachine(machineId,
+                UiDelivery.listener(ui, accessDelay, events -> buildLayout()), UiDelivery.reloadWhenEvicted(ui));
+    }
+
     private void buildLayout() {
         removeAll();
 
-        Machine machine = dataService.getMachines().stream()
-                .filter(m -> m.safeId() == machineId)
-                .findFirst()
-                .orElse(null);
+        MachineView view = tenant.dataService().getMachineView(machineId);
 
-        if (machine == null) {
+        if (view == null) {
             add(new Span("Machine not found"));
             return;
         }
 
-        MachineTitle title = machine.model() != null ? machine.model().title() : null;
-        machineName = title != null ? title.name() : "Unknown";
+        machineName = view.name() != null ? view.name() : "Unknown";
 
         // Background
-        if (title != null && title.primaryBackground() != null && !title.primaryBackground().isBlank()) {
+        if (view.fullscreenBackgroundUrl() != null) {
             getStyle().set("background-image",
-                    "linear-gradient(rgba(0,0,0,0.8), rgba(0,0,0,0.8)), url(" + title.primaryBackground() + ")");
+                    "linear-gradient(rgba(0,0,0,0.8), rgba(0,0,0,0.8)), url(" + view.fullscreenBackgroundUrl() + ")");
             getStyle().set("background-size", "cover");
             getStyle().set("background-position", "center");
         }
@@ -97,20 +128,19 @@ public class FullscreenView extends Div implements HasUrlParameter<Long>, HasDyn
         Div header = new Div();
         header.addClassName("fullscreen-header");
 
-        String logoUrl = title != null ? title.variableWidthLogo() : null;
-        if (logoUrl == null || logoUrl.isBlank()) logoUrl = title != null ? title.squareLogo() : null;
-        if (logoUrl != null && !logoUrl.isBlank()) {
-            Image logo = new Image(logoUrl, machineName);
+        if (view.fullscreenLogoUrl() != null) {
+            Image logo = new Image(view.fullscreenLogoUrl(), machineName);
             logo.addClassName("fullscreen-game-logo");
             logo.getElement().setAttribute("title", "Click to exit fullscreen");
-            logo.addClickListener(e -> logo.getUI().ifPresent(ui -> ui.navigate("")));
+            String home = tenant.homeRoute();
+            logo.addClickListener(e -> logo.getUI().ifPresent(ui -> ui.navigate(home)));
             header.add(logo);
         }
 
-        if (machine.techAlerts() != null && !machine.techAlerts().isEmpty()) {
+        if (!view.techAlerts().isEmpty()) {
             Div statusContainer = new Div();
             statusContainer.addClassName("fullscreen-status-container");
-            statusContainer.add(new TechAlertsPopup(machine.techAlerts()));
+            statusContainer.add(new TechAlertsPopup(view.techAlerts()));
             header.add(statusContainer);
         }
         content.add(header);
@@ -120,22 +150,18 @@ public class FullscreenView extends Div implements HasUrlParameter<Long>, HasDyn
         scoresSection.addClassName("fullscreen-scores");
         Div tableContainer = new Div();
         tableContainer.addClassName("scores-table-container");
-        if (title != null && title.gradientStart() != null && title.gradientStop() != null) {
+        if (view.hasGradient()) {
             tableContainer.getStyle().set("border",
-                    "1px solid " + title.gradientStart());
+                    "1px solid " + view.gradientStart());
         }
-        tableContainer.add(new HighScoresTable(
-                dataService.getHighScores(machineId),
-                dataService.getAvatars(),
-                dataService.getNewScoreIds(machineId)
-        ));
+        tableContainer.add(new HighScoresTable(view.scores()), new RegionalPanel(view.regional()));
         scoresSection.add(tableContainer);
         content.add(scoresSection);
 
         // Footer
         Div footer = new Div();
         footer.addClassName("fullscreen-footer");
-        Span lastPlayed = new Span("Last Played: " + formatDateTime(machine.lastPlayed()));
+        Span lastPlayed = new Span(view.lastPlayed());
         lastPlayed.addClassName("last-played-large");
         footer.add(lastPlayed);
         content.add(footer);
@@ -143,16 +169,6 @@ public class FullscreenView extends Div implements HasUrlParameter<Long>, HasDyn
         add(content);
     }
 
-    private static String formatDateTime(String isoDate) {
-        if (isoDate == null || isoDate.isBlank()) return "Never";
-        try {
-            LocalDateTime dt = LocalDateTime.parse(isoDate.replace("Z", "").split("\\+")[0]);
-            return dt.format(DISPLAY_FORMAT) + " UTC";
-        } catch (DateTimeParseException e) {
-            return isoDate;
-        }
-    }
-
     @Override
     public String getPageTitle() {
         return machineName + " - Stern Home Leaderboards";
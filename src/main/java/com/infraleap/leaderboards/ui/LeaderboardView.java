@@ -1,10 +1,13 @@
 package com.infraleap.leaderboards.ui;
 
 import com.infraleap.leaderboards.config.LeaderboardProperties;
-import com.infraleap.leaderboards.stern.domain.Machine;
-import com.infraleap.leaderboards.stern.service.LeaderboardDataService;
-import com.infraleap.leaderboards.ui.broadcast.LeaderboardBroadcaster;
+import com.infraleap.leaderboards.tenant.Tenant;
+import com.infraleap.leaderboards.tenant.TenantRegistry;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardEvent;
+import com.infraleap.leaderboards.ui.broadcast.UiDelivery;
+import com.infraleap.leaderboards.ui.component.DisplayFormat;
 import com.infraleap.leaderboards.ui.component.MachineCard;
+import com.infraleap.leaderboards.ui.model.MachineView;
 import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.UI;
@@ -13,57 +16,84 @@ import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.HasDynamicTitle;
+import com.vaadin.flow.router.NotFoundException;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
 import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+/**
+ * All machine cards of one tenant: the default tenant's at {@code /}, any other's at
+ * {@code /t/<tenant>}.
+ */
 @Route("")
-public class LeaderboardView extends Div implements HasDynamicTitle {
+@RouteAlias("t/:tenant")
+public class LeaderboardView extends Div implements BeforeEnterObserver, HasDynamicTitle {
 
-    private final LeaderboardDataService dataService;
-    private final LeaderboardBroadcaster broadcaster;
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardView.class);
+
+    private final TenantRegistry tenants;
     private final LeaderboardProperties props;
+    private final Timer accessDelay;
     private final Div machinesContainer = new Div();
+    private final Map<Long, MachineCard> cards = new HashMap<>();
+    private Div loadingMessage;
+    private Tenant tenant;
+    private UI attachedUi;
     private Registration broadcasterRegistration;
     private final List<Notification> activeNewScoreNotifications = new ArrayList<>();
 
-    public LeaderboardView(LeaderboardDataService dataService,
-                           LeaderboardBroadcaster broadcaster,
-                           LeaderboardProperties props) {
-        this.dataService = dataService;
-        this.broadcaster = broadcaster;
+    public LeaderboardView(TenantRegistry tenants,
+                           LeaderboardProperties props,
+                           MeterRegistry meterRegistry) {
+        this.tenants = tenants;
         this.props = props;
+        this.accessDelay = meterRegistry.timer("leaderboards.ui.access.delay", "view", "leaderboard");
 
         addClassName("machines-page");
         machinesContainer.addClassName("machines-container");
         machinesContainer.getStyle().set("--grid-columns", String.valueOf(props.gridColumns()));
         add(machinesContainer);
+    }
 
+    @Override
+    public void beforeEnter(BeforeEnterEvent event) {
+        Optional<String> id = event.getRouteParameters().get("tenant");
+        Tenant next = id.isPresent() ? tenants.find(id.get()) : tenants.defaultTenant();
+        if (next == null) {
+            event.rerouteToError(NotFoundException.class);
+            return;
+        }
+        if (next == tenant) return;
+        // Navigated to another tenant's board: start over with its cards and events
+        tenant = next;
+        machinesContainer.removeAll();
+        cards.clear();
+        loadingMessage = null;
         buildCards();
+        if (attachedUi != null) subscribe(attachedUi);
     }
 
     @Override
     protected void onAttach(AttachEvent attachEvent) {
         UI ui = attachEvent.getUI();
-        broadcasterRegistration = broadcaster.register(message -> {
-            ui.access(() -> {
-                dismissNewScoreNotifications();
-                buildCards();
-                if (message.contains("NEW_SCORE:")) {
-                    for (String line : message.split("\n")) {
-                        if (line.startsWith("NEW_SCORE:")) {
-                            showNewScoreNotification(line);
-                        }
-                    }
-                    triggerConfetti();
-                }
-            });
-        });
+        attachedUi = ui;
+        subscribe(ui);
 
         if (!props.disableAutoscroll()) {
             startAutoScroll(ui);
@@ -74,43 +104,93 @@ public class LeaderboardView extends Div implements HasDynamicTitle {
     protected void onDetach(DetachEvent detachEvent) {
         if (broadcasterRegistration != null) {
             broadcasterRegistration.remove();
+            broadcasterRegistration = null;
         }
+        attachedUi = null;
         stopAutoScroll(detachEvent.getUI());
     }
 
+    private void subscribe(UI ui) {
+        if (broadcasterRegistration != null) broadcasterRegistration.remove();
+        broadcasterRegistration = tenant.broadcaster().register(UiDelivery.listener(ui, accessDelay, events -> {
+            dismissNewScoreNotifications();
+            buildCards();
+            List<LeaderboardEvent.NewScore> newScores = events.stream()
+                    .filter(LeaderboardEvent.NewScore.class::isInstance)
+                    .map(LeaderboardEvent.NewScore.class::cast)
+                    .toList();
+            if (!newScores.isEmpty()) {
+                newScores.forEach(this::showNewScoreNotification);
+                triggerConfetti();
+            }
+        }), UiDelivery.reloadWhenEvicted(ui));
+    }
+
+    /**
+     * Reconciles the card list with the current snapshot, keyed by machine id: existing cards are
+     * patched in place and cards are only created or removed when the machine set changes.
+     */
     private void buildCards() {
-        machinesContainer.removeAll();
-        List<Machine> machines = dataService.getMachines();
+        List<MachineView> machines = tenant.dataService().getMachineViews();
 
         if (machines.isEmpty()) {
-            Div loading = new Div();
-            loading.addClassName("loading-message");
-            loading.add(new Span("Loading machines from Stern..."));
-            machinesContainer.add(loading);
+            if (loadingMessage == null) {
+                machinesContainer.removeAll();
+                cards.clear();
+                loadingMessage = new Div();
+                loadingMessage.addClassName("loading-message");
+                loadingMessage.add(new Span("Loading machines from Stern..."));
+                machinesContainer.add(loadingMessage);
+            }
             return;
         }
+        if (loadingMessage != null) {
+            machinesContainer.remove(loadingMessage);
+            loadingMessage = null;
+        }
 
-        for (Machine machine : machines) {
-            MachineCard card = new MachineCard(
-                    machine,
-                    dataService.getHighScores(machine.safeId()),
-                    dataService.getAvatars(),
-                    dataService.getNewScoreIds(machine.safeId())
-            );
-            machinesContainer.add(card);
+        int created = 0;
+        int removed = 0;
+        int patched = 0;
+        Set<Long> currentIds = new HashSet<>();
+        for (int i = 0; i < machines.size(); i++) {
+            MachineView machine = machines.get(i);
+            long machineId = machine.machineId();
+            currentIds.add(machineId);
+            MachineCard card = cards.get(machineId);
+            if (card == null) {
+                card = new MachineCard(machine, tenant.routePrefix());
+                cards.put(machineId, card);
+                machinesContainer.addComponentAtIndex(i, card);
+                created++;
+            } else {
+                patched += card.update(machine);
+                if (machinesContainer.indexOf(card) != i) {
+                    machinesContainer.addComponentAtIndex(i, card);
+                    patched++;
+                }
+            }
         }
-    }
 
-    private void showNewScoreNotification(String message) {
-        // Parse "NEW_SCORE:MachineName:PlayerName:Score"
-        String[] parts = message.split(":", 4);
-        String text;
-        if (parts.length >= 4) {
-            text = "New high score on " + parts[1] + "! " + parts[2] + " scored " + formatScore(parts[3]) + "!";
-        } else {
-            text = "New high score detected!";
+        Iterator<Map.Entry<Long, MachineCard>> it = cards.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, MachineCard> entry = it.next();
+            if (!currentIds.contains(entry.getKey())) {
+                machinesContainer.remove(entry.getValue());
+                it.remove();
+                removed++;
+            }
         }
 
+        log.debug("Patched leaderboard view: {} cards created, {} removed, {} element updates",
+                created, removed, patched);
+    }
+
+    private void showNewScoreNotification(LeaderboardEvent.NewScore newScore) {
+        String text = (newScore.rank() == 1 ? "New grand champion on " : "New high score on ")
+                + newScore.machineName() + "! "
+                + newScore.playerName() + " scored " + DisplayFormat.formatScore(newScore.score()) + "!";
+
         Notification notification = new Notification();
         notification.addThemeVariants(NotificationVariant.LUMO_PRIMARY);
         notification.setDuration(props.notificationAutoCloseSeconds() * 1000);
@@ -138,14 +218,6 @@ public class LeaderboardView extends Div implements HasDynamicTitle {
         activeNewScoreNotifications.clear();
     }
 
-    private static String formatScore(String score) {
-        try {
-            return NumberFormat.getNumberInstance(Locale.US).format(Long.parseLong(score));
-        } catch (NumberFormatException e) {
-            return score;
-        }
-    }
-
     private void triggerConfetti() {
         int durationMs = props.fireworksDurationSeconds() * 1000;
         getUI().ifPresent(ui -> ui.getPage().executeJs(
@@ -1,28 +1,216 @@
 package com.infraleap.leaderboards.ui.broadcast;
 
+import com.infraleap.leaderboards.config.LeaderboardProperties;
 import com.vaadin.flow.shared.Registration;
-import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-@Component
+/**
+ * Fans event batches out to registered listeners without running them on the publishing thread.
+ * Each listener has a mailbox drained by its own virtual thread, one batch at a time and in order.
+ * Batches that arrive while a listener is still busy are coalesced into one, since listeners
+ * render the latest snapshot rather than the events themselves. A listener that falls
+ * {@code leaderboards.broadcast-mailbox-capacity} refreshes behind, throws, or reports itself
+ * {@link ListenerStalled stalled}, is dropped.
+ */
 public class LeaderboardBroadcaster {
 
-    private final CopyOnWriteArrayList<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardBroadcaster.class);
 
-    public Registration register(Consumer<String> listener) {
-        listeners.add(listener);
-        return () -> listeners.remove(listener);
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final int mailboxCapacity;
+    private final MeterRegistry meterRegistry;
+    private final Timer broadcastTimer;
+    private final Counter coalesced;
+
+    public LeaderboardBroadcaster(LeaderboardProperties props, MeterRegistry meterRegistry) {
+        this.mailboxCapacity = props.broadcastMailboxCapacity();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("leaderboards.broadcaster.listeners", subscriptions, List::size)
+                .description("Registered UI listeners")
+                .register(meterRegistry);
+        this.broadcastTimer = Timer.builder("leaderboards.broadcast")
+                .description("Time the publishing thread spends handing one event batch to the listener mailboxes")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("leaderboards.broadcaster.coalesced")
+                .description("Batches merged into a later one before their listener got to them")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Receives every event batch.
+     */
+    public Registration register(Consumer<List<LeaderboardEvent>> listener) {
+        return subscribe(event -> true, listener, null);
+    }
+
+    /**
+     * Receives every event batch; {@code onEvicted} runs on a delivery thread if the listener is
+     * dropped, so listeners that hold a connection open can close it.
+     */
+    public Registration register(Consumer<List<LeaderboardEvent>> listener, Runnable onEvicted) {
+        return subscribe(event -> true, listener, onEvicted);
     }
 
-    public void broadcast(String message) {
-        for (Consumer<String> listener : listeners) {
+    /**
+     * Receives only the events for {@code machineId}, plus events that concern every machine;
+     * {@code onEvicted} as for {@link #register(Consumer, Runnable)}.
+     */
+    public Registration registerForMachine(long machineId, Consumer<List<LeaderboardEvent>> listener,
+                                           Runnable onEvicted) {
+        return subscribe(event -> event.machineId() == machineId
+                || event.machineId() == LeaderboardEvent.ALL_MACHINES, listener, onEvicted);
+    }
+
+    /**
+     * Receives only events of the given type.
+     */
+    public Registration registerForType(Class<? extends LeaderboardEvent> type,
+                                        Consumer<List<LeaderboardEvent>> listener) {
+        return subscribe(type::isInstance, listener, null);
+    }
+
+    /**
+     * Queues for each listener the subset of {@code events} it subscribed to and returns without
+     * waiting for any of them; listeners with an empty subset are not called at all.
+     */
+    public void broadcast(List<LeaderboardEvent> events) {
+        if (events.isEmpty()) return;
+        broadcastTimer.record(() -> enqueue(events));
+    }
+
+    private void enqueue(List<LeaderboardEvent> events) {
+        for (Subscription subscription : subscriptions) {
+            List<LeaderboardEvent> matching = new ArrayList<>();
+            for (LeaderboardEvent event : events) {
+                if (subscription.filter.test(event)) matching.add(event);
+            }
+            if (matching.isEmpty()) continue;
+            if (!subscription.offer(matching)) {
+                evict(subscription, "mailbox_full");
+            }
+        }
+    }
+
+    private Registration subscribe(Predicate<LeaderboardEvent> filter, Consumer<List<LeaderboardEvent>> listener,
+                                   Runnable onEvicted) {
+        Subscription subscription = new Subscription(filter, listener, onEvicted);
+        subscriptions.add(subscription);
+        return subscription::close;
+    }
+
+    private void evict(Subscription subscription, String reason) {
+        if (!subscriptions.remove(subscription)) return;
+        subscription.close();
+        meterRegistry.counter("leaderboards.broadcaster.evictions", "reason", reason).increment();
+        log.warn("Dropped broadcast listener ({}), {} listeners left", reason, subscriptions.size());
+        if (subscription.onEvicted != null) {
             try {
-                listener.accept(message);
-            } catch (Exception e) {
-                listeners.remove(listener);
+                deliveryExecutor.execute(subscription.onEvicted);
+            } catch (RejectedExecutionException e) {
+                // shutting down
             }
         }
     }
+
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    /**
+     * Thrown by a listener that could not deliver a batch in time, to be dropped like one whose
+     * mailbox overflowed.
+     */
+    public static class ListenerStalled extends RuntimeException {
+        public ListenerStalled(String message) {
+            super(message);
+        }
+    }
+
+    private final class Subscription {
+
+        final Predicate<LeaderboardEvent> filter;
+        final Consumer<List<LeaderboardEvent>> listener;
+        final Runnable onEvicted;
+
+        // Events not yet handed to the listener and the number of broadcasts they were merged from
+        private final Set<LeaderboardEvent> pending = new LinkedHashSet<>();
+        private int pendingBroadcasts;
+        private boolean draining;
+        private volatile boolean closed;
+
+        Subscription(Predicate<LeaderboardEvent> filter, Consumer<List<LeaderboardEvent>> listener,
+                     Runnable onEvicted) {
+            this.filter = filter;
+            this.listener = listener;
+            this.onEvicted = onEvicted;
+        }
+
+        /**
+         * Adds a batch to the mailbox and starts a drain if none is running. Returns {@code false}
+         * when the mailbox already holds {@link #mailboxCapacity} undelivered broadcasts.
+         */
+        synchronized boolean offer(List<LeaderboardEvent> events) {
+            if (closed) return true;
+            if (pendingBroadcasts >= mailboxCapacity) return false;
+            pending.addAll(events);
+            pendingBroadcasts++;
+            if (!draining) {
+                try {
+                    deliveryExecutor.execute(this::drain);
+                    draining = true;
+                } catch (RejectedExecutionException e) {
+                    closed = true; // shutting down
+                }
+            }
+            return true;
+        }
+
+        private void drain() {
+            while (!closed) {
+                List<LeaderboardEvent> batch;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    batch = List.copyOf(pending);
+                    if (pendingBroadcasts > 1) coalesced.increment(pendingBroadcasts - 1);
+                    pending.clear();
+                    pendingBroadcasts = 0;
+                }
+                try {
+                    listener.accept(batch);
+                } catch (ListenerStalled e) {
+                    log.debug("Broadcast listener stalled: {}", e.getMessage());
+                    evict(this, "stalled");
+                    return;
+                } catch (Exception e) {
+                    evict(this, "listener_error");
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package com.infraleap.leaderboards.ui.broadcast;
+
+/**
+ * A change in the published leaderboard snapshot. Events are delivered in batches, one batch per
+ * refresh cycle, and only when something actually changed.
+ */
+public sealed interface LeaderboardEvent {
+
+    /** Machine id used by events that concern every machine. */
+    long ALL_MACHINES = 0;
+
+    long machineId();
+
+    record MachineAdded(long machineId) implements LeaderboardEvent {}
+
+    record MachineRemoved(long machineId) implements LeaderboardEvent {}
+
+    /** Online state, last played, model or code version changed. */
+    record MachineUpdated(long machineId) implements LeaderboardEvent {}
+
+    /** The high-score table or its new-score highlights changed. */
+    record ScoresChanged(long machineId) implements LeaderboardEvent {}
+
+    /**
+     * An entry that was not on the board in the previous snapshot.
+     *
+     * @param rank 1-based position on the board, {@code 1} being the grand champion
+     */
+    record NewScore(long machineId, String machineName, String playerName, long score,
+                    int rank) implements LeaderboardEvent {}
+
+    /** An entry that stayed on the board but changed position. */
+    record ScoreMoved(long machineId, String machineName, String playerName, long score,
+                      int fromRank, int toRank) implements LeaderboardEvent {}
+
+    /**
+     * An entry that was pushed off the board.
+     *
+     * @param rank the position it held in the previous snapshot
+     */
+    record ScoreKnockedOff(long machineId, String machineName, String playerName, long score,
+                           int rank) implements LeaderboardEvent {}
+
+    /**
+     * The top entry is a different one than in the previous snapshot.
+     *
+     * @param previousPlayerName {@code null} when the board was empty before
+     */
+    record GrandChampionChanged(long machineId, String machineName, String playerName, long score,
+                                String previousPlayerName, long previousScore) implements LeaderboardEvent {}
+
+    record TechAlertsChanged(long machineId) implements LeaderboardEvent {}
+
+    /** The global or nearby standings of the machine's title changed. */
+    record RegionalChanged(long machineId) implements LeaderboardEvent {}
+
+    record AvatarsChanged() implements LeaderboardEvent {
+        @Override
+        public long machineId() {
+            return ALL_MACHINES;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.infraleap.leaderboards.ui.broadcast;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Broadcast listeners for Vaadin UIs. The delivery thread waits until {@link UI#access} has run
+ * the update, so a UI whose session stays locked backs up its own mailbox, where batches are
+ * coalesced, instead of queueing unbounded work in its session. One that does not finish an
+ * update within {@link #ACCESS_TIMEOUT} is evicted, and reloads once its session is free again.
+ */
+public final class UiDelivery {
+
+    static final Duration ACCESS_TIMEOUT = Duration.ofSeconds(10);
+
+    private UiDelivery() {
+    }
+
+    /**
+     * Runs {@code update} with the UI's session locked, recording in {@code accessDelay} how long
+     * the batch waited for the lock.
+     */
+    public static Consumer<List<LeaderboardEvent>> listener(UI ui, Timer accessDelay,
+                                                            Consumer<List<LeaderboardEvent>> update) {
+        return events -> {
+            long queued = System.nanoTime();
+            Future<Void> access = ui.access(() -> {
+                accessDelay.record(System.nanoTime() - queued, TimeUnit.NANOSECONDS);
+                update.accept(events);
+            });
+            try {
+                access.get(ACCESS_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                access.cancel(false);
+                throw new LeaderboardBroadcaster.ListenerStalled("UI did not apply an update within " + ACCESS_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                access.cancel(false);
+                throw new LeaderboardBroadcaster.ListenerStalled("Interrupted while waiting for the UI");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("UI update failed", e.getCause());
+            }
+        };
+    }
+
+    /**
+     * Reloads the page once the evicted UI's session is free again, so it resubscribes with fresh data.
+     */
+    public static Runnable reloadWhenEvicted(UI ui) {
+        return () -> {
+            try {
+                ui.access(() -> ui.getPage().reload());
+            } catch (UIDetachedException e) {
+                // closed in the meantime
+            }
+        };
+    }
+}
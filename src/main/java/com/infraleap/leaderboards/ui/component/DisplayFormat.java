@@ -0,0 +1,50 @@
+package com.infraleap.leaderboards.ui.component;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Score and timestamp formatting shared by the views and components.
+ */
+public final class DisplayFormat {
+
+    private static final DateTimeFormatter DISPLAY_FORMAT =
+            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a").withZone(ZoneOffset.UTC);
+
+    private DisplayFormat() {
+    }
+
+    /**
+     * Formats a score with US thousands separators ({@code 1234567} becomes {@code 1,234,567}).
+     * Negative scores, i.e. {@link com.infraleap.leaderboards.stern.domain.HighScoreEntry#NO_SCORE},
+     * are shown as "N/A".
+     */
+    public static String formatScore(long score) {
+        if (score < 0) return "N/A";
+        String digits = Long.toString(score);
+        int length = digits.length();
+        if (length <= 3) return digits;
+
+        StringBuilder sb = new StringBuilder(length + (length - 1) / 3);
+        int firstGroup = length % 3 == 0 ? 3 : length % 3;
+        sb.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < length; i += 3) {
+            sb.append(',').append(digits, i, i + 3);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats a timestamp as e.g. "Jan 5, 2025 8:30 PM UTC", or returns {@code whenMissing} for
+     * {@code null}.
+     */
+    public static String formatDateTime(Instant instant, String whenMissing) {
+        if (instant == null) return whenMissing;
+        return DISPLAY_FORMAT.format(instant) + " UTC";
+    }
+
+    public static String formatLastPlayed(Instant lastPlayed) {
+        return "Last Played: " + formatDateTime(lastPlayed, "Never");
+    }
+}
@@ -1,31 +1,82 @@
 package com.infraleap.leaderboards.ui.component;
 
-import com.infraleap.leaderboards.stern.domain.AvatarInfo;
-import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
-import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.ui.model.MachineView.ScoreRow;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.dom.Element;
 
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
 
 public class HighScoresTable extends Div {
 
-    public HighScoresTable(HighScoreResponse scores, Map<String, AvatarInfo> avatars, Set<String> newScoreIds) {
+    private final List<Row> rows = new ArrayList<>();
+    private Element table;
+    private Element tbody;
+    private Span noScores;
+    private List<ScoreRow> shown;
+
+    public HighScoresTable(List<ScoreRow> scores) {
         addClassName("high-scores-section");
+        update(scores);
+    }
+
+    /**
+     * Patches the table in place: existing rows are reused and only cells whose content changed
+     * are touched. Returns the number of elements added, removed or modified.
+     */
+    public int update(List<ScoreRow> scores) {
+        // Unchanged machines keep the same row list from one snapshot to the next
+        if (scores == shown) return 0;
+        shown = scores;
+        if (scores.isEmpty()) {
+            return showNoScores();
+        }
+
+        int changes = 0;
+        if (table == null) {
+            changes += createTable();
+        }
+
+        for (int i = 0; i < scores.size(); i++) {
+            ScoreRow score = scores.get(i);
+            if (i < rows.size()) {
+                changes += rows.get(i).update(score);
+            } else {
+                Row row = new Row(score);
+                rows.add(row);
+                tbody.appendChild(row.tr);
+                changes++;
+            }
+        }
+        while (rows.size() > scores.size()) {
+            tbody.removeChild(rows.removeLast().tr);
+            changes++;
+        }
+        return changes;
+    }
+
+    private int showNoScores() {
+        if (noScores != null) return 0;
+        if (table != null) {
+            getElement().removeChild(table);
+            table = null;
+            tbody = null;
+            rows.clear();
+        }
+        noScores = new Span("No high scores yet");
+        noScores.addClassName("no-scores");
+        add(noScores);
+        return 1;
+    }
 
-        if (scores == null || scores.highScores() == null || scores.highScores().isEmpty()) {
-            Span noScores = new Span("No high scores yet");
-            noScores.addClassName("no-scores");
-            add(noScores);
-            return;
+    private int createTable() {
+        if (noScores != null) {
+            remove(noScores);
+            noScores = null;
         }
 
-        Element table = new Element("table");
+        table = new Element("table");
         table.getClassList().add("high-scores-table");
 
         // Header
@@ -37,62 +88,10 @@ public class HighScoresTable extends Div {
         table.appendChild(thead);
 
         // Body
-        Element tbody = new Element("tbody");
-        List<HighScoreEntry> entries = scores.highScores();
-        for (int i = 0; i < entries.size(); i++) {
-            HighScoreEntry entry = entries.get(i);
-            String username = resolveUsername(entry);
-            String scoreId = entry.id() != null && !entry.id().isBlank()
-                    ? entry.id() : username + "-" + entry.score();
-            boolean isNew = newScoreIds != null && newScoreIds.contains(scoreId);
-
-            Element row = new Element("tr");
-            row.getClassList().add("table-row");
-            if (isNew) row.getClassList().add("new-score");
-
-            // Rank
-            Element rankCell = createTd(i == 0 ? "GC" : String.valueOf(i + 1));
-            rankCell.getClassList().add("rank-cell");
-            row.appendChild(rankCell);
-
-            // Player — embed a Vaadin component in the table cell
-            Element playerCell = new Element("td");
-            playerCell.getClassList().add("table-cell");
-            AvatarInfo avatar = avatars != null ? avatars.get(username.toLowerCase()) : null;
-            PlayerInfoComponent playerInfo = new PlayerInfoComponent(username, avatar, isNew);
-            playerCell.appendChild(playerInfo.getElement());
-            row.appendChild(playerCell);
-
-            // Score
-            Element scoreCell = createTd(formatScore(entry.score()));
-            scoreCell.getClassList().add("table-cell");
-            scoreCell.getClassList().add("score-cell");
-            row.appendChild(scoreCell);
-
-            tbody.appendChild(row);
-        }
+        tbody = new Element("tbody");
         table.appendChild(tbody);
         getElement().appendChild(table);
-    }
-
-    private static String resolveUsername(HighScoreEntry entry) {
-        if (entry.user() == null) return "Unknown";
-        if (entry.user().username() != null && !entry.user().username().isBlank())
-            return entry.user().username();
-        if (entry.user().name() != null && !entry.user().name().isBlank())
-            return entry.user().name();
-        if (entry.user().initials() != null && !entry.user().initials().isBlank())
-            return entry.user().initials();
-        return "Unknown";
-    }
-
-    private static String formatScore(String score) {
-        if (score == null) return "N/A";
-        try {
-            return NumberFormat.getNumberInstance(Locale.US).format(Long.parseLong(score));
-        } catch (NumberFormatException e) {
-            return score;
-        }
+        return 1;
     }
 
     private static Element createTh(String text) {
@@ -108,4 +107,66 @@ public class HighScoresTable extends Div {
         td.setText(text);
         return td;
     }
+
+    /**
+     * One table row plus the values it currently shows, so updates can skip unchanged cells.
+     */
+    private static final class Row {
+        final Element tr = new Element("tr");
+        final Element rankCell;
+        final Element scoreCell;
+        final PlayerInfoComponent playerInfo;
+        String rank;
+        boolean isNew;
+        String score;
+
+        Row(ScoreRow row) {
+            tr.getClassList().add("table-row");
+            if (row.isNew()) tr.getClassList().add("new-score");
+
+            // Rank
+            rankCell = createTd(row.rank());
+            rankCell.getClassList().add("rank-cell");
+            tr.appendChild(rankCell);
+
+            // Player — embed a Vaadin component in the table cell
+            Element playerCell = new Element("td");
+            playerCell.getClassList().add("table-cell");
+            playerInfo = new PlayerInfoComponent(row.playerName(), row.avatar(), row.isNew());
+            playerCell.appendChild(playerInfo.getElement());
+            tr.appendChild(playerCell);
+
+            // Score
+            scoreCell = createTd(row.score());
+            scoreCell.getClassList().add("score-cell");
+            tr.appendChild(scoreCell);
+
+            this.rank = row.rank();
+            this.isNew = row.isNew();
+            this.score = row.score();
+        }
+
+        int update(ScoreRow row) {
+            String rank = row.rank();
+            boolean isNew = row.isNew();
+            String score = row.score();
+            int changes = 0;
+            if (!rank.equals(this.rank)) {
+                rankCell.setText(rank);
+                this.rank = rank;
+                changes++;
+            }
+            if (isNew != this.isNew) {
+                tr.getClassList().set("new-score", isNew);
+                this.isNew = isNew;
+                changes++;
+            }
+            if (!score.equals(this.score)) {
+                scoreCell.setText(score);
+                this.score = score;
+                changes++;
+            }
+            return changes + playerInfo.update(row.playerName(), row.avatar(), isNew);
+        }
+    }
 }
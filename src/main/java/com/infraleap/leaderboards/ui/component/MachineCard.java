@@ -1,71 +1,134 @@
 package com.infraleap.leaderboards.ui.component;
 
-import com.infraleap.leaderboards.stern.domain.*;
+import com.infraleap.leaderboards.ui.model.MachineView;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 public class MachineCard extends Div {
 
-    private static final DateTimeFormatter DISPLAY_FORMAT =
-            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
+    private final Div header = new Div();
+    private final HighScoresTable highScoresTable;
+    private final RegionalPanel regionalPanel;
+    private final Div lastPlayed = new Div();
+    private final String routePrefix;
 
-    public MachineCard(Machine machine, HighScoreResponse scores,
-                       Map<String, AvatarInfo> avatars, Set<String> newScoreIds) {
+    private MachineView view;
+    private TitleStyle titleStyle;
+    private HeaderState headerState;
+
+    /**
+     * @param routePrefix prepended to the fullscreen route, so the logo opens the machine of the
+     *                    tenant whose board this card is on
+     */
+    public MachineCard(MachineView view, String routePrefix) {
+        this.routePrefix = routePrefix;
         addClassName("machine-card");
 
-        MachineTitle title = machine.model() != null ? machine.model().title() : null;
+        header.addClassName("machine-header");
+        add(header);
+
+        // High scores
+        highScoresTable = new HighScoresTable(view.scores());
+        add(highScoresTable);
+
+        // Nearby and global standings
+        regionalPanel = new RegionalPanel(view.regional());
+        add(regionalPanel);
+
+        // Last played
+        lastPlayed.addClassName("last-played");
+        add(lastPlayed);
+
+        this.view = view;
+        applyTitle(view);
+        applyHeader(view);
+        lastPlayed.setText(view.lastPlayed());
+    }
+
+    /**
+     * Patches this card for a newer snapshot of the same machine, touching only the parts whose
+     * data changed. Returns the number of elements added, removed or modified.
+     */
+    public int update(MachineView view) {
+        // The data service hands out the same instance while nothing about the machine changed
+        if (view == this.view) return 0;
+        MachineView previous = this.view;
+        this.view = view;
+
+        int changes = applyTitle(view);
+        changes += applyHeader(view);
+        changes += highScoresTable.update(view.scores());
+        changes += regionalPanel.update(view.regional());
+        if (!view.lastPlayed().equals(previous.lastPlayed())) {
+            lastPlayed.setText(view.lastPlayed());
+            changes++;
+        }
+        return changes;
+    }
+
+    private int applyTitle(MachineView view) {
+        TitleStyle style = new TitleStyle(view.backgroundUrl(), view.gradientStart(), view.gradientStop());
+        if (style.equals(titleStyle)) return 0;
+        titleStyle = style;
 
         // Background image
-        if (title != null && title.primaryBackground() != null && !title.primaryBackground().isBlank()) {
+        if (view.backgroundUrl() != null) {
             addClassName("with-background");
             getStyle().set("background-image",
-                    "linear-gradient(rgba(0,0,0,0.7), rgba(0,0,0,0.7)), url(" + title.primaryBackground() + ")");
+                    "linear-gradient(rgba(0,0,0,0.7), rgba(0,0,0,0.7)), url(" + view.backgroundUrl() + ")");
             getStyle().set("background-size", "cover");
             getStyle().set("background-position", "center");
+        } else {
+            removeClassName("with-background");
+            getStyle().remove("background-image");
+            getStyle().remove("background-size");
+            getStyle().remove("background-position");
         }
 
         // Gradient border
-        if (title != null && title.gradientStart() != null && title.gradientStop() != null) {
+        if (view.hasGradient()) {
             getStyle().set("border-image",
-                    "linear-gradient(to bottom, " + title.gradientStart() + ", " + title.gradientStop() + ") 1");
+                    "linear-gradient(to bottom, " + view.gradientStart() + ", " + view.gradientStop() + ") 1");
             getStyle().set("border-width", "2px");
             getStyle().set("border-style", "solid");
+        } else {
+            getStyle().remove("border-image");
+            getStyle().remove("border-width");
+            getStyle().remove("border-style");
         }
+        return 1;
+    }
+
+    private int applyHeader(MachineView view) {
+        HeaderState state = new HeaderState(view.machineId(), view.name(), view.logoUrl(),
+                view.modelType(), view.codeVersion(), view.techAlerts());
+        if (state.equals(headerState)) return 0;
+        headerState = state;
+        header.removeAll();
 
         // Game logo (clickable → fullscreen)
-        Div header = new Div();
-        header.addClassName("machine-header");
-        String logoUrl = title != null ? title.variableWidthLogo() : null;
-        if (logoUrl == null || logoUrl.isBlank()) {
-            logoUrl = title != null ? title.squareLogo() : null;
-        }
-        if (logoUrl != null && !logoUrl.isBlank()) {
-            Image logo = new Image(logoUrl, title != null ? title.name() : "Machine");
+        if (view.logoUrl() != null) {
+            Image logo = new Image(view.logoUrl(), view.name() != null ? view.name() : "Machine");
             logo.addClassName("game-logo");
             logo.getElement().setAttribute("title", "Click to view fullscreen");
             logo.getElement().setAttribute("tabindex", "0");
             logo.getElement().setAttribute("role", "button");
-            long machineId = machine.safeId();
+            long machineId = view.machineId();
             logo.addClickListener(e ->
-                    logo.getUI().ifPresent(ui -> ui.navigate("fullscreen/" + machineId)));
+                    logo.getUI().ifPresent(ui -> ui.navigate(routePrefix + "fullscreen/" + machineId)));
             header.add(logo);
-        } else if (title != null) {
-            Span nameLabel = new Span(title.name());
+        } else if (view.name() != null) {
+            Span nameLabel = new Span(view.name());
             nameLabel.addClassName("machine-name-text");
             header.add(nameLabel);
         }
 
         // Model type + version (left-aligned, right of logo)
-        String modelType = machine.model() != null ? machine.model().modelTypeName() : null;
-        String version = machine.codeVersion();
+        String modelType = view.modelType();
+        String version = view.codeVersion();
         if (modelType != null || version != null) {
             Div machineInfo = new Div();
             machineInfo.addClassName("machine-info");
@@ -83,33 +146,20 @@ public class MachineCard extends Div {
         }
 
         // Status indicator (far right: tech alerts only)
-        List<TechAlert> alerts = machine.techAlerts();
-        if (alerts != null && !alerts.isEmpty()) {
+        if (!view.techAlerts().isEmpty()) {
             Div statusIndicator = new Div();
             statusIndicator.addClassName("status-indicator");
-            statusIndicator.add(new TechAlertsPopup(alerts));
+            statusIndicator.add(new TechAlertsPopup(view.techAlerts()));
             header.add(statusIndicator);
         }
-
-        add(header);
-
-        // High scores
-        add(new HighScoresTable(scores, avatars, newScoreIds));
-
-        // Last played
-        Div lastPlayed = new Div();
-        lastPlayed.addClassName("last-played");
-        lastPlayed.setText("Last Played: " + formatDateTime(machine.lastPlayed()));
-        add(lastPlayed);
+        return 1;
     }
 
-    private static String formatDateTime(String isoDate) {
-        if (isoDate == null || isoDate.isBlank()) return "Never";
-        try {
-            LocalDateTime dt = LocalDateTime.parse(isoDate.replace("Z", "").split("\\+")[0]);
-            return dt.format(DISPLAY_FORMAT) + " UTC";
-        } catch (DateTimeParseException e) {
-            return isoDate;
-        }
-    }
+    private record TitleStyle(String backgroundUrl, String gradientStart, String gradientStop) {}
+
+    /**
+     * Everything the header is built from; the header is only rebuilt when this changes.
+     */
+    private record HeaderState(long machineId, String name, String logoUrl, String modelType,
+                               String codeVersion, List<MachineView.Alert> techAlerts) {}
 }
@@ -5,42 +5,83 @@ import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Image;
 import com.vaadin.flow.component.html.Span;
 
+import java.util.Objects;
+
 public class PlayerInfoComponent extends Div {
 
+    private final Div avatarDiv = new Div();
+    private final Image avatar = new Image();
+    private final Span nameSpan = new Span();
+    private Span trophy;
+
+    private String username;
+    private AvatarInfo avatarInfo;
+
     public PlayerInfoComponent(String username, AvatarInfo avatarInfo, boolean isNewScore) {
         addClassName("player-cell");
 
         // Avatar
-        Div avatarDiv = new Div();
         avatarDiv.addClassName("player-avatar");
-        if (avatarInfo != null && avatarInfo.backgroundColor() != null) {
-            avatarDiv.getStyle().set("background-color", avatarInfo.backgroundColor());
-        }
-
-        String imgSrc = (avatarInfo != null && avatarInfo.avatarUrl() != null
-                && !avatarInfo.avatarUrl().isBlank())
-                ? avatarInfo.avatarUrl() : "";
-        Image avatar = new Image(imgSrc.isEmpty() ? "pinball.svg" : imgSrc, username);
         avatar.addClassName("avatar-img");
-        // If a signed S3 URL expires, fall back to the unsigned base URL
-        if (!imgSrc.isEmpty() && imgSrc.contains("?")) {
-            String baseUrl = imgSrc.substring(0, imgSrc.indexOf('?'));
-            avatar.getElement().setAttribute("onerror",
-                    "if(!this.dataset.retried){this.dataset.retried='1';this.src='" + baseUrl + "';}");
-        }
         avatarDiv.add(avatar);
         add(avatarDiv);
 
         // Name + optional trophy
-        Span nameSpan = new Span(username);
         nameSpan.addClassName("player-name");
         add(nameSpan);
 
-        if (isNewScore) {
-            Span trophy = new Span("\uD83C\uDFC6");
+        applyAvatar(username, avatarInfo);
+        nameSpan.setText(username);
+        this.username = username;
+        this.avatarInfo = avatarInfo;
+        setNewScore(isNewScore);
+    }
+
+    /**
+     * Patches the existing elements in place and returns the number of elements touched.
+     */
+    public int update(String username, AvatarInfo avatarInfo, boolean isNewScore) {
+        int changes = 0;
+        if (!Objects.equals(this.username, username) || !Objects.equals(this.avatarInfo, avatarInfo)) {
+            applyAvatar(username, avatarInfo);
+            changes++;
+        }
+        if (!Objects.equals(this.username, username)) {
+            nameSpan.setText(username);
+            changes++;
+        }
+        this.username = username;
+        this.avatarInfo = avatarInfo;
+        if (isNewScore != (trophy != null)) {
+            setNewScore(isNewScore);
+            changes++;
+        }
+        return changes;
+    }
+
+    private void applyAvatar(String username, AvatarInfo avatarInfo) {
+        if (avatarInfo != null && avatarInfo.backgroundColor() != null) {
+            avatarDiv.getStyle().set("background-color", avatarInfo.backgroundColor());
+        } else {
+            avatarDiv.getStyle().remove("background-color");
+        }
+
+        String imgSrc = (avatarInfo != null && avatarInfo.avatarUrl() != null
+                && !avatarInfo.avatarUrl().isBlank())
+                ? avatarInfo.avatarUrl() : "";
+        avatar.setSrc(imgSrc.isEmpty() ? "pinball.svg" : imgSrc);
+        avatar.setAlt(username);
+    }
+
+    private void setNewScore(boolean isNewScore) {
+        if (isNewScore && trophy == null) {
+            trophy = new Span("\uD83C\uDFC6");
             trophy.addClassName("trophy-icon");
             trophy.getElement().setAttribute("title", "New Score!");
             add(trophy);
+        } else if (!isNewScore && trophy != null) {
+            remove(trophy);
+            trophy = null;
         }
     }
 }
@@ -0,0 +1,118 @@
+package com.infraleap.leaderboards.ui.component;
+
+import com.infraleap.leaderboards.ui.model.MachineView.RegionalRow;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.dom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The nearby and global standings of a machine's title, below its high scores. Hidden while the
+ * title is on no regional board.
+ */
+public class RegionalPanel extends Div {
+
+    private final Element table = new Element("table");
+    private final List<Row> rows = new ArrayList<>();
+    private List<RegionalRow> shown;
+
+    public RegionalPanel(List<RegionalRow> regional) {
+        addClassName("regional-section");
+        table.getClassList().add("regional-table");
+        getElement().appendChild(table);
+        update(regional);
+    }
+
+    /**
+     * Patches the rows in place like {@link HighScoresTable#update}. Returns the number of
+     * elements added, removed or modified.
+     */
+    public int update(List<RegionalRow> regional) {
+        if (regional == shown) return 0;
+        shown = regional;
+
+        int changes = 0;
+        if (regional.isEmpty() == isVisible()) {
+            setVisible(!regional.isEmpty());
+            changes++;
+        }
+        for (int i = 0; i < regional.size(); i++) {
+            RegionalRow row = regional.get(i);
+            // Each scope is labelled once, on its first row
+            String scope = i == 0 || !row.scope().equals(regional.get(i - 1).scope()) ? row.scope() : "";
+            if (i < rows.size()) {
+                changes += rows.get(i).update(scope, row);
+            } else {
+                Row added = new Row(scope, row);
+                rows.add(added);
+                table.appendChild(added.tr);
+                changes++;
+            }
+        }
+        while (rows.size() > regional.size()) {
+            table.removeChild(rows.removeLast().tr);
+            changes++;
+        }
+        return changes;
+    }
+
+    private static Element createTd(String text, String className) {
+        Element td = new Element("td");
+        td.getClassList().add(className);
+        td.setText(text);
+        return td;
+    }
+
+    /**
+     * One row plus the values it currently shows, so updates can skip unchanged cells.
+     */
+    private static final class Row {
+        final Element tr = new Element("tr");
+        final Element scopeCell;
+        final Element rankCell;
+        final Element playerCell;
+        final Element scoreCell;
+        String scope;
+        RegionalRow row;
+
+        Row(String scope, RegionalRow row) {
+            tr.getClassList().add("regional-row");
+            tr.getClassList().set("home-player", row.homePlayer());
+            scopeCell = createTd(scope, "regional-scope");
+            rankCell = createTd(row.rank(), "regional-rank");
+            playerCell = createTd(row.playerName(), "regional-player");
+            scoreCell = createTd(row.score(), "regional-score");
+            tr.appendChild(scopeCell, rankCell, playerCell, scoreCell);
+            this.scope = scope;
+            this.row = row;
+        }
+
+        int update(String scope, RegionalRow row) {
+            int changes = 0;
+            if (!scope.equals(this.scope)) {
+                scopeCell.setText(scope);
+                changes++;
+            }
+            if (!row.rank().equals(this.row.rank())) {
+                rankCell.setText(row.rank());
+                changes++;
+            }
+            if (!row.playerName().equals(this.row.playerName())) {
+                playerCell.setText(row.playerName());
+                changes++;
+            }
+            if (!row.score().equals(this.row.score())) {
+                scoreCell.setText(row.score());
+                changes++;
+            }
+            if (row.homePlayer() != this.row.homePlayer()) {
+                tr.getClassList().set("home-player", row.homePlayer());
+                changes++;
+            }
+            this.scope = scope;
+            this.row = row;
+            return changes;
+        }
+    }
+}
@@ -1,38 +1,22 @@
 package com.infraleap.leaderboards.ui.component;
 
-import com.infraleap.leaderboards.stern.domain.TechAlert;
+import com.infraleap.leaderboards.ui.model.MachineView;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.popover.Popover;
 import com.vaadin.flow.component.popover.PopoverPosition;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.List;
 
 public class TechAlertsPopup extends Div {
 
-    private static final DateTimeFormatter DISPLAY_FORMAT =
-            DateTimeFormatter.ofPattern("MMM d, yyyy h:mm a");
-
-    public TechAlertsPopup(List<TechAlert> techAlerts) {
+    /**
+     * @param realAlerts the active alerts, already filtered and formatted
+     */
+    public TechAlertsPopup(List<MachineView.Alert> realAlerts) {
         addClassName("tech-alerts-container");
 
-        // Find the most recent "No Alerts" timestamp — alerts before it are cleared
-        String latestClearDate = techAlerts.stream()
-                .filter(a -> "No Alerts".equals(a.message()) && a.dateOfEvent() != null)
-                .map(TechAlert::dateOfEvent)
-                .max(String::compareTo)
-                .orElse(null);
-
-        List<TechAlert> realAlerts = techAlerts.stream()
-                .filter(a -> a.message() != null && !"No Alerts".equals(a.message()))
-                .filter(a -> latestClearDate == null || a.dateOfEvent() == null
-                        || a.dateOfEvent().compareTo(latestClearDate) > 0)
-                .toList();
-
         if (realAlerts.isEmpty()) return;
 
         Button alertButton = new Button();
@@ -59,12 +43,12 @@ public class TechAlertsPopup extends Div {
 
         Div alertsList = new Div();
         alertsList.addClassName("alerts-list");
-        for (TechAlert alert : realAlerts) {
+        for (MachineView.Alert alert : realAlerts) {
             Div item = new Div();
             item.addClassName("alert-item");
             Div msg = new Div(alert.message());
             msg.addClassName("alert-message");
-            Div date = new Div(formatDateTime(alert.dateOfEvent()));
+            Div date = new Div(alert.date());
             date.addClassName("alert-date");
             item.add(msg, date);
             alertsList.add(item);
@@ -74,14 +58,4 @@ public class TechAlertsPopup extends Div {
         popover.add(content);
         add(alertButton, popover);
     }
-
-    private static String formatDateTime(String isoDate) {
-        if (isoDate == null) return "";
-        try {
-            LocalDateTime dt = LocalDateTime.parse(isoDate.replace("Z", "").split("\\+")[0]);
-            return dt.format(DISPLAY_FORMAT) + " UTC";
-        } catch (DateTimeParseException e) {
-            return isoDate;
-        }
-    }
 }
@@ -0,0 +1,55 @@
+package com.infraleap.leaderboards.ui.model;
+
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+
+import java.util.List;
+
+/**
+ * Everything a machine card or the fullscreen view shows for one machine, resolved and formatted
+ * once per published snapshot and shared by every connected UI. Blank URLs are {@code null}.
+ *
+ * Image URLs point at the image proxy, sized for the machine cards; the fullscreen view uses the
+ * {@code fullscreen*} ones.
+ *
+ * @param name       machine title, {@code null} when Stern sent no title
+ * @param logoUrl    variable-width logo, falling back to the square logo
+ * @param techAlerts alerts raised after the most recent "No Alerts" entry
+ * @param lastPlayed the footer text, e.g. "Last Played: Jan 5, 2025 8:30 PM UTC"
+ * @param scores     table rows in rank order, empty when there are no scores yet
+ * @param regional   the title's nearby then global standings: the top few and any of this
+ *                   machine's players further down, empty when none are known
+ */
+public record MachineView(
+        long machineId,
+        String name,
+        String logoUrl,
+        String backgroundUrl,
+        String fullscreenLogoUrl,
+        String fullscreenBackgroundUrl,
+        String gradientStart,
+        String gradientStop,
+        String modelType,
+        String codeVersion,
+        List<Alert> techAlerts,
+        String lastPlayed,
+        List<ScoreRow> scores,
+        List<RegionalRow> regional
+) {
+    public boolean hasGradient() {
+        return gradientStart != null && gradientStop != null;
+    }
+
+    /**
+     * @param rank "GC" for the grand champion, otherwise the 1-based position
+     */
+    public record ScoreRow(String rank, String playerName, AvatarInfo avatar, String score, boolean isNew) {}
+
+    public record Alert(String message, String date) {}
+
+    /**
+     * @param scope      "Nearby" or "Global"
+     * @param rank       e.g. "#12"
+     * @param homePlayer whether the player is on this machine's own board
+     */
+    public record RegionalRow(String scope, String rank, String playerName, String score, boolean homePlayer) {}
+}
@@ -0,0 +1,176 @@
+package com.infraleap.leaderboards.ui.model;
+
+import com.infraleap.leaderboards.images.ImageUrls;
+import com.infraleap.leaderboards.images.ImageVariant;
+import com.infraleap.leaderboards.regional.RegionalStore;
+import com.infraleap.leaderboards.stern.domain.*;
+import com.infraleap.leaderboards.ui.component.DisplayFormat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds {@link MachineView}s from the raw Stern records.
+ */
+public final class MachineViews {
+
+    private static final String NO_ALERTS = "No Alerts";
+    private static final int REGIONAL_TOP = 3;
+
+    private MachineViews() {
+    }
+
+    /**
+     * @param avatars      avatars by lower-case initials, with URLs already mapped by {@link #proxyAvatars}
+     * @param newScoreKeys sorted {@link HighScoreEntry#key() keys} of the entries to highlight as new
+     * @param regional     global and nearby standings, or {@code null} when they are not shown
+     */
+    public static MachineView of(Machine machine, HighScoreResponse scores, Map<String, AvatarInfo> avatars,
+                                 long[] newScoreKeys, RegionalStore regional, ImageUrls images) {
+        MachineTitle title = machine.model() != null ? machine.model().title() : null;
+        String logoUrl = title != null ? blankToNull(title.variableWidthLogo()) : null;
+        if (logoUrl == null && title != null) logoUrl = blankToNull(title.squareLogo());
+        String backgroundUrl = title != null ? blankToNull(title.primaryBackground()) : null;
+
+        return new MachineView(
+                machine.safeId(),
+                title != null ? title.name() : null,
+                images.url(logoUrl, ImageVariant.CARD),
+                images.url(backgroundUrl, ImageVariant.CARD),
+                images.url(logoUrl, ImageVariant.FULLSCREEN),
+                images.url(backgroundUrl, ImageVariant.FULLSCREEN),
+                title != null ? title.gradientStart() : null,
+                title != null ? title.gradientStop() : null,
+                machine.model() != null ? machine.model().modelTypeName() : null,
+                machine.codeVersion(),
+                activeAlerts(machine.techAlerts()),
+                DisplayFormat.formatLastPlayed(machine.lastPlayed()),
+                scoreRows(scores, avatars, newScoreKeys),
+                regionalRows(regional, title != null ? title.name() : null, scores)
+        );
+    }
+
+    /**
+     * Returns {@code previous} when {@code fresh} equals it, otherwise {@code fresh} with any score
+     * or alert list equal to the previous one replaced by that instance, so UIs can skip
+     * unchanged parts with an identity check.
+     */
+    public static MachineView reuse(MachineView fresh, MachineView previous) {
+        if (previous == null) return fresh;
+        if (fresh.equals(previous)) return previous;
+        List<MachineView.Alert> alerts = fresh.techAlerts().equals(previous.techAlerts())
+                ? previous.techAlerts() : fresh.techAlerts();
+        List<MachineView.ScoreRow> scores = fresh.scores().equals(previous.scores())
+                ? previous.scores() : fresh.scores();
+        List<MachineView.RegionalRow> regional = fresh.regional().equals(previous.regional())
+                ? previous.regional() : fresh.regional();
+        return new MachineView(fresh.machineId(), fresh.name(), fresh.logoUrl(), fresh.backgroundUrl(),
+                fresh.fullscreenLogoUrl(), fresh.fullscreenBackgroundUrl(), fresh.gradientStart(),
+                fresh.gradientStop(), fresh.modelType(), fresh.codeVersion(), alerts, fresh.lastPlayed(), scores,
+                regional);
+    }
+
+    /**
+     * The avatars with their URLs mapped to {@link ImageVariant#AVATAR} image URLs, computed once
+     * per snapshot and shared by every machine's view.
+     */
+    public static Map<String, AvatarInfo> proxyAvatars(Map<String, AvatarInfo> avatars, ImageUrls images) {
+        Map<String, AvatarInfo> proxied = new HashMap<>();
+        avatars.forEach((initials, avatar) -> proxied.put(initials,
+                new AvatarInfo(images.url(avatar.avatarUrl(), ImageVariant.AVATAR), avatar.backgroundColor())));
+        return proxied;
+    }
+
+    private static List<MachineView.ScoreRow> scoreRows(HighScoreResponse scores, Map<String, AvatarInfo> avatars,
+                                                        long[] newScoreKeys) {
+        if (scores == null || scores.highScores() == null || scores.highScores().isEmpty()) return List.of();
+
+        List<HighScoreEntry> entries = scores.highScores();
+        List<MachineView.ScoreRow> rows = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            HighScoreEntry entry = entries.get(i);
+            String playerName = entry.playerName();
+            rows.add(new MachineView.ScoreRow(
+                    i == 0 ? "GC" : String.valueOf(i + 1),
+                    playerName,
+                    avatars != null ? avatars.get(playerName.toLowerCase()) : null,
+                    DisplayFormat.formatScore(entry.score()),
+                    newScoreKeys != null && Arrays.binarySearch(newScoreKeys, entry.key()) >= 0));
+        }
+        return List.copyOf(rows);
+    }
+
+    /**
+     * Per scope, the top {@link #REGIONAL_TOP} of the title's ranking followed by the machine's own
+     * players who rank further down. Each lookup is a single hash lookup in the store.
+     */
+    private static List<MachineView.RegionalRow> regionalRows(RegionalStore regional, String title,
+                                                              HighScoreResponse scores) {
+        if (regional == null || title == null) return List.of();
+        RegionalStore.TitleStandings standings = regional.forTitle(title);
+        if (standings == null) return List.of();
+
+        Set<String> homePlayers = new LinkedHashSet<>();
+        if (scores != null && scores.highScores() != null) {
+            for (HighScoreEntry entry : scores.highScores()) {
+                homePlayers.add(RegionalStore.key(entry.playerName()));
+            }
+        }
+
+        List<MachineView.RegionalRow> rows = new ArrayList<>();
+        for (RegionalStore.Scope scope : RegionalStore.Scope.values()) {
+            RegionalStore.Standings ranking = standings.of(scope);
+            if (ranking == null) continue;
+            List<RegionalStore.Standing> shown = new ArrayList<>(ranking.top().subList(0,
+                    Math.min(REGIONAL_TOP, ranking.top().size())));
+            List<RegionalStore.Standing> further = new ArrayList<>();
+            for (String player : homePlayers) {
+                RegionalStore.Standing placement = regional.placement(player, scope, title);
+                if (placement != null && placement.rank() > REGIONAL_TOP) further.add(placement);
+            }
+            further.sort(Comparator.comparingInt(RegionalStore.Standing::rank));
+            shown.addAll(further);
+            for (RegionalStore.Standing standing : shown) {
+                rows.add(new MachineView.RegionalRow(scope.label(), "#" + standing.rank(), standing.playerName(),
+                        DisplayFormat.formatScore(standing.score()),
+                        homePlayers.contains(RegionalStore.key(standing.playerName()))));
+            }
+        }
+        return List.copyOf(rows);
+    }
+
+    /**
+     * Alerts newer than the most recent "No Alerts" entry, which clears everything before it.
+     */
+    private static List<MachineView.Alert> activeAlerts(List<TechAlert> techAlerts) {
+        if (techAlerts == null || techAlerts.isEmpty()) return List.of();
+
+        Instant latestClearDate = null;
+        for (TechAlert alert : techAlerts) {
+            if (NO_ALERTS.equals(alert.message()) && alert.dateOfEvent() != null
+                    && (latestClearDate == null || alert.dateOfEvent().isAfter(latestClearDate))) {
+                latestClearDate = alert.dateOfEvent();
+            }
+        }
+
+        List<MachineView.Alert> active = new ArrayList<>();
+        for (TechAlert alert : techAlerts) {
+            if (alert.message() == null || NO_ALERTS.equals(alert.message())) continue;
+            if (latestClearDate != null && alert.dateOfEvent() != null
+                    && !alert.dateOfEvent().isAfter(latestClearDate)) continue;
+            active.add(new MachineView.Alert(alert.message(), DisplayFormat.formatDateTime(alert.dateOfEvent(), "")));
+        }
+        return List.copyOf(active);
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value : null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.infraleap.leaderboards.ui.model;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One published generation of the render model. The version increases by one with every
+ * snapshot that changed something, so it can be handed to clients to ask "anything new?".
+ *
+ * @param version     {@code 0} until the first snapshot is published or restored
+ * @param publishedAt when the data of this version came back from Stern; {@code null} for version 0
+ * @param machines    one view per machine in display order
+ * @param byId        the same views by machine id
+ */
+public record ViewSnapshot(long version, Instant publishedAt, List<MachineView> machines,
+                           Map<Long, MachineView> byId) {
+
+    public static final ViewSnapshot EMPTY = new ViewSnapshot(0, null, List.of(), Map.of());
+}
@@ -0,0 +1,61 @@
+package com.infraleap.leaderboards.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepresentationTest {
+
+    private final Representation representation = Representation.of("{\"version\":1}".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void encodingsHaveTheirOwnEtag() throws IOException {
+        ResponseEntity<byte[]> plain = representation.respond(MediaType.APPLICATION_JSON, null, null);
+        ResponseEntity<byte[]> gzipped = representation.respond(MediaType.APPLICATION_JSON, null, "br, gzip");
+
+        assertThat(plain.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(plain.getBody()).isEqualTo(representation.body());
+        assertThat(plain.getHeaders().getETag()).isEqualTo(representation.etag());
+        assertThat(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeaders().getETag()).isEqualTo(representation.gzipEtag()).endsWith("-gz\"");
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody())).readAllBytes())
+                .isEqualTo(representation.body());
+    }
+
+    @Test
+    void notModifiedOnlyForTheEtagOfTheSameEncoding() {
+        String plain = representation.etag();
+        String gzip = representation.gzipEtag();
+
+        assertThat(status(plain, null)).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status(gzip, "gzip")).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status("\"other\", " + gzip, "gzip")).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status(gzip, null)).isEqualTo(HttpStatus.OK);
+        assertThat(status(plain, "gzip")).isEqualTo(HttpStatus.OK);
+        assertThat(status(null, "gzip")).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void gzipIsRefusedWithZeroQuality() {
+        assertThat(Representation.acceptsGzip("gzip")).isTrue();
+        assertThat(Representation.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+        assertThat(Representation.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(Representation.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(Representation.acceptsGzip("br")).isFalse();
+        assertThat(Representation.acceptsGzip(null)).isFalse();
+    }
+
+    private HttpStatusCode status(String ifNoneMatch, String acceptEncoding) {
+        return representation.respond(MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding).getStatusCode();
+    }
+}
@@ -0,0 +1,98 @@
+package com.infraleap.leaderboards.cluster;
+
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import com.infraleap.leaderboards.stern.service.SnapshotStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterProtocolTest {
+
+    private static final SnapshotStore.Snapshot SNAPSHOT = new SnapshotStore.Snapshot(
+            Instant.ofEpochMilli(1_700_000_000_000L),
+            List.of(new Machine(7L, false, true, Instant.ofEpochSecond(1_700_000_000, 5), null, null, null, null)),
+            Map.of(),
+            Map.of(7L, new HighScoreResponse(List.of(
+                    new HighScoreEntry("s1", 1_000_000L, new ScoreUser("ace", null, "ACE"))))));
+
+    @Test
+    void snapshotFramesRoundTrip() throws IOException {
+        ClusterProtocol.Frame full = read(ClusterProtocol.snapshot(ClusterProtocol.FULL, "home", 41, SNAPSHOT));
+        ClusterProtocol.Frame delta = read(ClusterProtocol.snapshot(ClusterProtocol.DELTA, "club", 42, SNAPSHOT));
+
+        assertThat(full.kind()).isEqualTo(ClusterProtocol.FULL);
+        assertThat(full.tenant()).isEqualTo("home");
+        assertThat(full.sequence()).isEqualTo(41);
+        assertThat(full.snapshot()).isEqualTo(SNAPSHOT);
+        assertThat(delta.kind()).isEqualTo(ClusterProtocol.DELTA);
+        assertThat(delta.tenant()).isEqualTo("club");
+        assertThat(delta.sequence()).isEqualTo(42);
+    }
+
+    @Test
+    void heartbeatRoundTrips() throws IOException {
+        Map<String, Instant> refreshedAt = new LinkedHashMap<>();
+        refreshedAt.put("home", Instant.ofEpochMilli(1_700_000_000_000L));
+        refreshedAt.put("club", Instant.ofEpochMilli(1_700_000_060_000L));
+
+        ClusterProtocol.Frame frame = read(ClusterProtocol.heartbeat(refreshedAt));
+
+        assertThat(frame.kind()).isEqualTo(ClusterProtocol.HEARTBEAT);
+        assertThat(frame.refreshedAt()).containsExactlyEntriesOf(refreshedAt);
+        assertThat(read(ClusterProtocol.heartbeat(Map.of())).refreshedAt()).isEmpty();
+    }
+
+    @Test
+    void framesFollowEachOtherOnOneStream() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write(ClusterProtocol.heartbeat(Map.of()));
+        stream.write(ClusterProtocol.snapshot(ClusterProtocol.FULL, "home", 1, SNAPSHOT));
+        stream.write(ClusterProtocol.heartbeat(Map.of("home", Instant.ofEpochMilli(0))));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(stream.toByteArray()));
+
+        assertThat(ClusterProtocol.read(in).kind()).isEqualTo(ClusterProtocol.HEARTBEAT);
+        assertThat(ClusterProtocol.read(in).snapshot()).isEqualTo(SNAPSHOT);
+        assertThat(ClusterProtocol.read(in).refreshedAt()).containsOnlyKeys("home");
+        assertThatThrownBy(() -> ClusterProtocol.read(in)).isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void rejectsMalformedFrames() throws IOException {
+        byte[] frame = ClusterProtocol.heartbeat(Map.of());
+
+        byte[] badMagic = frame.clone();
+        badMagic[4] ^= 1;
+        assertThatThrownBy(() -> read(badMagic)).hasMessage("Not a cluster frame");
+
+        byte[] badKind = frame.clone();
+        badKind[8] = 9;
+        assertThatThrownBy(() -> read(badKind)).hasMessage("Unknown frame kind 9");
+
+        byte[] badLength = frame.clone();
+        ByteBuffer.wrap(badLength).putInt(0, Integer.MAX_VALUE);
+        assertThatThrownBy(() -> read(badLength)).hasMessageStartingWith("Bad frame length");
+
+        byte[] truncated = ClusterProtocol.snapshot(ClusterProtocol.FULL, "home", 1, SNAPSHOT);
+        assertThatThrownBy(() -> read(Arrays.copyOf(truncated, truncated.length - 1))).isInstanceOf(EOFException.class);
+    }
+
+    private static ClusterProtocol.Frame read(byte[] frame) throws IOException {
+        return ClusterProtocol.read(new DataInputStream(new ByteArrayInputStream(frame)));
+    }
+}
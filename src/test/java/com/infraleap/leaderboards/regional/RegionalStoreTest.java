@@ -0,0 +1,80 @@
+package com.infraleap.leaderboards.regional;
+
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.MachineTitle;
+import com.infraleap.leaderboards.stern.domain.RegionalLeaderboard;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionalStoreTest {
+
+    private final RegionalStore store = new RegionalStore(10);
+
+    @Test
+    void mergesBoardsOfATitleIntoOneRanking() {
+        index(RegionalStore.Scope.GLOBAL, List.of(
+                board(1L, "Godzilla", entry("ACE", 300), entry("BOB", 100)),
+                board(2L, "Godzilla", entry("bob", 200), entry("CAT", 150))));
+
+        RegionalStore.Standings standings = store.forTitle("godzilla").of(RegionalStore.Scope.GLOBAL);
+        assertThat(standings.top()).containsExactly(
+                new RegionalStore.Standing(1, "ACE", 300),
+                new RegionalStore.Standing(2, "bob", 200),
+                new RegionalStore.Standing(3, "CAT", 150));
+        assertThat(store.placement("BOB", RegionalStore.Scope.GLOBAL, "Godzilla").rank()).isEqualTo(2);
+        assertThat(store.forTitle("Godzilla").of(RegionalStore.Scope.NEARBY)).isNull();
+    }
+
+    @Test
+    void skipsBoardsWithoutAnId() {
+        Set<String> changed = store.put(RegionalStore.Scope.GLOBAL, List.of(
+                board(null, "Godzilla", entry("ACE", 300)),
+                board(null, "Venom", entry("BOB", 200)),
+                board(3L, "Rush", entry("CAT", 100))));
+        store.reindex(RegionalStore.Scope.GLOBAL, changed);
+
+        assertThat(changed).containsExactly("rush");
+        assertThat(store.boardCount()).isEqualTo(1);
+        assertThat(store.forTitle("Godzilla")).isNull();
+        assertThat(store.forTitle("Venom")).isNull();
+    }
+
+    @Test
+    void dropsBoardsMissingFromACompleteWalk() {
+        index(RegionalStore.Scope.NEARBY, List.of(
+                board(1L, "Godzilla", entry("ACE", 300)),
+                board(2L, "Venom", entry("BOB", 200))));
+
+        Set<String> changed = store.retain(RegionalStore.Scope.NEARBY, Set.of(1L));
+        store.reindex(RegionalStore.Scope.NEARBY, changed);
+
+        assertThat(changed).containsExactly("venom");
+        assertThat(store.forTitle("Venom")).isNull();
+        assertThat(store.placement("BOB", RegionalStore.Scope.NEARBY, "Venom")).isNull();
+        assertThat(store.forTitle("Godzilla")).isNotNull();
+    }
+
+    @Test
+    void unchangedBoardIsNotReported() {
+        index(RegionalStore.Scope.GLOBAL, List.of(board(1L, "Godzilla", entry("ACE", 300))));
+
+        assertThat(store.put(RegionalStore.Scope.GLOBAL, List.of(board(1L, "Godzilla", entry("ACE", 300))))).isEmpty();
+    }
+
+    private void index(RegionalStore.Scope scope, List<RegionalLeaderboard> page) {
+        store.reindex(scope, store.put(scope, page));
+    }
+
+    private static RegionalLeaderboard board(Long id, String title, HighScoreEntry... scores) {
+        return new RegionalLeaderboard(id, title, new MachineTitle(title, null, null, null, null, null), List.of(scores));
+    }
+
+    private static HighScoreEntry entry(String player, long score) {
+        return new HighScoreEntry(null, score, new ScoreUser(player, null, null));
+    }
+}
@@ -0,0 +1,205 @@
+package com.infraleap.leaderboards.stern.journal;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreJournalTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @TempDir
+    Path directory;
+
+    private ScoreJournal journal;
+
+    @AfterEach
+    void close() {
+        if (journal != null) journal.close();
+    }
+
+    @Test
+    void queriesByMachinePlayerAndTime() {
+        journal = open(1024);
+        journal.append(List.of(
+                entry(1, "ACE", NOW.minusSeconds(30)),
+                entry(2, "BOB", NOW.minusSeconds(20)),
+                entry(1, "bob", NOW.minusSeconds(10))));
+
+        assertThat(players(journal.byMachine(1, Instant.MIN, Instant.MAX))).containsExactly("ACE", "bob");
+        assertThat(machines(journal.byPlayer("Bob", Instant.MIN, Instant.MAX))).containsExactly(2L, 1L);
+        assertThat(players(journal.between(NOW.minusSeconds(20), NOW.minusSeconds(10)))).containsExactly("BOB");
+        assertThat(players(journal.byMachine(3, Instant.MIN, Instant.MAX))).isEmpty();
+    }
+
+    @Test
+    void rebuildsIndexWhenReopened() {
+        journal = open(1);
+        List<JournalEntry> entries = entries(1, 60, NOW.minus(Duration.ofHours(1)));
+        journal.append(entries);
+        journal.close();
+
+        journal = open(1);
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(entries);
+    }
+
+    @Test
+    void truncatesTornRecordAtTheTail() throws IOException {
+        journal = open(1024);
+        journal.append(List.of(entry(1, "ACE", NOW)));
+        journal.close();
+        Path segment = segmentFiles().getLast();
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        journal = open(1024);
+        journal.append(List.of(entry(1, "BOB", NOW)));
+        assertThat(players(journal.byMachine(1, Instant.MIN, Instant.MAX))).containsExactly("ACE", "BOB");
+    }
+
+    @Test
+    void compactionDropsExpiredEntriesAndMergesSegments() throws IOException {
+        journal = open(1);
+        List<JournalEntry> expired = entries(1, 40, NOW.minus(Duration.ofDays(400)));
+        List<JournalEntry> kept = entries(2, 40, NOW.minus(Duration.ofDays(10)));
+        journal.append(expired);
+        journal.append(kept);
+        int before = segmentFiles().size();
+
+        journal.compact();
+
+        assertThat(segmentFiles().size()).isLessThan(before);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(Path::toString)).noneMatch(name -> name.endsWith(".compacting"));
+        }
+        assertThat(all(journal.byMachine(1, Instant.MIN, Instant.MAX))).isEmpty();
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(kept);
+
+        // Appends after compaction land behind the compacted entries, and survive a reopen
+        JournalEntry later = entry(3, "CAT", NOW);
+        journal.append(List.of(later));
+        journal.close();
+        journal = open(1);
+        List<JournalEntry> expected = new ArrayList<>(kept);
+        expected.add(later);
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(expected);
+        assertThat(players(journal.byMachine(3, Instant.MIN, Instant.MAX))).containsExactly("CAT");
+    }
+
+    @Test
+    void compactionLeavesUnexpiredJournalAlone() throws IOException {
+        journal = open(1);
+        List<JournalEntry> entries = entries(1, 60, NOW.minus(Duration.ofDays(1)));
+        journal.append(entries);
+        List<Path> before = segmentFiles();
+
+        journal.compact();
+
+        assertThat(segmentFiles()).isEqualTo(before);
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(entries);
+    }
+
+    @Test
+    void compactionAfterTheSegmentSizeWasLoweredSplitsSegmentsIntoParts() throws IOException {
+        journal = open(4);
+        List<JournalEntry> expired = entries(1, 20, NOW.minus(Duration.ofDays(400)));
+        List<JournalEntry> kept = entries(2, 200, NOW.minus(Duration.ofDays(10)));
+        journal.append(expired);
+        journal.append(kept);
+        int before = segmentFiles().size();
+        journal.close();
+
+        journal = open(1);
+        journal.compact();
+
+        assertThat(segmentFiles().size()).isGreaterThan(before);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(Path::toString)).noneMatch(name -> name.endsWith(".compacting"));
+        }
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(kept);
+
+        JournalEntry later = entry(3, "CAT", NOW);
+        journal.append(List.of(later));
+        journal.close();
+        journal = open(1);
+        List<JournalEntry> expected = new ArrayList<>(kept);
+        expected.add(later);
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(expected);
+    }
+
+    @Test
+    void discardsOutputOfAnInterruptedCompaction() throws IOException {
+        journal = open(1);
+        List<JournalEntry> entries = entries(1, 60, NOW.minus(Duration.ofDays(1)));
+        journal.append(entries);
+        journal.close();
+        Path leftover = directory.resolve(segmentFiles().getFirst().getFileName().toString()
+                .replace(".log", ".compacting"));
+        Files.write(leftover, new byte[]{1, 2, 3});
+
+        journal = open(1);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(all(journal.between(Instant.MIN, Instant.MAX))).isEqualTo(entries);
+    }
+
+    private ScoreJournal open(int segmentSizeKb) {
+        LeaderboardProperties props = new LeaderboardProperties(null, null, null, null, null, null, 0, 0, false,
+                0, 0, 0, 0, false, 0, null,
+                new LeaderboardProperties.Journal(directory.toString(), segmentSizeKb, 365),
+                null, null, null, null, null, null, null, null);
+        ScoreJournal opened = new ScoreJournal(props);
+        opened.open();
+        return opened;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static List<JournalEntry> entries(long machineId, int count, Instant start) {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(entry(machineId, "P" + i, start.plusSeconds(i)));
+        }
+        return entries;
+    }
+
+    private static JournalEntry entry(long machineId, String player, Instant time) {
+        // Millisecond precision, as stored
+        return new JournalEntry(JournalEntry.Kind.NEW_SCORE, Instant.ofEpochMilli(time.toEpochMilli()),
+                machineId, "Machine " + machineId, player, "1,000,000", 1);
+    }
+
+    private static List<JournalEntry> all(Stream<JournalEntry> entries) {
+        try (entries) {
+            return entries.toList();
+        }
+    }
+
+    private static List<String> players(Stream<JournalEntry> entries) {
+        try (entries) {
+            return entries.map(JournalEntry::player).toList();
+        }
+    }
+
+    private static List<Long> machines(Stream<JournalEntry> entries) {
+        try (entries) {
+            return entries.map(JournalEntry::machineId).toList();
+        }
+    }
+}
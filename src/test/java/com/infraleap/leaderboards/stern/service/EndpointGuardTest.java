@@ -0,0 +1,105 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointGuardTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void opensAfterConsecutiveFailuresThenClosesOnASuccessfulTrial() throws InterruptedException {
+        EndpointGuard guard = guard(3);
+
+        guard.failed();
+        guard.failed();
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.CLOSED);
+        guard.failed();
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.OPEN);
+        assertThat(guard.tryAcquire()).isFalse();
+
+        waitUntilHalfOpen();
+        assertThat(guard.tryAcquire()).isTrue();
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.HALF_OPEN);
+        // Only the one trial call is let through
+        assertThat(guard.tryAcquire()).isFalse();
+
+        guard.succeeded();
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.CLOSED);
+        assertThat(guard.tryAcquire()).isTrue();
+        assertThat(rejections("circuit_open")).isEqualTo(2);
+        assertThat(meterRegistry.get("stern.api.circuit.state").tag("endpoint", "test").gauge().value()).isZero();
+    }
+
+    @Test
+    void failedTrialOpensAgain() throws InterruptedException {
+        EndpointGuard guard = guard(1);
+        guard.failed();
+
+        waitUntilHalfOpen();
+        assertThat(guard.tryAcquire()).isTrue();
+        guard.failed();
+
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.OPEN);
+        assertThat(guard.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void abandonedTrialLetsAnotherOneThrough() throws InterruptedException {
+        EndpointGuard guard = guard(1);
+        guard.failed();
+
+        waitUntilHalfOpen();
+        assertThat(guard.tryAcquire()).isTrue();
+        guard.abandoned();
+
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.HALF_OPEN);
+        assertThat(guard.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        EndpointGuard guard = guard(2);
+
+        guard.failed();
+        guard.succeeded();
+        guard.failed();
+
+        assertThat(guard.state()).isEqualTo(EndpointGuard.State.CLOSED);
+    }
+
+    @Test
+    void rateLimitQueuesWithinTheTimeoutAndRejectsBeyondIt() {
+        // One token per second, two in the bucket
+        EndpointGuard guard = new EndpointGuard("test",
+                new LeaderboardProperties.Resilience(1, 2, 0, 0, 0, 1, 1), meterRegistry);
+
+        assertThat(guard.reserve(Duration.ZERO)).isZero();
+        assertThat(guard.reserve(Duration.ZERO)).isZero();
+        assertThat(guard.reserve(Duration.ofMillis(100))).isEqualTo(-1);
+        assertThat(guard.reserve(Duration.ofSeconds(5))).isPositive().isLessThanOrEqualTo(Duration.ofSeconds(1).toNanos());
+        // The reservation above pushes the next caller further back
+        assertThat(guard.reserve(Duration.ofSeconds(5))).isGreaterThan(Duration.ofSeconds(1).toNanos());
+        assertThat(rejections("rate_limited")).isEqualTo(1);
+    }
+
+    private EndpointGuard guard(int failureThreshold) {
+        return new EndpointGuard("test",
+                new LeaderboardProperties.Resilience(0, 0, 0, 0, 0, failureThreshold, 1), meterRegistry);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("stern.api.rejections").tags("endpoint", "test", "reason", reason).counter().count();
+    }
+
+    // open-seconds is at least one
+    private static void waitUntilHalfOpen() throws InterruptedException {
+        Thread.sleep(1_050);
+    }
+}
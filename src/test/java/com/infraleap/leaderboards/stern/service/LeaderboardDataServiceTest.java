@@ -0,0 +1,111 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.domain.MachineModel;
+import com.infraleap.leaderboards.stern.domain.MachineTitle;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import com.infraleap.leaderboards.stern.journal.JournalEntry;
+import com.infraleap.leaderboards.ui.broadcast.LeaderboardEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LeaderboardDataServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T12:00:00Z");
+    private static final Machine MACHINE = new Machine(7L, false, true, null,
+            new MachineModel(new MachineTitle("Godzilla", null, null, null, null, null), null), null, null, null);
+
+    private LeaderboardDataService service;
+
+    @BeforeEach
+    void setUp() {
+        LeaderboardProperties props = new LeaderboardProperties(null, null, null, null, null, null, 0, 0, false,
+                0, 0, 0, 0, false, 0, null, null, null, null, null, null, null, null, null, null);
+        service = new LeaderboardDataService(null, null, null, null, null, null, null, new SimpleMeterRegistry(), props);
+    }
+
+    @Test
+    void firstFetchHasNothingToCompare() {
+        List<JournalEntry> journal = new ArrayList<>();
+
+        assertThat(service.detectScoreChanges(MACHINE, board(entry("a", "ACE", 300)), NOW, journal)).isEmpty();
+        assertThat(journal).isEmpty();
+    }
+
+    @Test
+    void unchangedBoardHasNoEvents() {
+        restore(board(entry("a", "ACE", 300), entry("b", "BOB", 200)));
+
+        assertThat(service.detectScoreChanges(MACHINE, board(entry("a", "ACE", 300), entry("b", "BOB", 200)),
+                NOW, new ArrayList<>())).isEmpty();
+    }
+
+    @Test
+    void newGrandChampionDethronesThePreviousOne() {
+        restore(board(entry("a", "ACE", 300), entry("b", "BOB", 200)));
+        List<JournalEntry> journal = new ArrayList<>();
+
+        List<LeaderboardEvent> events = service.detectScoreChanges(MACHINE,
+                board(entry("n", "NEW", 500), entry("a", "ACE", 300)), NOW, journal);
+
+        assertThat(events).containsExactly(
+                new LeaderboardEvent.NewScore(7, "Godzilla", "NEW", 500, 1),
+                new LeaderboardEvent.ScoreMoved(7, "Godzilla", "ACE", 300, 1, 2),
+                new LeaderboardEvent.ScoreKnockedOff(7, "Godzilla", "BOB", 200, 2),
+                new LeaderboardEvent.GrandChampionChanged(7, "Godzilla", "NEW", 500, "ACE", 300));
+        assertThat(journal).extracting(JournalEntry::kind, JournalEntry::player).containsExactly(
+                tuple(JournalEntry.Kind.NEW_SCORE, "NEW"),
+                tuple(JournalEntry.Kind.DISPLACED, "BOB"));
+        assertThat(service.getNewScoreKeys(7)).containsExactly(entry("n", "NEW", 500).key());
+    }
+
+    @Test
+    void newScoreBelowTheTopKeepsTheChampion() {
+        restore(board(entry("a", "ACE", 300), entry("b", "BOB", 200)));
+
+        List<LeaderboardEvent> events = service.detectScoreChanges(MACHINE,
+                board(entry("a", "ACE", 300), entry("n", "NEW", 250), entry("b", "BOB", 200)), NOW, new ArrayList<>());
+
+        assertThat(events).containsExactly(
+                new LeaderboardEvent.NewScore(7, "Godzilla", "NEW", 250, 2),
+                new LeaderboardEvent.ScoreMoved(7, "Godzilla", "BOB", 200, 2, 3));
+    }
+
+    @Test
+    void tiedChampionsSwappingPlacesIsAChampionChange() {
+        restore(board(entry("a", "ACE", 300), entry("b", "BOB", 300)));
+
+        List<LeaderboardEvent> events = service.detectScoreChanges(MACHINE,
+                board(entry("b", "BOB", 300), entry("a", "ACE", 300)), NOW, new ArrayList<>());
+
+        assertThat(events).containsExactly(
+                new LeaderboardEvent.ScoreMoved(7, "Godzilla", "BOB", 300, 2, 1),
+                new LeaderboardEvent.ScoreMoved(7, "Godzilla", "ACE", 300, 1, 2),
+                new LeaderboardEvent.GrandChampionChanged(7, "Godzilla", "BOB", 300, "ACE", 300));
+        assertThat(service.getNewScoreKeys(7)).isEmpty();
+    }
+
+    private void restore(HighScoreResponse scores) {
+        service.restore(new SnapshotStore.Snapshot(NOW, List.of(), Map.of(), Map.of(7L, scores)));
+    }
+
+    private static HighScoreResponse board(HighScoreEntry... entries) {
+        return new HighScoreResponse(List.of(entries));
+    }
+
+    private static HighScoreEntry entry(String id, String player, long score) {
+        return new HighScoreEntry(id, score, new ScoreUser(player, null, null));
+    }
+}
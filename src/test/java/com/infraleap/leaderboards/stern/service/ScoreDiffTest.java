@@ -0,0 +1,112 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScoreDiffTest {
+
+    @Test
+    void sameBoardComparesKeysInOrder() {
+        List<HighScoreEntry> board = List.of(entry("a", 300), entry("b", 200));
+
+        assertThat(ScoreDiff.sameBoard(board, List.of(entry("a", 300), entry("b", 200)))).isTrue();
+        assertThat(ScoreDiff.sameBoard(board, List.of(entry("b", 200), entry("a", 300)))).isFalse();
+        assertThat(ScoreDiff.sameBoard(board, List.of(entry("a", 300)))).isFalse();
+    }
+
+    @Test
+    void newScorePushesOthersDownAndOffTheBoard() {
+        List<HighScoreEntry> before = List.of(entry("a", 300), entry("b", 200), entry("c", 100));
+        List<HighScoreEntry> after = List.of(entry("a", 300), entry("n", 250), entry("b", 200));
+
+        assertThat(diff(before, after)).containsExactly("added n@2", "moved b 2->3", "knockedOff c@3");
+    }
+
+    @Test
+    void newGrandChampion() {
+        List<HighScoreEntry> before = List.of(entry("a", 300), entry("b", 200));
+        List<HighScoreEntry> after = List.of(entry("n", 500), entry("a", 300), entry("b", 200));
+
+        assertThat(diff(before, after)).containsExactly("added n@1", "moved a 1->2", "moved b 2->3");
+    }
+
+    @Test
+    void tiedScoresMayChangeOrderWithoutBeingNew() {
+        List<HighScoreEntry> before = List.of(entry("a", 300), entry("b", 200), entry("c", 200));
+        List<HighScoreEntry> after = List.of(entry("a", 300), entry("c", 200), entry("b", 200));
+
+        assertThat(diff(before, after)).containsExactly("moved c 3->2", "moved b 2->3");
+    }
+
+    @Test
+    void tieWithANewEntryIsAdded() {
+        List<HighScoreEntry> before = List.of(entry("a", 300), entry("b", 200));
+        List<HighScoreEntry> after = List.of(entry("a", 300), entry("n", 200), entry("b", 200));
+
+        assertThat(diff(before, after)).containsExactly("added n@2", "moved b 2->3");
+    }
+
+    @Test
+    void entriesWithoutIdAreMatchedByPlayerAndScore() {
+        List<HighScoreEntry> before = List.of(anonymous("ACE", 300), anonymous("BOB", 200));
+        List<HighScoreEntry> after = List.of(anonymous("ACE", 300), anonymous("BOB", 250));
+
+        assertThat(diff(before, after)).containsExactly("added BOB@2", "knockedOff BOB@2");
+    }
+
+    @Test
+    void unrankedBoardIsMatchedAsOneGroup() {
+        List<HighScoreEntry> before = List.of(entry("a", 100), entry("b", 300));
+        List<HighScoreEntry> after = List.of(entry("b", 300), entry("c", 50), entry("a", 100));
+
+        assertThat(diff(before, after)).containsExactly("moved b 2->1", "added c@2", "moved a 1->3");
+    }
+
+    @Test
+    void emptyBoards() {
+        List<HighScoreEntry> board = List.of(entry("a", 300), entry("b", 200));
+
+        assertThat(diff(List.of(), board)).containsExactly("added a@1", "added b@2");
+        assertThat(diff(board, List.of())).containsExactly("knockedOff a@1", "knockedOff b@2");
+        assertThat(diff(List.of(), List.of())).isEmpty();
+    }
+
+    private static List<String> diff(List<HighScoreEntry> before, List<HighScoreEntry> after) {
+        List<String> events = new ArrayList<>();
+        ScoreDiff.diff(before, after, new ScoreDiff.Sink() {
+            @Override
+            public void added(HighScoreEntry entry, int rank) {
+                events.add("added " + name(entry) + "@" + rank);
+            }
+
+            @Override
+            public void moved(HighScoreEntry entry, int fromRank, int toRank) {
+                events.add("moved " + name(entry) + " " + fromRank + "->" + toRank);
+            }
+
+            @Override
+            public void knockedOff(HighScoreEntry entry, int rank) {
+                events.add("knockedOff " + name(entry) + "@" + rank);
+            }
+        });
+        return events;
+    }
+
+    private static String name(HighScoreEntry entry) {
+        return entry.id() != null ? entry.id() : entry.playerName();
+    }
+
+    private static HighScoreEntry entry(String id, long score) {
+        return new HighScoreEntry(id, score, new ScoreUser(id.toUpperCase(), null, null));
+    }
+
+    private static HighScoreEntry anonymous(String player, long score) {
+        return new HighScoreEntry(null, score, new ScoreUser(player, null, null));
+    }
+}
@@ -0,0 +1,111 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import com.infraleap.leaderboards.stern.domain.AvatarInfo;
+import com.infraleap.leaderboards.stern.domain.HighScoreEntry;
+import com.infraleap.leaderboards.stern.domain.HighScoreResponse;
+import com.infraleap.leaderboards.stern.domain.Machine;
+import com.infraleap.leaderboards.stern.domain.MachineAddress;
+import com.infraleap.leaderboards.stern.domain.MachineModel;
+import com.infraleap.leaderboards.stern.domain.MachineTitle;
+import com.infraleap.leaderboards.stern.domain.ScoreUser;
+import com.infraleap.leaderboards.stern.domain.TechAlert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        SnapshotStore.Snapshot snapshot = snapshot();
+
+        SnapshotStore.Snapshot read = SnapshotStore.read(new DataInputStream(new ByteArrayInputStream(bytes(snapshot))));
+
+        assertThat(read).isEqualTo(snapshot);
+        assertThat(read.highScores().get(7L).highScores().getFirst().key())
+                .isEqualTo(snapshot.highScores().get(7L).highScores().getFirst().key());
+    }
+
+    @Test
+    void savesAndLoadsThroughTheFile() {
+        Path file = directory.resolve("data").resolve("snapshot.bin");
+        SnapshotStore store = new SnapshotStore(props(file.toString()));
+        SnapshotStore.Snapshot snapshot = snapshot();
+
+        store.save(snapshot);
+
+        assertThat(file).isRegularFile();
+        assertThat(store.load()).contains(snapshot);
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        byte[] bytes = bytes(snapshot());
+        ByteBuffer.wrap(bytes).putInt(4, 1);
+
+        assertThatThrownBy(() -> SnapshotStore.read(new DataInputStream(new ByteArrayInputStream(bytes))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version 1");
+    }
+
+    @Test
+    void ignoresUnreadableFile() throws IOException {
+        Path file = directory.resolve("snapshot.bin");
+        byte[] bytes = bytes(snapshot());
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThat(new SnapshotStore(props(file.toString())).load()).isEmpty();
+        assertThat(new SnapshotStore(props(directory.resolve("missing.bin").toString())).load()).isEmpty();
+    }
+
+    private static SnapshotStore.Snapshot snapshot() {
+        Machine full = new Machine(7L, false, true, Instant.ofEpochSecond(1_700_000_000, 123_456_789),
+                new MachineModel(new MachineTitle("Godzilla", "#000", "logo.png", "square.png", "#111", "#222"), "Premium"),
+                new MachineAddress(42L),
+                List.of(new TechAlert("Tilt bob stuck", Instant.ofEpochSecond(1_699_000_000))),
+                "1.2.0");
+        Machine sparse = new Machine(null, null, null, null, null, null, null, null);
+
+        Map<Long, HighScoreResponse> highScores = new HashMap<>();
+        highScores.put(7L, new HighScoreResponse(List.of(
+                new HighScoreEntry("s1", 1_234_567_890L, new ScoreUser("ace", "Ace", "ACE")),
+                new HighScoreEntry(null, HighScoreEntry.NO_SCORE, null))));
+        highScores.put(8L, new HighScoreResponse(null));
+
+        return new SnapshotStore.Snapshot(Instant.ofEpochMilli(1_700_000_123_456L), List.of(full, sparse),
+                Map.of("ace", new AvatarInfo("https://example.com/ace.png", null)), highScores);
+    }
+
+    private static byte[] bytes(SnapshotStore.Snapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            SnapshotStore.write(out, snapshot);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LeaderboardProperties props(String snapshotFile) {
+        return new LeaderboardProperties(null, null, null, null, null, null, 0, 0, false,
+                0, 0, 0, 0, false, 0, snapshotFile, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.infraleap.leaderboards.stern.service;
+
+import com.infraleap.leaderboards.config.LeaderboardProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StaleWhileRevalidateCacheTest {
+
+    private static final String URL = "https://example.com/machines";
+    private static final Duration TTL = Duration.ofMillis(50);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StaleWhileRevalidateCache cache = cache(10);
+
+    @Test
+    void freshResponseIsServedWithoutLoading() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(get(Duration.ofMinutes(1), counting(loads, "a"))).isEqualTo("a");
+        assertThat(get(Duration.ofMinutes(1), counting(loads, "b"))).isEqualTo("a");
+
+        assertThat(loads).hasValue(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(lookups("fresh")).isEqualTo(1);
+    }
+
+    @Test
+    void staleResponseIsServedWhileItRevalidates() throws InterruptedException {
+        get(TTL, () -> Mono.just("a"));
+        Thread.sleep(TTL.toMillis() * 2);
+
+        assertThat(get(TTL, () -> Mono.just("b"))).isEqualTo("a");
+        // Replaced in the background
+        assertThat(get(Duration.ofMinutes(1), () -> Mono.just("c"))).isEqualTo("b");
+
+        assertThat(lookups("stale")).isEqualTo(1);
+        assertThat(lookups("fresh")).isEqualTo(1);
+    }
+
+    @Test
+    void onlyOneRevalidationPerUrlIsInFlight() throws InterruptedException {
+        get(TTL, () -> Mono.just("a"));
+        Thread.sleep(TTL.toMillis() * 2);
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<String> pending = Sinks.one();
+        Supplier<Mono<String>> load = () -> {
+            loads.incrementAndGet();
+            return pending.asMono();
+        };
+
+        assertThat(get(TTL, load)).isEqualTo("a");
+        assertThat(get(TTL, load)).isEqualTo("a");
+        assertThat(loads).hasValue(1);
+
+        pending.tryEmitValue("b");
+        assertThat(get(Duration.ofMinutes(1), load)).isEqualTo("b");
+    }
+
+    @Test
+    void failedRevalidationKeepsTheStaleResponse() throws InterruptedException {
+        get(TTL, () -> Mono.just("a"));
+        Thread.sleep(TTL.toMillis() * 2);
+
+        assertThat(get(TTL, () -> Mono.error(new IllegalStateException("down")))).isEqualTo("a");
+        assertThat(get(TTL, () -> Mono.error(new IllegalStateException("down")))).isEqualTo("a");
+    }
+
+    @Test
+    void expiredResponseIsLoadedBeforeReturning() throws InterruptedException {
+        get(TTL, () -> Mono.just("a"));
+        // max-stale-seconds is at least one
+        Thread.sleep(TTL.toMillis() + 1_050);
+
+        assertThat(get(TTL, () -> Mono.just("b"))).isEqualTo("b");
+        assertThatThrownBy(() -> cache.get("machines", "https://example.com/other", TTL,
+                () -> Mono.<String>error(new IllegalStateException("down"))).block())
+                .hasMessage("down");
+        assertThat(lookups("miss")).isEqualTo(3);
+    }
+
+    @Test
+    void zeroTtlAlwaysLoadsAndCachesNothing() {
+        AtomicInteger loads = new AtomicInteger();
+
+        get(Duration.ZERO, counting(loads, "a"));
+        get(Duration.ZERO, counting(loads, "a"));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.age(URL)).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsed() {
+        StaleWhileRevalidateCache small = cache(2);
+        Duration ttl = Duration.ofMinutes(1);
+        small.get("machines", "/1", ttl, () -> Mono.just("1")).block();
+        small.get("machines", "/2", ttl, () -> Mono.just("2")).block();
+        small.get("machines", "/1", ttl, () -> Mono.just("1")).block();
+        small.get("machines", "/3", ttl, () -> Mono.just("3")).block();
+
+        assertThat(small.age("/1")).isNotNull();
+        assertThat(small.age("/2")).isNull();
+        assertThat(small.age("/3")).isNotNull();
+        assertThat(meterRegistry.get("stern.api.response.cache.evictions").counter().count()).isEqualTo(1);
+    }
+
+    private String get(Duration ttl, Supplier<Mono<String>> load) {
+        return cache.get("machines", URL, ttl, load).block();
+    }
+
+    private static Supplier<Mono<String>> counting(AtomicInteger loads, String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return Mono.just(value);
+        };
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("stern.api.response.cache").tags("endpoint", "machines", "result", result)
+                .counter().count();
+    }
+
+    private StaleWhileRevalidateCache cache(int maxEntries) {
+        return new StaleWhileRevalidateCache(
+                new LeaderboardProperties.Cache(maxEntries, 1, 0, 0, 0, 0, 0, 0, 0), meterRegistry);
+    }
+}